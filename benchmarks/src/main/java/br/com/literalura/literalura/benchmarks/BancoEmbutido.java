@@ -0,0 +1,69 @@
+package br.com.literalura.literalura.benchmarks;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.service.CacheAutores;
+import br.com.literalura.literalura.service.IngestaoLivros;
+import io.micrometer.core.instrument.Metrics;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PostgreSQL embutido (binários baixados pelo Maven, sem Docker) com o esquema da aplicação
+ * aplicado pelas mesmas migrações do Flyway, e o serviço de ingestão ligado a ele sem subir o Spring.
+ */
+final class BancoEmbutido implements AutoCloseable {
+    private final EmbeddedPostgres postgres;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final CacheAutores cacheAutores;
+    private final IngestaoLivros ingestao;
+
+    private BancoEmbutido(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+        DataSource dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // Os índices em memória não fazem parte da medição: os eventos de ingestão são descartados.
+        this.cacheAutores = new CacheAutores(jdbc, Metrics.globalRegistry);
+        this.ingestao = new IngestaoLivros(jdbc, cacheAutores, evento -> {}, Metrics.globalRegistry);
+    }
+
+    static BancoEmbutido iniciar() throws IOException {
+        return new BancoEmbutido(EmbeddedPostgres.builder().start());
+    }
+
+    /**
+     * Ingere um lote em uma transação, como o @Transactional faz na aplicação.
+     */
+    List<Book> ingerir(Collection<Book> livros) {
+        return transacao.execute(status -> ingestao.ingerir(livros));
+    }
+
+    /**
+     * Apaga todos os livros e autores, para que cada medição comece com o banco vazio.
+     * O cache de autores também é esvaziado, já que os ids que ele guarda deixam de existir.
+     */
+    void limpar() {
+        jdbc.execute("TRUNCATE livros, autores RESTART IDENTITY CASCADE");
+        cacheAutores.esvaziar();
+    }
+
+    int contarLivros() {
+        return jdbc.queryForObject("SELECT count(*) FROM livros", Integer.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.literalura.literalura.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga da API HTTP de consulta da aplicação (ServidorApi), com um número crescente de clientes
+ * simultâneos: 1, 2, 4, ... até o máximo. Em cada nível, cada cliente faz uma requisição atrás da outra
+ * durante o tempo indicado, sorteando uma das rotas abaixo; ao final são mostradas a vazão e as
+ * latências (p50, p99 e máxima) do nível.
+ * <p>
+ * Cada cliente é uma thread com uma conexão HTTP/1.1 reaproveitada (HttpURLConnection), para que o custo
+ * medido seja o do servidor e não o do cliente.
+ * <p>
+ * A aplicação precisa estar no ar com a API ligada:
+ * <pre>
+ * java -jar ../target/literalura-0.0.1-SNAPSHOT-exec.jar --serve
+ * java -cp target/benchmarks.jar br.com.literalura.literalura.benchmarks.CargaApi http://localhost:8080 10 64
+ * </pre>
+ * Argumentos: endereço da aplicação, segundos por nível (padrão 10) e máximo de clientes (padrão 64).
+ */
+public class CargaApi {
+    private static final List<String> ROTAS = List.of(
+            "/api/livros?tamanho=20",
+            "/api/livros?cursor=1000&tamanho=50",
+            "/api/livros?idioma=pt&tamanho=20",
+            "/api/livros/busca?q=machado&limite=10",
+            "/api/livros/busca?q=love&limite=10",
+            "/api/livros/top?n=10",
+            "/api/livros/top?n=10&idioma=fr",
+            "/api/autores?tamanho=20",
+            "/api/autores/vivos?ano=1850&tamanho=20",
+            "/api/estatisticas");
+
+    public static void main(String[] args) throws Exception {
+        String endereco = args.length > 0 ? args[0] : "http://localhost:8080";
+        Duration duracao = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 10);
+        int maxClientes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        // Aquecimento: carrega os índices em memória e compila o caminho das requisições.
+        executarNivel(endereco, 4, Duration.ofSeconds(Math.min(5, duracao.toSeconds())));
+
+        System.out.printf("%8s %10s %10s %10s %10s %10s %8s%n",
+                "clientes", "requisicoes", "req/s", "p50 (ms)", "p99 (ms)", "max (ms)", "erros");
+        for (int clientes = 1; clientes <= maxClientes; clientes *= 2) {
+            Resultado resultado = executarNivel(endereco, clientes, duracao);
+            System.out.printf("%8d %10d %10.1f %10.2f %10.2f %10.2f %8d%n", clientes, resultado.requisicoes(),
+                    resultado.requisicoes() / (duracao.toNanos() / 1e9),
+                    resultado.percentil(0.50), resultado.percentil(0.99), resultado.percentil(1.0), resultado.erros());
+        }
+    }
+
+    private static Resultado executarNivel(String endereco, int clientes, Duration duracao)
+            throws InterruptedException {
+        long fim = System.nanoTime() + duracao.toNanos();
+        AtomicLong erros = new AtomicLong();
+        List<long[]> latenciasPorCliente = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clientes; i++) {
+            long[][] latencias = {new long[1024]};
+            int[] total = {0};
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < fim) {
+                    String rota = ROTAS.get(ThreadLocalRandom.current().nextInt(ROTAS.size()));
+                    long inicio = System.nanoTime();
+                    if (!requisitar(endereco + rota)) {
+                        erros.incrementAndGet();
+                    }
+                    if (total[0] == latencias[0].length) {
+                        latencias[0] = Arrays.copyOf(latencias[0], total[0] * 2);
+                    }
+                    latencias[0][total[0]++] = System.nanoTime() - inicio;
+                }
+                synchronized (latenciasPorCliente) {
+                    latenciasPorCliente.add(Arrays.copyOf(latencias[0], total[0]));
+                }
+            }, "carga-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] todas = latenciasPorCliente.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Resultado(todas, erros.get());
+    }
+
+    /**
+     * Faz uma requisição GET e lê a resposta inteira (o que permite reaproveitar a conexão).
+     * @return true se a resposta foi 200.
+     */
+    private static boolean requisitar(String url) {
+        try {
+            HttpURLConnection conexao = (HttpURLConnection) URI.create(url).toURL().openConnection();
+            conexao.setConnectTimeout(5_000);
+            conexao.setReadTimeout(30_000);
+            int status = conexao.getResponseCode();
+            try (InputStream corpo = status < 400 ? conexao.getInputStream() : conexao.getErrorStream()) {
+                if (corpo != null) {
+                    corpo.readAllBytes();
+                }
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param latencias Latências de todas as requisições do nível, em nanossegundos, em ordem crescente.
+     */
+    private record Resultado(long[] latencias, long erros) {
+        long requisicoes() {
+            return latencias.length;
+        }
+
+        /**
+         * O percentil pedido (0.99 = p99), em milissegundos.
+         */
+        double percentil(double fracao) {
+            if (latencias.length == 0) {
+                return 0;
+            }
+            int posicao = (int) Math.ceil(fracao * latencias.length) - 1;
+            return latencias[Math.max(0, posicao)] / 1e6;
+        }
+    }
+}
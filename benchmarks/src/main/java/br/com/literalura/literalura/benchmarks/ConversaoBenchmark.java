@@ -0,0 +1,55 @@
+package br.com.literalura.literalura.benchmarks;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.GutendexResponse;
+import br.com.literalura.literalura.service.ConverteDados;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a conversão de uma página gravada da API Gutendex (32 livros) em objetos,
+ * nas duas formas usadas pela aplicação: a String inteira (ConverteDados.obterDados)
+ * e o fluxo de bytes convertido livro a livro (ConverteDados.obterDadosEmFluxo).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoBenchmark {
+    private final ConverteDados conversor = new ConverteDados();
+    private byte[] bytes;
+    private String json;
+
+    @Setup
+    public void carregar() throws IOException {
+        bytes = StubGutendex.lerGravacaoBytes();
+        json = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public GutendexResponse converterPagina() {
+        return conversor.obterDados(json, GutendexResponse.class);
+    }
+
+    @Benchmark
+    public GutendexResponse converterPaginaEmFluxo(Blackhole blackhole) {
+        return conversor.obterDadosEmFluxo(new ByteArrayInputStream(bytes), GutendexResponse.class,
+                "results", Book.class, blackhole::consume);
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.literalura.literalura.benchmarks;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.GutendexResponse;
+import br.com.literalura.literalura.service.ColetorCatalogo;
+import br.com.literalura.literalura.service.ConsumoApi;
+import br.com.literalura.literalura.service.ConverteDados;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a ingestão de ponta a ponta, sem rede: as páginas vêm do {@link StubGutendex} e os livros
+ * são gravados em um PostgreSQL embutido ({@link BancoEmbutido}) com o esquema das migrações.
+ * O banco é esvaziado antes de cada operação, então todos os livros são sempre novos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestaoBenchmark {
+
+    @Param({"10"})
+    public int paginas;
+
+    private StubGutendex stub;
+    private BancoEmbutido banco;
+    private ColetorCatalogo coletor;
+    private List<Book> livrosDeUmaPagina;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        stub = new StubGutendex(0, paginas);
+        banco = BancoEmbutido.iniciar();
+        ConsumoApi consumo = new ConsumoApi();
+        ConverteDados conversor = new ConverteDados();
+        coletor = new ColetorCatalogo(consumo, conversor, 8, 500, Files.createTempDirectory("coletas"));
+        livrosDeUmaPagina = conversor.obterDados(consumo.obterDados(stub.endereco()), GutendexResponse.class).getResults();
+    }
+
+    @Setup(Level.Invocation)
+    public void limparBanco() {
+        banco.limpar();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        stub.close();
+        banco.close();
+    }
+
+    /**
+     * Baixa todas as páginas em paralelo, converte em fluxo e grava os livros em lotes de 500 que
+     * atravessam páginas, o mesmo caminho (e o mesmo tamanho de lote padrão) da opção "Coletar" do menu.
+     */
+    @Benchmark
+    public ColetorCatalogo.ResultadoColeta coletarEIngerir() {
+        ColetorCatalogo.ResultadoColeta resultado = coletor.coletar(stub.endereco(), banco::ingerir);
+        if (!resultado.completa()) {
+            throw new IllegalStateException("A coleta não foi concluída: " + resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Apenas a gravação em lote de uma página já convertida (sem HTTP nem JSON).
+     */
+    @Benchmark
+    public List<Book> ingerirPagina() {
+        return banco.ingerir(livrosDeUmaPagina);
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.literalura.literalura.benchmarks;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.service.ConverteDados;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o mapeamento de um livro da API para a entidade Book:
+ * - os métodos auxiliares setAuthorsFromAPI e setLanguages, chamados diretamente;
+ * - a conversão completa de um livro em JSON, em que o Jackson chama esses mesmos métodos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeamentoLivroBenchmark {
+    private final ConverteDados conversor = new ConverteDados();
+    private final List<List<Author>> autores = new ArrayList<>();
+    private final List<List<String>> idiomas = new ArrayList<>();
+    private String jsonLivro;
+
+    @Setup
+    public void carregar() throws IOException {
+        JsonNode resultados = StubGutendex.lerGravacao().get("results");
+        for (JsonNode livro : resultados) {
+            List<Author> autoresDoLivro = new ArrayList<>();
+            for (JsonNode autor : livro.get("authors")) {
+                autoresDoLivro.add(conversor.obterDados(autor.toString(), Author.class));
+            }
+            autores.add(autoresDoLivro);
+            List<String> idiomasDoLivro = new ArrayList<>();
+            livro.get("languages").forEach(idioma -> idiomasDoLivro.add(idioma.asText()));
+            idiomas.add(idiomasDoLivro);
+        }
+        jsonLivro = resultados.get(0).toString();
+    }
+
+    /**
+     * Mapeia os autores e idiomas de todos os livros da página (32 livros por operação).
+     */
+    @Benchmark
+    public void mapearAutoresEIdiomas(Blackhole blackhole) {
+        for (int i = 0; i < autores.size(); i++) {
+            Book livro = new Book();
+            livro.setAuthorsFromAPI(autores.get(i));
+            livro.setLanguages(idiomas.get(i));
+            blackhole.consume(livro);
+        }
+    }
+
+    @Benchmark
+    public Book converterLivro() {
+        return conversor.obterDados(jsonLivro, Book.class);
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.literalura.literalura.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP local que imita a API Gutendex, para medir e testar a aplicação sem acesso à rede.
+ * <p>
+ * Serve uma página gravada (resources/gutendex/pagina.json) repetida em várias páginas, no mesmo
+ * formato da API: "count", "next", "previous" e "results", com o parâmetro "page" na URL.
+ * Da segunda página em diante, os ids e títulos recebem um deslocamento, para que cada página
+ * traga livros novos; os autores se repetem, como acontece no catálogo real.
+ * Os demais parâmetros da URL (ex: "search") são ignorados.
+ * <p>
+ * Também pode ser executado sozinho, para rodar a aplicação contra ele:
+ * <pre>
+ * java -cp target/benchmarks.jar br.com.literalura.literalura.benchmarks.StubGutendex 8089 100
+ * java -jar ../target/literalura-0.0.1-SNAPSHOT-exec.jar --literalura.gutendex.endereco=http://127.0.0.1:8089/books/
+ * </pre>
+ */
+public class StubGutendex implements AutoCloseable {
+    // Deslocamento dos ids por página, maior que qualquer id do catálogo real.
+    private static final int DESLOCAMENTO_IDS = 100_000;
+
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final byte[][] paginas;
+
+    /**
+     * Inicia o servidor.
+     * @param porta Porta local (0 escolhe uma porta livre).
+     * @param totalPaginas Número de páginas servidas.
+     */
+    public StubGutendex(int porta, int totalPaginas) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", porta), 0);
+        String endereco = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/books/";
+        paginas = montarPaginas(endereco, totalPaginas);
+
+        executor = Executors.newFixedThreadPool(16);
+        servidor.setExecutor(executor);
+        servidor.createContext("/books", this::responder);
+        servidor.start();
+    }
+
+    /**
+     * @return A URL base, equivalente a "https://gutendex.com/books/".
+     */
+    public String endereco() {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort() + "/books/";
+    }
+
+    /**
+     * @return O número de livros em cada página.
+     */
+    public int livrosPorPagina() throws IOException {
+        return lerGravacao().get("results").size();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        int pagina = numeroDaPagina(troca.getRequestURI().getRawQuery());
+        byte[] corpo = pagina >= 1 && pagina <= paginas.length
+                ? paginas[pagina - 1]
+                : "{\"detail\":\"Invalid page.\"}".getBytes();
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        troca.sendResponseHeaders(pagina >= 1 && pagina <= paginas.length ? 200 : 404, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+
+    private static int numeroDaPagina(String consulta) {
+        if (consulta != null) {
+            for (String parametro : consulta.split("&")) {
+                if (parametro.startsWith("page=")) {
+                    try {
+                        return Integer.parseInt(parametro.substring(5));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[][] montarPaginas(String endereco, int totalPaginas) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode gravacao = lerGravacao();
+        int porPagina = gravacao.get("results").size();
+
+        byte[][] paginas = new byte[totalPaginas][];
+        for (int numero = 1; numero <= totalPaginas; numero++) {
+            ObjectNode pagina = gravacao.deepCopy();
+            pagina.put("count", totalPaginas * porPagina);
+            pagina.put("next", numero < totalPaginas ? endereco + "?page=" + (numero + 1) : null);
+            pagina.put("previous", numero > 1 ? endereco + "?page=" + (numero - 1) : null);
+            if (numero > 1) {
+                for (JsonNode livro : (ArrayNode) pagina.get("results")) {
+                    ObjectNode copia = (ObjectNode) livro;
+                    copia.put("id", livro.get("id").asInt() + (numero - 1) * DESLOCAMENTO_IDS);
+                    copia.put("title", livro.get("title").asText() + " [" + numero + "]");
+                }
+            }
+            paginas[numero - 1] = mapper.writeValueAsBytes(pagina);
+        }
+        return paginas;
+    }
+
+    static JsonNode lerGravacao() throws IOException {
+        try (InputStream entrada = StubGutendex.class.getResourceAsStream("/gutendex/pagina.json")) {
+            return new ObjectMapper().readTree(entrada);
+        }
+    }
+
+    static byte[] lerGravacaoBytes() throws IOException {
+        try (InputStream entrada = StubGutendex.class.getResourceAsStream("/gutendex/pagina.json")) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    /**
+     * Executa o servidor até o processo ser encerrado.
+     * Argumentos opcionais: porta (padrão 8089) e número de páginas (padrão 100).
+     */
+    public static void main(String[] args) throws IOException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        int totalPaginas = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        StubGutendex stub = new StubGutendex(porta, totalPaginas);
+        System.out.println("Gutendex simulado em " + stub.endereco() + " com " + totalPaginas + " páginas.");
+    }
+}
@@ -1,7 +1,5 @@
 package br.com.literalura.literalura;
 
-import br.com.literalura.literalura.repository.AuthorRepository;
-import br.com.literalura.literalura.repository.BookRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
@@ -15,32 +13,46 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class LiteraluraApplication implements CommandLineRunner {
 
-	// A anotação @Autowired realiza a injeção de dependência automática dos repositórios.
-	// O Spring encontra uma implementação para BookRepository e AuthorRepository e a fornece aqui.
+	// A anotação @Autowired realiza a injeção de dependência automática.
+	// O Spring cria a classe Principal (um @Component) já com os repositórios e o cliente da API.
 	@Autowired
-	private BookRepository bookRepository;
+	private Principal principal;
+
+	// Modos sem interação (ex: --ingest arquivo.txt), usados no lugar do menu quando pedidos.
+	@Autowired
+	private ModoLinhaDeComando modoLinhaDeComando;
+
+	// API HTTP de consulta, que pode continuar no ar depois que o menu termina.
 	@Autowired
-	private AuthorRepository authorRepository;
+	private ServidorApi servidorApi;
 
 	/**
 	 * Método principal padrão do Java, que inicia a aplicação Spring.
+	 * Com o argumento --startup-report, mostra onde foi gasto o tempo de inicialização.
 	 */
 	public static void main(String[] args) {
-		SpringApplication.run(LiteraluraApplication.class, args);
+		SpringApplication aplicacao = new SpringApplication(LiteraluraApplication.class);
+		RelatorioInicializacao.registrarSeSolicitado(aplicacao, args);
+		aplicacao.run(args);
 	}
 
 	/**
 	 * Este método é executado automaticamente pelo Spring Boot após a aplicação iniciar.
 	 * É o local ideal para iniciar a lógica da nossa aplicação de console.
 	 *
-	 * @param args Argumentos de linha de comando (não utilizados neste projeto).
+	 * @param args Argumentos de linha de comando (ver {@link ModoLinhaDeComando}).
 	 * @throws Exception
 	 */
 	@Override
 	public void run(String... args) throws Exception {
-		// Cria uma instância da nossa classe principal, passando os repositórios injetados.
-		Principal principal = new Principal(bookRepository, authorRepository);
+		if (modoLinhaDeComando.executar(args)) {
+			return;
+		}
 		// Inicia o menu interativo com o usuário.
 		principal.exibeMenu();
+		if (servidorApi.portaEmUso() > 0) {
+			System.out.println("A API HTTP continua disponível na porta " + servidorApi.portaEmUso() +
+					". Pressione Ctrl+C para encerrar.");
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package br.com.literalura.literalura;
+
+import br.com.literalura.literalura.service.ArmazemConteudo;
+import br.com.literalura.literalura.service.AtualizacaoDownloads;
+import br.com.literalura.literalura.service.IngestaoEmLote;
+import br.com.literalura.literalura.service.SnapshotCatalogo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modos de execução sem o menu interativo, escolhidos por argumentos de linha de comando.
+ * <p>
+ * Carga em lote de títulos ou ids da Gutendex, um por linha:
+ * <pre>
+ * java -jar literalura.jar --ingest titulos.txt --concurrency 16 [--batch-size 200]
+ * cat ids.txt | java -jar literalura.jar --ingest -
+ * </pre>
+ * Exportação e importação do catálogo em um snapshot binário (ver {@link SnapshotCatalogo}):
+ * <pre>
+ * java -jar literalura.jar --export catalogo.ltsn
+ * java -jar literalura.jar --import catalogo.ltsn
+ * </pre>
+ * Atualização do número de downloads dos livros cadastrados (ver {@link AtualizacaoDownloads}), continuando
+ * de onde a anterior parou:
+ * <pre>
+ * java -jar literalura.jar --refresh-downloads [--max-books 5000]
+ * </pre>
+ * Download dos textos completos (texto puro e EPUB) e contagem de palavras (ver {@link ArmazemConteudo}), dos livros
+ * indicados ou dos mais baixados que ainda não foram contados:
+ * <pre>
+ * java -jar literalura.jar --download-texts [--ids 1342,84] [--max-books 100] [--concurrency 4]
+ * </pre>
+ * Só a API HTTP de consulta (ver {@link ServidorApi}), sem o menu, até a aplicação ser encerrada (Ctrl+C):
+ * <pre>
+ * java -jar literalura.jar --serve [--literalura.api.porta=8080]
+ * </pre>
+ * Os argumentos aceitam as formas "--opcao valor" e "--opcao=valor".
+ */
+@Component
+public class ModoLinhaDeComando {
+    private static final int CONCORRENCIA_PADRAO = 8;
+    private static final int LOTE_PADRAO = 200;
+    private static final String USO = """
+            Uso:
+              --ingest <arquivo | -> [--concurrency N] [--batch-size N]
+              --export <arquivo> | --import <arquivo>
+              --refresh-downloads [--max-books N]
+              --download-texts [--ids 1342,84] [--max-books N] [--concurrency N]
+              --serve
+            Os valores numéricos precisam ser inteiros maiores que zero.""";
+
+    private final IngestaoEmLote ingestaoEmLote;
+    private final SnapshotCatalogo snapshot;
+    private final AtualizacaoDownloads atualizacaoDownloads;
+    private final ServidorApi servidorApi;
+    private final ArmazemConteudo armazemConteudo;
+    private final int maxLivrosAtualizacao;
+    private final Duration duracaoAtualizacao;
+
+    public ModoLinhaDeComando(IngestaoEmLote ingestaoEmLote, SnapshotCatalogo snapshot,
+                              AtualizacaoDownloads atualizacaoDownloads, ServidorApi servidorApi,
+                              ArmazemConteudo armazemConteudo,
+                              @Value("${literalura.downloads.max-livros:5000}") int maxLivrosAtualizacao,
+                              @Value("${literalura.downloads.duracao-maxima:2m}") Duration duracaoAtualizacao) {
+        this.ingestaoEmLote = ingestaoEmLote;
+        this.snapshot = snapshot;
+        this.atualizacaoDownloads = atualizacaoDownloads;
+        this.servidorApi = servidorApi;
+        this.armazemConteudo = armazemConteudo;
+        this.maxLivrosAtualizacao = maxLivrosAtualizacao;
+        this.duracaoAtualizacao = duracaoAtualizacao;
+    }
+
+    /**
+     * Executa o modo pedido nos argumentos, se houver.
+     * @param args Argumentos recebidos pela aplicação.
+     * @return true se algum modo foi executado (e o menu não deve ser exibido).
+     * @throws IOException se um arquivo de snapshot não puder ser lido ou gravado.
+     */
+    public boolean executar(String... args) throws IOException {
+        try {
+            return executarModo(args);
+        } catch (OpcaoInvalidaException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USO);
+            return true;
+        }
+    }
+
+    private boolean executarModo(String[] args) throws IOException {
+        String exportar = valor(args, "--export");
+        if (exportar != null) {
+            SnapshotCatalogo.ResultadoSnapshot resultado = snapshot.exportar(Path.of(exportar));
+            System.out.println("Snapshot gravado em " + exportar + ": " + resultado.livros() + " livros e " +
+                    resultado.autores() + " autores, " + String.format("%.1f KB", resultado.bytes() / 1024.0) +
+                    " em " + resultado.duracao().toMillis() + " ms.");
+            return true;
+        }
+        String importar = valor(args, "--import");
+        if (importar != null) {
+            SnapshotCatalogo.ResultadoSnapshot resultado = snapshot.importar(Path.of(importar));
+            System.out.println("Snapshot " + importar + " lido: " + resultado.livros() + " livros e " +
+                    resultado.autores() + " autores; " + resultado.livrosInseridos() + " livros novos salvos em " +
+                    resultado.duracao().toMillis() + " ms.");
+            return true;
+        }
+
+        if (List.of(args).contains("--refresh-downloads")) {
+            int maxLivros = inteiro(args, "--max-books", maxLivrosAtualizacao);
+            AtualizacaoDownloads.RelatorioAtualizacao relatorio = atualizacaoDownloads.executar(maxLivros, duracaoAtualizacao);
+            System.out.println("Downloads atualizados: " + relatorio.verificados() + " livros verificados, " +
+                    relatorio.alterados() + " alterados, " + relatorio.chamadas() + " chamadas à API (" +
+                    relatorio.falhas() + " com falha) em " + relatorio.duracao().toMillis() + " ms.");
+            System.out.println(relatorio.voltaCompleta()
+                    ? "O catálogo foi percorrido até o fim; a próxima atualização recomeça do início."
+                    : "A próxima atualização continua depois do livro de id " + relatorio.marca() + ".");
+            return true;
+        }
+
+        if (List.of(args).contains("--download-texts")) {
+            String ids = valor(args, "--ids");
+            List<Integer> gutendexIds = ids == null ? List.of()
+                    : Arrays.stream(ids.split(",")).map(String::strip).filter(id -> !id.isEmpty())
+                            .map(id -> positivo("--ids", id)).toList();
+            int maxLivros = inteiro(args, "--max-books", 100);
+            int concorrencia = inteiro(args, "--concurrency", 4);
+            ArmazemConteudo.RelatorioConteudo relatorio = armazemConteudo.baixar(gutendexIds, maxLivros, concorrencia);
+            System.out.println("Textos: " + relatorio.livros() + " livros, " + relatorio.arquivosBaixados() +
+                    " arquivos baixados, " + relatorio.arquivosNoDisco() + " já no disco, " + relatorio.arquivosEmUso() +
+                    " em uso por outra execução, " + relatorio.semTexto() +
+                    " sem texto puro, " + relatorio.falhas() + " com falha.");
+            System.out.println("Contados: " + relatorio.livrosContados() + " livros, " + relatorio.palavras() + " palavras, " +
+                    relatorio.caracteres() + " caracteres. " + String.format("%.1f MB em %.1fs (%.1f MB/s).",
+                    relatorio.bytesBaixados() / 1048576.0, relatorio.duracao().toMillis() / 1000.0,
+                    relatorio.megabytesPorSegundo()));
+            return true;
+        }
+
+        if (List.of(args).contains("--serve")) {
+            servidorApi.iniciar();
+            System.out.println("Atendendo apenas a API HTTP. Pressione Ctrl+C para encerrar.");
+            try {
+                // As requisições são atendidas pelas threads do servidor; esta só espera o encerramento.
+                Thread.currentThread().join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+
+        String origem = valor(args, "--ingest");
+        if (origem == null) {
+            return false;
+        }
+        int concorrencia = inteiro(args, "--concurrency", CONCORRENCIA_PADRAO);
+        int tamanhoLote = inteiro(args, "--batch-size", LOTE_PADRAO);
+
+        List<String> linhas = lerLinhas(origem);
+        System.out.println("Carga em lote: " + linhas.size() + " linha(s) de " + (origem.equals("-") ? "stdin" : origem) +
+                ", " + concorrencia + " chamada(s) simultânea(s), lotes de " + tamanhoLote + " livros.");
+        IngestaoEmLote.RelatorioCarga relatorio = ingestaoEmLote.importar(linhas, concorrencia, tamanhoLote);
+
+        System.out.println("\n----- RELATÓRIO DA CARGA -----");
+        System.out.println("Entradas: " + relatorio.entradas() + " (" + relatorio.ids() + " ids, " +
+                relatorio.titulosBuscados() + " títulos buscados, " + relatorio.jaCadastrados() + " já no catálogo)");
+        System.out.println("Chamadas à API: " + relatorio.chamadas() + " (" + relatorio.semResultado() +
+                " sem resultado, " + relatorio.falhas() + " com falha)");
+        System.out.println("Livros encontrados: " + relatorio.livrosEncontrados());
+        System.out.println("Livros novos salvos: " + relatorio.livrosInseridos());
+        System.out.println("Tempo total: " + String.format("%.1fs", relatorio.duracao().toMillis() / 1000.0));
+        System.out.println("Vazão: " + String.format("%.1f entradas/s, %.1f livros salvos/s",
+                relatorio.entradasPorSegundo(), relatorio.livrosInseridosPorSegundo()));
+        System.out.println("------------------------------");
+        return true;
+    }
+
+    private static List<String> lerLinhas(String origem) {
+        try {
+            if (origem.equals("-")) {
+                BufferedReader leitor = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                return leitor.lines().toList();
+            }
+            return Files.readAllLines(Path.of(origem), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler " + origem, e);
+        }
+    }
+
+    /**
+     * Lê uma opção numérica, que precisa ser um inteiro maior que zero.
+     * @throws OpcaoInvalidaException se o valor informado não for válido.
+     */
+    private static int inteiro(String[] args, String opcao, int padrao) {
+        String valor = valor(args, opcao);
+        return valor != null ? positivo(opcao, valor) : padrao;
+    }
+
+    private static int positivo(String opcao, String valor) {
+        try {
+            int numero = Integer.parseInt(valor.strip());
+            if (numero > 0) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // Tratado abaixo, com a mesma mensagem de um número fora da faixa.
+        }
+        throw new OpcaoInvalidaException("Valor inválido para " + opcao + ": \"" + valor + "\" (esperado um inteiro maior que zero).");
+    }
+
+    /**
+     * Procura o valor de uma opção nas formas "--opcao valor" e "--opcao=valor".
+     */
+    private static String valor(String[] args, String opcao) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(opcao) && i + 1 < args.length) {
+                return args[i + 1];
+            }
+            if (args[i].startsWith(opcao + "=")) {
+                return args[i].substring(opcao.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static class OpcaoInvalidaException extends RuntimeException {
+        OpcaoInvalidaException(String mensagem) {
+            super(mensagem);
+        }
+    }
+}
@@ -1,21 +1,51 @@
 package br.com.literalura.literalura;
 
 import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.AuthorSummary;
 import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.BookStatistics;
+import br.com.literalura.literalura.model.BookSummary;
 import br.com.literalura.literalura.model.GutendexResponse;
 import br.com.literalura.literalura.repository.AuthorRepository;
 import br.com.literalura.literalura.repository.BookRepository;
+import br.com.literalura.literalura.service.ArmazemConteudo;
+import br.com.literalura.literalura.service.CacheRespostas;
+import br.com.literalura.literalura.service.ColetorCatalogo;
 import br.com.literalura.literalura.service.ConsumoApi;
 import br.com.literalura.literalura.service.ConverteDados;
+import br.com.literalura.literalura.service.IndiceAutoresVivos;
+import br.com.literalura.literalura.service.IndiceBusca;
+import br.com.literalura.literalura.service.IndiceIdiomas;
+import br.com.literalura.literalura.service.IngestaoLivros;
+import br.com.literalura.literalura.service.NormalizadorTexto;
+import br.com.literalura.literalura.service.PainelMetricas;
+import br.com.literalura.literalura.service.PoliticaResiliencia;
+import br.com.literalura.literalura.service.RankingDownloads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.StringJoiner;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.Normalizer;
+import java.nio.file.Path;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Classe principal que contém a lógica de interação com o usuário via console.
@@ -24,26 +54,66 @@ import java.text.Normalizer;
 @Component
 public class Principal {
     private final Scanner leitura = new Scanner(System.in);
-    private final ConsumoApi consumo = new ConsumoApi();
+    // Saída com buffer usada nas listagens: cada página é escrita de uma vez, e não linha a linha.
+    private final PrintWriter saida = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+    private static final int TAMANHO_PAGINA = 20;
+    private final ConsumoApi consumo;
+    // Sem registro explícito, o conversor publica no registro global, ao qual o Spring Boot liga o seu.
     private final ConverteDados conversor = new ConverteDados();
-    private final String ENDERECO_BASE = "https://gutendex.com/books/";
+    private final String ENDERECO_BASE;
+    // Coletor que percorre todas as páginas de uma busca, com até 8 páginas baixando em paralelo
+    // e os livros gravados em lotes que atravessam páginas.
+    private final ColetorCatalogo coletor;
 
     // Repositórios injetados pelo Spring para acesso ao banco de dados.
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
+    private final IngestaoLivros ingestao;
+    private final IndiceAutoresVivos indiceAutoresVivos;
+    private final IndiceBusca indiceBusca;
+    private final IndiceIdiomas indiceIdiomas;
+    private final RankingDownloads rankingDownloads;
+    private final CacheRespostas cacheRespostas;
+    private final PainelMetricas painelMetricas;
+    private final ArmazemConteudo armazemConteudo;
 
     /**
-     * Construtor que recebe as dependências (repositórios) via injeção de dependência do Spring.
+     * Construtor que recebe as dependências (repositórios e serviços) via injeção de dependência do Spring.
      */
-    public Principal(BookRepository bookRepository, AuthorRepository authorRepository) {
+    public Principal(BookRepository bookRepository, AuthorRepository authorRepository, ConsumoApi consumo,
+                     IngestaoLivros ingestao, IndiceAutoresVivos indiceAutoresVivos, IndiceBusca indiceBusca,
+                     IndiceIdiomas indiceIdiomas, RankingDownloads rankingDownloads, CacheRespostas cacheRespostas,
+                     PainelMetricas painelMetricas, ArmazemConteudo armazemConteudo,
+                     @Value("${literalura.gutendex.endereco:https://gutendex.com/books/}") String enderecoBase,
+                     @Value("${literalura.coleta.livros-por-lote:500}") int livrosPorLote) {
+        this.ENDERECO_BASE = enderecoBase;
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
+        this.ingestao = ingestao;
+        this.indiceAutoresVivos = indiceAutoresVivos;
+        this.indiceBusca = indiceBusca;
+        this.indiceIdiomas = indiceIdiomas;
+        this.rankingDownloads = rankingDownloads;
+        this.cacheRespostas = cacheRespostas;
+        this.painelMetricas = painelMetricas;
+        this.armazemConteudo = armazemConteudo;
+        this.consumo = consumo;
+        this.coletor = new ColetorCatalogo(consumo, conversor, 8, livrosPorLote, Path.of(".literalura", "coletas"));
     }
 
     /**
      * Exibe o menu principal e processa a entrada do usuário em um loop contínuo.
+     * Se a entrada terminar (ex: comandos enviados por um pipe), a aplicação sai normalmente.
      */
     public void exibeMenu() {
+        try {
+            executarMenu();
+        } catch (NoSuchElementException e) {
+            System.out.println("Fim da entrada. Saindo do LiterAlura...");
+        }
+    }
+
+    private void executarMenu() {
         var opcao = -1;
         while (opcao != 0) {
             var menu = """
@@ -55,8 +125,12 @@ public class Principal {
             3 - Listar autores registrados
             4 - Listar autores vivos em um determinado ano
             5 - Listar livros em um determinado idioma
-            6 - Buscar Top 10 livros mais populares (API)
+            6 - Top 10 livros mais populares (catálogo local ou API)
             7 - Exibir estatísticas gerais
+            8 - Coletar todas as páginas de uma busca ou o catálogo completo (API)
+            9 - Linha do tempo de autores vivos em um período
+            10 - Exibir estatísticas da API (cache e falhas)
+            11 - Exibir métricas de desempenho (API, JSON e banco)
             
             0 - Sair
             """;
@@ -89,11 +163,23 @@ public class Principal {
                     listarLivrosPorIdioma();
                     break;
                 case 6:
-                    buscarTop10Livros();
+                    exibirTop10Livros();
                     break;
                 case 7:
                     exibirEstatisticasGerais();
                     break;
+                case 8:
+                    coletarCatalogo();
+                    break;
+                case 9:
+                    exibirLinhaDoTempoAutores();
+                    break;
+                case 10:
+                    exibirEstatisticasCache();
+                    break;
+                case 11:
+                    System.out.println("\n" + painelMetricas.resumo());
+                    break;
                 case 0:
                     System.out.println("Saindo do LiterAlura...");
                     break;
@@ -104,42 +190,40 @@ public class Principal {
     }
 
     /**
-     * Busca um livro na API Gutendex com base no título fornecido pelo usuário.
-     * Se o livro for encontrado, verifica se ele já existe no banco. Se não existir,
-     * associa o autor (buscando ou criando um novo) e salva o livro.
+     * Busca um livro com base no título ou autor fornecido pelo usuário.
+     * Primeiro consulta o índice local; a API Gutendex só é chamada se nada for encontrado no catálogo.
+     * Se o livro for encontrado na API e ainda não existir no banco, ele é salvo
+     * junto com o autor (reaproveitando o autor se ele já estiver cadastrado).
      */
     private void buscarLivroNaApi() {
         System.out.println("Digite um título ou nome de autor para buscar:");
         var buscaUsuario = leitura.nextLine();
 
+        // Livros já cadastrados são respondidos pelo índice local, sem ida à rede.
+        List<BookSummary> locais = indiceBusca.buscar(buscaUsuario, 5);
+        if (!locais.isEmpty()) {
+            System.out.println("Encontrado no catálogo local (" + locais.size() + " resultado(s)):");
+            locais.forEach(System.out::println);
+            return;
+        }
+
         // Normaliza e codifica a busca para ser usada na URL.
-        String buscaNormalizada = Normalizer.normalize(buscaUsuario, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        String buscaNormalizada = NormalizadorTexto.semAcentos(buscaUsuario);
         String enderecoBusca = ENDERECO_BASE + "?search=" + URLEncoder.encode(buscaNormalizada, StandardCharsets.UTF_8);
 
         try {
-            var json = consumo.obterDados(enderecoBusca);
-            GutendexResponse dados = conversor.obterDados(json, GutendexResponse.class);
+            GutendexResponse dados = consumo.obterConvertido(enderecoBusca, GutendexResponse.class, conversor);
             Optional<Book> livroBuscado = dados.getResults().stream().findFirst();
 
             if (livroBuscado.isPresent()) {
                 Book livro = livroBuscado.get();
 
-                // Verifica se o livro já existe no banco de dados para evitar duplicatas.
-                Optional<Book> livroExistente = bookRepository.findByTitleContainsIgnoreCase(livro.getTitle());
-                if (livroExistente.isPresent()) {
+                // A ingestão ignora livros já cadastrados e reaproveita o autor se ele já existir.
+                if (ingestao.ingerir(List.of(livro)).isEmpty()) {
                     System.out.println("O livro '" + livro.getTitle() + "' já está cadastrado no banco de dados.");
                     return;
                 }
 
-                // Verifica se o autor do livro já existe no banco. Se sim, usa o autor existente. Senão, usa o novo.
-                Author autorDoLivro = livro.getAuthor();
-                if (autorDoLivro != null) {
-                    Optional<Author> autorExistente = authorRepository.findByNameContainsIgnoreCase(autorDoLivro.getName());
-                    livro.setAuthor(autorExistente.orElse(autorDoLivro));
-                }
-
-                bookRepository.save(livro); // Salva o livro (e o autor, em cascata, se for novo).
                 System.out.println("Livro encontrado e salvo com sucesso!");
                 System.out.println(livro);
 
@@ -152,33 +236,81 @@ public class Principal {
     }
 
     /**
-     * Lista todos os livros que estão registrados no banco de dados.
+     * Lista os livros registrados no banco de dados, uma página por vez.
      */
     private void listarLivrosRegistrados() {
-        List<Book> livros = bookRepository.findAll();
-        if (livros.isEmpty()) {
-            System.out.println("Nenhum livro registrado encontrado.");
-        } else {
-            System.out.println("----- LIVROS REGISTRADOS -----");
-            livros.forEach(System.out::println);
-        }
+        long total = bookRepository.estimarTotal();
+        navegarPaginas("LIVROS REGISTRADOS", "Nenhum livro registrado encontrado.",
+                total >= 0 ? total : bookRepository.count(),
+                bookRepository::findPaginaApos, Book::getId);
     }
 
     /**
-     * Lista todos os autores que estão registrados no banco de dados.
+     * Lista os autores registrados no banco de dados, uma página por vez.
      */
     private void listarAutoresRegistrados() {
-        List<Author> autores = authorRepository.findAll();
-        if (autores.isEmpty()) {
-            System.out.println("Nenhum autor registrado encontrado.");
-        } else {
-            System.out.println("----- AUTORES REGISTRADOS -----");
-            autores.forEach(System.out::println);
+        long total = authorRepository.estimarTotal();
+        navegarPaginas("AUTORES REGISTRADOS", "Nenhum autor registrado encontrado.",
+                total >= 0 ? total : authorRepository.count(),
+                authorRepository::findResumosApos, AuthorSummary::id);
+    }
+
+    /**
+     * Exibe uma listagem página a página, com navegação pelo console.
+     * As páginas são buscadas por chave (o último id exibido), então qualquer página custa o mesmo
+     * que a primeira. Os cursores das páginas visitadas ficam em uma pilha para permitir voltar.
+     *
+     * @param titulo Título exibido no cabeçalho de cada página.
+     * @param mensagemVazia Mensagem exibida quando não há nenhum item.
+     * @param totalEstimado Número aproximado de itens, usado apenas para exibir o total de páginas.
+     * @param buscarApos Consulta que retorna os itens com id maior que o cursor.
+     * @param idDe Extrai o id de um item, usado como cursor da próxima página.
+     */
+    private <T> void navegarPaginas(String titulo, String mensagemVazia, long totalEstimado,
+                                    BiFunction<Long, Pageable, List<T>> buscarApos, Function<T, Long> idDe) {
+        Deque<Long> cursoresAnteriores = new ArrayDeque<>();
+        long cursor = 0;
+        int numeroPagina = 1;
+
+        while (true) {
+            // Busca um item a mais para saber se existe uma próxima página.
+            List<T> itens = buscarApos.apply(cursor, PageRequest.of(0, TAMANHO_PAGINA + 1));
+            if (itens.isEmpty() && numeroPagina == 1) {
+                System.out.println(mensagemVazia);
+                return;
+            }
+            boolean temProxima = itens.size() > TAMANHO_PAGINA;
+            if (temProxima) {
+                itens = itens.subList(0, TAMANHO_PAGINA);
+            }
+            long totalPaginas = temProxima
+                    ? Math.max(numeroPagina + 1, (totalEstimado + TAMANHO_PAGINA - 1) / TAMANHO_PAGINA)
+                    : numeroPagina;
+
+            saida.println("----- " + titulo + " (página " + numeroPagina + " de " + (temProxima ? "~" : "") + totalPaginas + ") -----");
+            itens.forEach(saida::println);
+            saida.println((temProxima ? "[p] próxima  " : "") + (numeroPagina > 1 ? "[a] anterior  " : "") + "[s] sair");
+            saida.flush();
+
+            String comando = leitura.nextLine().trim().toLowerCase();
+            if (comando.equals("p") && temProxima) {
+                cursoresAnteriores.push(cursor);
+                cursor = idDe.apply(itens.get(itens.size() - 1));
+                numeroPagina++;
+            } else if (comando.equals("a") && !cursoresAnteriores.isEmpty()) {
+                cursor = cursoresAnteriores.pop();
+                numeroPagina--;
+            } else if (comando.equals("s")) {
+                return;
+            } else {
+                System.out.println("Opção inválida!");
+            }
         }
     }
 
     /**
      * Lista os autores que estavam vivos em um ano específico fornecido pelo usuário.
+     * Os ids vêm do índice em memória; o banco é consultado apenas para buscar esses autores pela chave.
      */
     private void listarAutoresVivosEmDeterminadoAno() {
         System.out.println("Digite o ano para pesquisar os autores vivos:");
@@ -186,7 +318,8 @@ public class Principal {
             var ano = leitura.nextInt();
             leitura.nextLine(); // Consome a nova linha
 
-            List<Author> autoresVivos = authorRepository.findAutoresVivosEmAno(ano);
+            List<Long> idsVivos = indiceAutoresVivos.listarVivosEntre(ano, ano);
+            List<AuthorSummary> autoresVivos = idsVivos.isEmpty() ? List.of() : authorRepository.findResumosPorIds(idsVivos);
 
             if (autoresVivos.isEmpty()) {
                 System.out.println("Nenhum autor vivo encontrado registrado no ano de " + ano + ".");
@@ -201,57 +334,189 @@ public class Principal {
     }
 
     /**
-     * Lista os livros registrados no banco de dados com base no idioma escolhido pelo usuário.
+     * Exibe quantos autores registrados estavam vivos em cada ano de um período.
+     * As contagens vêm do índice em memória, sem nenhuma consulta ao banco por ano.
+     */
+    private void exibirLinhaDoTempoAutores() {
+        try {
+            System.out.println("Digite o ano inicial:");
+            var anoInicial = leitura.nextInt();
+            System.out.println("Digite o ano final:");
+            var anoFinal = leitura.nextInt();
+            leitura.nextLine(); // Consome a nova linha
+
+            if (anoFinal < anoInicial) {
+                System.out.println("O ano final deve ser maior ou igual ao ano inicial.");
+                return;
+            }
+
+            int[] contagens = indiceAutoresVivos.contarPorAno(anoInicial, anoFinal);
+            saida.println("----- AUTORES VIVOS POR ANO (" + anoInicial + " a " + anoFinal + ") -----");
+            // Dez anos por linha, para que períodos longos continuem legíveis.
+            for (int i = 0; i < contagens.length; i += 10) {
+                StringBuilder linha = new StringBuilder();
+                for (int j = i; j < Math.min(contagens.length, i + 10); j++) {
+                    linha.append(String.format("%6d:%-5d", anoInicial + j, contagens[j]));
+                }
+                saida.println(linha);
+            }
+            saida.println("Autores vivos em algum momento do período: "
+                    + indiceAutoresVivos.contarVivosEntre(anoInicial, anoFinal));
+            saida.flush();
+        } catch (java.util.InputMismatchException e) {
+            System.out.println("Entrada inválida. Por favor, digite um ano válido (número).");
+            leitura.nextLine(); // Limpa o buffer
+        }
+    }
+
+    /**
+     * Exibe os contadores do cache de respostas da API (acertos em memória, acertos em disco e faltas)
+     * e da política de resiliência (novas tentativas, requisições duplicadas e disjuntor).
+     */
+    private void exibirEstatisticasCache() {
+        CacheRespostas.Estatisticas stats = cacheRespostas.estatisticas();
+        System.out.println("\n----- CACHE DA API -----");
+        System.out.println("Acertos em memória: " + stats.acertosMemoria());
+        System.out.println("Acertos em disco: " + stats.acertosDisco());
+        System.out.println("Faltas (chamadas à rede): " + stats.faltas());
+        System.out.println("Taxa de acerto: " + String.format("%.1f%%", stats.taxaDeAcerto() * 100));
+        System.out.println("Respostas em memória: " + stats.entradasEmMemoria());
+
+        PoliticaResiliencia.Estatisticas resiliencia = consumo.estatisticasResiliencia();
+        System.out.println("\n----- FALHAS DA API -----");
+        System.out.println("Novas tentativas: " + resiliencia.tentativasRepetidas());
+        System.out.println("Requisições duplicadas (hedge): " + resiliencia.hedgesEnviados() +
+                " (" + resiliencia.hedgesVencedores() + " responderam primeiro)");
+        System.out.println("Disjuntor: " + resiliencia.estadoDisjuntor() + " (aberto " + resiliencia.aberturasDisjuntor() + " vez(es))");
+        System.out.println("-------------------------\n");
+    }
+
+    /**
+     * Lista os livros registrados em um ou mais idiomas escolhidos pelo usuário.
+     * Os ids vêm dos bitmaps do índice de idiomas (E / OU entre idiomas); o banco é consultado apenas
+     * para buscar os livros de cada página pela chave.
      */
     private void listarLivrosPorIdioma() {
+        Map<String, Integer> contagens = indiceIdiomas.contarPorIdioma();
+        if (contagens.isEmpty()) {
+            System.out.println("Nenhum livro registrado encontrado.");
+            return;
+        }
+        System.out.println("Idiomas cadastrados (código: livros):");
+        StringJoiner disponiveis = new StringJoiner("  ");
+        contagens.forEach((codigo, quantidade) -> disponiveis.add(codigo + ": " + quantidade));
+        System.out.println(disponiveis);
         System.out.println("""
-            Digite o código do idioma para busca:
-            es - espanhol
-            en - inglês
-            fr - francês
-            pt - português
+            Digite o código do idioma para busca (ex: en).
+            Use "en,fr" para livros nos dois idiomas e "en|fr" para livros em qualquer um deles.
             """);
-        var idiomaEscolhido = leitura.nextLine();
+        var idiomaEscolhido = leitura.nextLine().trim();
 
-        List<Book> livrosPorIdioma = bookRepository.findByLanguage(idiomaEscolhido);
+        boolean qualquer = idiomaEscolhido.contains("|");
+        List<String> codigos = Arrays.stream(idiomaEscolhido.split("[,|]"))
+                .map(String::trim)
+                .filter(codigo -> !codigo.isEmpty())
+                .toList();
+        BitSet livros = codigos.isEmpty() ? new BitSet()
+                : qualquer ? indiceIdiomas.livrosEmAlgum(codigos) : indiceIdiomas.livrosEmTodos(codigos);
 
-        if (livrosPorIdioma.isEmpty()) {
-            System.out.println("Nenhum livro encontrado para o idioma '" + idiomaEscolhido + "'.");
+        navegarPaginas("LIVROS NO IDIOMA '" + idiomaEscolhido + "'",
+                "Nenhum livro encontrado para o idioma '" + idiomaEscolhido + "'.",
+                livros.cardinality(), (cursor, pagina) -> livrosDoBitmap(livros, cursor, pagina), Book::getId);
+    }
+
+    /**
+     * Busca os livros dos próximos ids ligados no bitmap, a partir do cursor da paginação.
+     */
+    private List<Book> livrosDoBitmap(BitSet livros, long cursor, Pageable pagina) {
+        List<Long> ids = new ArrayList<>(pagina.getPageSize());
+        for (int id = livros.nextSetBit((int) cursor + 1); id >= 0 && ids.size() < pagina.getPageSize();
+             id = livros.nextSetBit(id + 1)) {
+            ids.add((long) id);
+        }
+        return ids.isEmpty() ? List.of() : bookRepository.findPorIds(ids);
+    }
+
+    /**
+     * Exibe os 10 livros mais baixados do catálogo local: no geral, em um idioma, de um autor ou dos autores
+     * vivos em um ano. As posições vêm do ranking em memória, sem chamar a API nem percorrer a tabela;
+     * o banco é consultado apenas para buscar esses 10 livros pela chave.
+     * Se o catálogo estiver vazio, ou se o usuário pedir, busca o top 10 na API Gutendex.
+     */
+    private void exibirTop10Livros() {
+        if (rankingDownloads.tamanho() == 0) {
+            System.out.println("O catálogo local ainda não tem livros com número de downloads.");
+            buscarTop10LivrosNaApi();
+            return;
+        }
+        System.out.println("""
+            Top 10 livros mais baixados do catálogo local. Deixe em branco para o ranking geral ou digite
+            um código de idioma (ex: pt), "autor:<nome completo>", "vivos:<ano>" ou "api" para buscar na API.
+            """);
+        var filtro = leitura.nextLine().trim();
+
+        List<RankingDownloads.Posicao> top;
+        String titulo;
+        if (filtro.equalsIgnoreCase("api")) {
+            buscarTop10LivrosNaApi();
+            return;
+        } else if (filtro.isEmpty()) {
+            top = rankingDownloads.top(10);
+            titulo = "TOP 10 LIVROS";
+        } else if (filtro.startsWith("autor:")) {
+            String nome = filtro.substring("autor:".length()).trim();
+            Optional<Author> autor = authorRepository.findFirstByNameIgnoreCase(nome);
+            if (autor.isEmpty()) {
+                System.out.println("Autor '" + nome + "' não encontrado no catálogo.");
+                return;
+            }
+            top = rankingDownloads.topPorAutor(autor.get().getId(), 10);
+            titulo = "TOP 10 LIVROS DE " + autor.get().getName();
+        } else if (filtro.startsWith("vivos:")) {
+            int ano;
+            try {
+                ano = Integer.parseInt(filtro.substring("vivos:".length()).trim());
+            } catch (NumberFormatException e) {
+                System.out.println("Entrada inválida. Por favor, digite um ano válido (número).");
+                return;
+            }
+            top = rankingDownloads.topPorAutores(indiceAutoresVivos.listarVivosEntre(ano, ano), 10);
+            titulo = "TOP 10 LIVROS DE AUTORES VIVOS EM " + ano;
         } else {
-            System.out.println("----- LIVROS NO IDIOMA '" + idiomaEscolhido + "' -----");
-            livrosPorIdioma.forEach(System.out::println);
+            top = rankingDownloads.topPorIdioma(filtro, 10);
+            titulo = "TOP 10 LIVROS NO IDIOMA '" + filtro + "'";
+        }
+
+        if (top.isEmpty()) {
+            System.out.println("Nenhum livro encontrado.");
+            return;
+        }
+        Map<Long, Book> livrosPorId = new HashMap<>();
+        bookRepository.findPorIds(top.stream().map(RankingDownloads.Posicao::livroId).toList())
+                .forEach(livro -> livrosPorId.put(livro.getId(), livro));
+        System.out.println("\n----- " + titulo + " -----");
+        int numero = 0;
+        for (RankingDownloads.Posicao posicao : top) {
+            Book livro = livrosPorId.get(posicao.livroId());
+            if (livro != null) {
+                String autor = livro.getAuthor() != null ? livro.getAuthor().getName() : "Autor desconhecido";
+                System.out.printf("%2d. %s - %s (%d downloads)%n", ++numero, livro.getTitle(), autor, posicao.downloads());
+            }
         }
     }
 
     /**
      * Busca os 10 livros mais populares na API Gutendex e os salva no banco de dados
-     * se ainda não estiverem registrados.
-     * @Transactional garante que todas as operações de banco de dados dentro deste método
-     * sejam executadas como uma única transação.
+     * se ainda não estiverem registrados. A gravação é feita em lote, em uma única transação.
      */
-    @Transactional
-    private void buscarTop10Livros() {
+    private void buscarTop10LivrosNaApi() {
         System.out.println("Buscando os 10 livros mais populares na API...");
         try {
-            var json = consumo.obterDados(ENDERECO_BASE);
-            GutendexResponse dados = conversor.obterDados(json, GutendexResponse.class);
+            GutendexResponse dados = consumo.obterConvertido(ENDERECO_BASE, GutendexResponse.class, conversor);
 
             System.out.println("\n----- TOP 10 LIVROS -----");
-            dados.getResults().stream()
-                    .limit(10)
-                    .forEach(livro -> {
-                        // Lógica para evitar duplicatas, igual à busca individual.
-                        Optional<Book> livroExistente = bookRepository.findByTitleContainsIgnoreCase(livro.getTitle());
-                        if (livroExistente.isEmpty()) {
-                            Author autorDoLivro = livro.getAuthor();
-                            if (autorDoLivro != null) {
-                                Optional<Author> autorExistente = authorRepository.findByNameContainsIgnoreCase(autorDoLivro.getName());
-                                livro.setAuthor(autorExistente.orElse(autorDoLivro));
-                            }
-                            bookRepository.save(livro);
-                            System.out.println("Livro salvo: " + livro.getTitle());
-                        }
-                    });
+            List<Book> top10 = dados.getResults().stream().limit(10).toList();
+            ingestao.ingerir(top10).forEach(livro -> System.out.println("Livro salvo: " + livro.getTitle()));
             System.out.println("\nOs 10 livros mais populares foram verificados e salvos (se novos) no banco de dados.");
 
         } catch (Exception e) {
@@ -260,27 +525,76 @@ public class Principal {
     }
 
     /**
-     * Calcula e exibe estatísticas gerais sobre os livros registrados no banco de dados,
-     * como total, média, mínimo e máximo de downloads.
+     * Coleta todas as páginas de uma busca na API (ou o catálogo completo, se a busca ficar em branco)
+     * e salva os livros novos no banco de dados em lotes, à medida que as páginas chegam.
+     * Se uma coleta anterior do mesmo termo foi interrompida, ela continua da última página salva.
+     */
+    private void coletarCatalogo() {
+        System.out.println("Digite um título ou nome de autor para coletar (deixe em branco para o catálogo completo):");
+        var buscaUsuario = leitura.nextLine().trim();
+
+        String endereco = ENDERECO_BASE;
+        if (!buscaUsuario.isEmpty()) {
+            String buscaNormalizada = NormalizadorTexto.semAcentos(buscaUsuario);
+            endereco = ENDERECO_BASE + "?search=" + URLEncoder.encode(buscaNormalizada, StandardCharsets.UTF_8);
+        }
+
+        try {
+            int[] salvos = {0};
+            ColetorCatalogo.ResultadoColeta resultado = coletor.coletar(endereco, livros -> {
+                salvos[0] += ingestao.ingerir(livros).size();
+                System.out.println("Lote processado: " + livros.size() + " livros recebidos, " + salvos[0] + " novos até agora.");
+            });
+
+            System.out.println("\n----- COLETA FINALIZADA -----");
+            System.out.println("Páginas processadas: " + resultado.paginasProcessadas() + " de " + resultado.totalPaginas());
+            System.out.println("Livros recebidos: " + resultado.livrosRecebidos());
+            System.out.println("Livros novos salvos: " + salvos[0]);
+            System.out.println("Tempo total: " + resultado.duracao().toSeconds() + "s");
+            if (!resultado.completa()) {
+                System.out.println(resultado.paginasComFalha() + " página(s) falharam. Execute a coleta novamente para continuar de onde parou.");
+            }
+        } catch (Exception e) {
+            System.out.println("Ocorreu um erro durante a coleta: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exibe estatísticas gerais sobre os livros registrados no banco de dados,
+     * como total, média, mínimo e máximo de downloads, e totais por idioma e por autor.
+     * Todos os valores são calculados pelo banco, que retorna apenas algumas linhas.
      */
     private void exibirEstatisticasGerais() {
-        List<Book> livros = bookRepository.findAll();
-        if (livros.isEmpty()) {
+        BookStatistics stats = bookRepository.calcularEstatisticas();
+        if (stats.total() == 0) {
             System.out.println("Nenhum livro no banco para gerar estatísticas.");
             return;
         }
 
-        // Usa DoubleSummaryStatistics para calcular de forma eficiente várias estatísticas de uma vez.
-        java.util.DoubleSummaryStatistics stats = livros.stream()
-                .filter(livro -> livro.getDownloadCount() != null) // Garante que não haja NullPointerException
-                .mapToDouble(Book::getDownloadCount)
-                .summaryStatistics();
-
-        System.out.println("\n----- ESTATÍSTICAS GERAIS -----");
-        System.out.println("Total de livros registrados: " + stats.getCount());
-        System.out.println("Livro com mais downloads: " + (long)stats.getMax());
-        System.out.println("Livro com menos downloads: " + (long)stats.getMin());
-        System.out.println("Média de downloads: " + String.format("%.2f", stats.getAverage()));
-        System.out.println("--------------------------------\n");
+        saida.println("\n----- ESTATÍSTICAS GERAIS -----");
+        saida.println("Total de livros registrados: " + stats.total());
+        bookRepository.findFirstByDownloadCountNotNullOrderByDownloadCountDesc().ifPresent(livro ->
+                saida.println("Livro com mais downloads: " + livro.getTitle() + " (" + livro.getDownloadCount() + ")"));
+        bookRepository.findFirstByDownloadCountNotNullOrderByDownloadCountAsc().ifPresent(livro ->
+                saida.println("Livro com menos downloads: " + livro.getTitle() + " (" + livro.getDownloadCount() + ")"));
+        if (stats.averageDownloads() != null) {
+            saida.println("Média de downloads: " + String.format("%.2f", stats.averageDownloads()));
+        }
+        ArmazemConteudo.ResumoConteudo conteudo = armazemConteudo.resumo();
+        if (conteudo.livros() > 0) {
+            saida.println("Textos baixados e contados: " + conteudo.livros() + " livro(s), " + conteudo.palavras() +
+                    " palavras, " + conteudo.caracteres() + " caracteres (média de " +
+                    conteudo.palavras() / conteudo.livros() + " palavras por livro)");
+        }
+
+        saida.println("\n----- LIVROS POR IDIOMA -----");
+        bookRepository.calcularEstatisticasPorIdioma().forEach(grupo ->
+                saida.println(grupo.group() + ": " + grupo.books() + " livro(s), " + grupo.downloads() + " downloads"));
+
+        saida.println("\n----- AUTORES MAIS BAIXADOS -----");
+        bookRepository.calcularEstatisticasPorAutor(PageRequest.of(0, 10)).forEach(grupo ->
+                saida.println(grupo.group() + ": " + grupo.books() + " livro(s), " + grupo.downloads() + " downloads"));
+        saida.println("--------------------------------\n");
+        saida.flush();
     }
-}
\ No newline at end of file
+}
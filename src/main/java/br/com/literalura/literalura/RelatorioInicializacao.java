@@ -0,0 +1,86 @@
+package br.com.literalura.literalura;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Relatório de onde vai o tempo de inicialização, pedido com o argumento --startup-report:
+ * <pre>
+ * java -jar literalura.jar --startup-report [--spring.profiles.active=rapido]
+ * </pre>
+ * As etapas são registradas pelo próprio Spring (ApplicationStartup) e o relatório é exibido
+ * quando o contexto termina de subir, antes do menu ou do modo de linha de comando.
+ */
+class RelatorioInicializacao implements ApplicationListener<ApplicationStartedEvent> {
+    static final String ARGUMENTO = "--startup-report";
+
+    // Eventos guardados em memória; uma inicialização completa registra alguns milhares.
+    private static final int CAPACIDADE = 20_000;
+    private static final int MAX_LINHAS = 12;
+
+    private final BufferingApplicationStartup etapas = new BufferingApplicationStartup(CAPACIDADE);
+
+    /**
+     * Ativa o relatório na aplicação, se o argumento estiver presente.
+     */
+    static void registrarSeSolicitado(SpringApplication aplicacao, String... args) {
+        if (List.of(args).contains(ARGUMENTO)) {
+            RelatorioInicializacao relatorio = new RelatorioInicializacao();
+            aplicacao.setApplicationStartup(relatorio.etapas);
+            aplicacao.addListeners(relatorio);
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent evento) {
+        List<StartupTimeline.TimelineEvent> eventos = etapas.getBufferedTimeline().getEvents();
+
+        // Etapas do Spring somadas por nome; a criação de beans aparece à parte, bean a bean.
+        Map<String, Duration> porEtapa = new LinkedHashMap<>();
+        for (StartupTimeline.TimelineEvent e : eventos) {
+            String nome = e.getStartupStep().getName();
+            if (!nome.equals("spring.beans.instantiate")) {
+                porEtapa.merge(nome, e.getDuration(), Duration::plus);
+            }
+        }
+
+        System.out.println("\n----- RELATÓRIO DE INICIALIZAÇÃO -----");
+        System.out.printf("Início da JVM até o contexto pronto: %d ms (Spring: %d ms)%n",
+                ManagementFactory.getRuntimeMXBean().getUptime(), evento.getTimeTaken().toMillis());
+        System.out.println("Etapas mais demoradas (tempo somado, etapas aninhadas incluem as internas):");
+        porEtapa.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .limit(MAX_LINHAS)
+                .forEach(etapa -> System.out.printf("  %6d ms  %s%n", etapa.getValue().toMillis(), etapa.getKey()));
+
+        System.out.println("Beans mais lentos para criar (inclui a criação das dependências):");
+        eventos.stream()
+                .filter(e -> e.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(MAX_LINHAS)
+                .forEach(e -> System.out.printf("  %6d ms  %s%n", e.getDuration().toMillis(),
+                        tag(e.getStartupStep(), "beanName").orElse("?")));
+        System.out.println("---------------------------------------");
+    }
+
+    private static Optional<String> tag(StartupStep etapa, String chave) {
+        for (StartupStep.Tag tag : etapa.getTags()) {
+            if (tag.getKey().equals(chave)) {
+                return Optional.of(tag.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,356 @@
+package br.com.literalura.literalura;
+
+import br.com.literalura.literalura.model.AuthorSummary;
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.BookResponse;
+import br.com.literalura.literalura.model.BookSummary;
+import br.com.literalura.literalura.model.PageResponse;
+import br.com.literalura.literalura.model.StatisticsResponse;
+import br.com.literalura.literalura.repository.AuthorRepository;
+import br.com.literalura.literalura.repository.BookRepository;
+import br.com.literalura.literalura.service.Executores;
+import br.com.literalura.literalura.service.IndiceAutoresVivos;
+import br.com.literalura.literalura.service.IndiceBusca;
+import br.com.literalura.literalura.service.IndiceIdiomas;
+import br.com.literalura.literalura.service.RankingDownloads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * API HTTP de consulta ao catálogo local, em JSON, que funciona junto com o menu do console.
+ * Usa o servidor HTTP do próprio JDK; cada requisição é atendida por uma thread virtual quando a JVM
+ * oferece (Java 21+) ou por um pool de threads (ver {@link Executores}), então várias consultas são
+ * respondidas ao mesmo tempo.
+ * <p>
+ * Rotas (todas GET):
+ * <pre>
+ * /api/livros?cursor=0&amp;tamanho=20[&amp;idioma=en,fr | en|fr]   livros, opcionalmente por idioma (E / OU)
+ * /api/livros/busca?q=machado&amp;limite=10                   busca por título ou autor
+ * /api/livros/top?n=10[&amp;idioma=pt | &amp;autor=12 | &amp;vivos=1850] livros mais baixados
+ * /api/autores?cursor=0&amp;tamanho=20                        autores, com os títulos dos livros
+ * /api/autores/vivos?ano=1850&amp;cursor=0&amp;tamanho=20         autores vivos em um ano
+ * /api/estatisticas                                      as estatísticas gerais do menu
+ * </pre>
+ * As listagens são paginadas por chave: cada resposta traz "nextCursor", usado como "cursor" da próxima.
+ * As respostas são DTOs ({@link BookResponse}, {@link AuthorSummary}, ...), nunca entidades JPA.
+ * <p>
+ * Ligada por literalura.api.habilitada=true (junto com o menu) ou pelo argumento --serve (sem o menu).
+ * Métrica: literalura.api.requisicao (tags rota e status).
+ */
+@Component
+public class ServidorApi {
+    private static final Logger log = LoggerFactory.getLogger(ServidorApi.class);
+    private static final int TAMANHO_PADRAO = 20;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final IndiceBusca indiceBusca;
+    private final IndiceIdiomas indiceIdiomas;
+    private final IndiceAutoresVivos indiceAutoresVivos;
+    private final RankingDownloads rankingDownloads;
+    // A aplicação não usa o Spring MVC, então não há um ObjectMapper configurado pelo Spring.
+    private final ObjectMapper json = new ObjectMapper();
+    private final MeterRegistry metricas;
+    private final boolean habilitada;
+    private final int porta;
+    private final int threads;
+    private final int tamanhoMaximo;
+    private final Map<String, Function<Map<String, String>, Object>> rotas = new HashMap<>();
+
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    /**
+     * @param habilitada Sobe a API junto com a aplicação.
+     * @param porta Porta HTTP (0 escolhe uma porta livre).
+     * @param threads Tamanho do pool usado quando threads virtuais não estão disponíveis.
+     * @param tamanhoMaximo Maior tamanho de página aceito nas listagens.
+     */
+    public ServidorApi(BookRepository bookRepository, AuthorRepository authorRepository, IndiceBusca indiceBusca,
+                       IndiceIdiomas indiceIdiomas, IndiceAutoresVivos indiceAutoresVivos,
+                       RankingDownloads rankingDownloads, MeterRegistry metricas,
+                       @Value("${literalura.api.habilitada:false}") boolean habilitada,
+                       @Value("${literalura.api.porta:8080}") int porta,
+                       @Value("${literalura.api.threads:32}") int threads,
+                       @Value("${literalura.api.tamanho-maximo:100}") int tamanhoMaximo) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.indiceBusca = indiceBusca;
+        this.indiceIdiomas = indiceIdiomas;
+        this.indiceAutoresVivos = indiceAutoresVivos;
+        this.rankingDownloads = rankingDownloads;
+        this.metricas = metricas;
+        this.habilitada = habilitada;
+        this.porta = porta;
+        this.threads = threads;
+        this.tamanhoMaximo = tamanhoMaximo;
+
+        rotas.put("/api/livros", this::listarLivros);
+        rotas.put("/api/livros/busca", this::buscarLivros);
+        rotas.put("/api/livros/top", this::topLivros);
+        rotas.put("/api/autores", this::listarAutores);
+        rotas.put("/api/autores/vivos", this::listarAutoresVivos);
+        rotas.put("/api/estatisticas", parametros -> estatisticas());
+    }
+
+    /**
+     * Sobe a API antes do menu e dos modos de linha de comando, se literalura.api.habilitada=true.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void aoIniciarAplicacao() {
+        if (habilitada) {
+            iniciar();
+        }
+    }
+
+    /**
+     * Abre a porta e começa a atender as requisições. Não faz nada se a API já estiver no ar.
+     */
+    public synchronized void iniciar() {
+        if (servidor != null) {
+            return;
+        }
+        // Sem TCP_NODELAY, cabeçalhos e corpo vão em pacotes separados e o algoritmo de Nagle, somado ao ACK
+        // atrasado do cliente, segura cada resposta por ~40ms em conexões reaproveitadas.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            servidor = HttpServer.create(new InetSocketAddress(porta), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir a porta " + porta + " para a API", e);
+        }
+        executor = Executores.paraTarefasIo("api-http", threads);
+        servidor.setExecutor(executor);
+        servidor.createContext("/api/", this::atender);
+        servidor.start();
+        log.info("API HTTP disponível em http://localhost:{}/api/", portaEmUso());
+    }
+
+    /**
+     * A porta em que a API está atendendo, ou -1 se ela não estiver no ar.
+     */
+    public synchronized int portaEmUso() {
+        return servidor != null ? servidor.getAddress().getPort() : -1;
+    }
+
+    @PreDestroy
+    public synchronized void parar() {
+        if (servidor != null) {
+            // Espera até 1s pelas requisições em andamento.
+            servidor.stop(1);
+            executor.shutdownNow();
+            servidor = null;
+        }
+    }
+
+    private void atender(HttpExchange troca) throws IOException {
+        long inicio = System.nanoTime();
+        String caminho = troca.getRequestURI().getPath();
+        if (caminho.length() > 1 && caminho.endsWith("/")) {
+            caminho = caminho.substring(0, caminho.length() - 1);
+        }
+        Function<Map<String, String>, Object> rota = rotas.get(caminho);
+        int status;
+        Object corpo;
+        if (rota == null) {
+            status = 404;
+            corpo = Map.of("erro", "Rota não encontrada: " + caminho);
+        } else if (!troca.getRequestMethod().equals("GET")) {
+            status = 405;
+            corpo = Map.of("erro", "Apenas GET é aceito.");
+        } else {
+            try {
+                corpo = rota.apply(parametros(troca.getRequestURI().getRawQuery()));
+                status = 200;
+            } catch (IllegalArgumentException e) {
+                // Inclui NumberFormatException: parâmetro ausente ou inválido.
+                status = 400;
+                corpo = Map.of("erro", String.valueOf(e.getMessage()));
+            } catch (RuntimeException e) {
+                log.warn("Erro ao atender {}: {}", troca.getRequestURI(), e.toString());
+                status = 500;
+                corpo = Map.of("erro", "Erro interno.");
+            }
+        }
+
+        byte[] resposta = json.writeValueAsBytes(corpo);
+        troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        troca.sendResponseHeaders(status, resposta.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(resposta);
+        }
+        Timer.builder("literalura.api.requisicao")
+                .description("Tempo para atender uma requisição da API HTTP local")
+                .tag("rota", rota != null ? caminho : "desconhecida")
+                .tag("status", String.valueOf(status))
+                .register(metricas)
+                .record(System.nanoTime() - inicio, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+
+    private PageResponse<BookResponse> listarLivros(Map<String, String> parametros) {
+        long cursor = cursor(parametros);
+        int tamanho = tamanho(parametros);
+        String idioma = parametros.get("idioma");
+        if (idioma == null || idioma.isBlank()) {
+            return pagina(bookRepository.findPaginaApos(cursor, PageRequest.of(0, tamanho + 1)), tamanho,
+                    BookResponse::of, BookResponse::id);
+        }
+
+        List<String> codigos = Arrays.stream(idioma.split("[,|]")).map(String::trim).filter(c -> !c.isEmpty()).toList();
+        BitSet livros = idioma.contains("|") ? indiceIdiomas.livrosEmAlgum(codigos) : indiceIdiomas.livrosEmTodos(codigos);
+        List<Long> ids = new ArrayList<>(tamanho + 1);
+        for (int id = livros.nextSetBit(Math.toIntExact(cursor) + 1); id >= 0 && ids.size() <= tamanho;
+             id = livros.nextSetBit(id + 1)) {
+            ids.add((long) id);
+        }
+        return pagina(ids.isEmpty() ? List.of() : bookRepository.findPorIds(ids), tamanho,
+                BookResponse::of, BookResponse::id);
+    }
+
+    private List<BookSummary> buscarLivros(Map<String, String> parametros) {
+        String consulta = obrigatorio(parametros, "q");
+        return indiceBusca.buscar(consulta, limitado(parametros, "limite", 10));
+    }
+
+    private List<BookResponse> topLivros(Map<String, String> parametros) {
+        int n = limitado(parametros, "n", 10);
+        List<RankingDownloads.Posicao> top;
+        if (parametros.containsKey("idioma")) {
+            top = rankingDownloads.topPorIdioma(parametros.get("idioma"), n);
+        } else if (parametros.containsKey("autor")) {
+            top = rankingDownloads.topPorAutor(Long.parseLong(parametros.get("autor")), n);
+        } else if (parametros.containsKey("vivos")) {
+            int ano = Integer.parseInt(parametros.get("vivos"));
+            top = rankingDownloads.topPorAutores(indiceAutoresVivos.listarVivosEntre(ano, ano), n);
+        } else {
+            top = rankingDownloads.top(n);
+        }
+        if (top.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> livrosPorId = new HashMap<>();
+        bookRepository.findPorIds(top.stream().map(RankingDownloads.Posicao::livroId).toList())
+                .forEach(livro -> livrosPorId.put(livro.getId(), livro));
+        return top.stream()
+                .map(posicao -> livrosPorId.get(posicao.livroId()))
+                .filter(livro -> livro != null)
+                .map(BookResponse::of)
+                .toList();
+    }
+
+    private PageResponse<AuthorSummary> listarAutores(Map<String, String> parametros) {
+        int tamanho = tamanho(parametros);
+        return pagina(authorRepository.findResumosApos(cursor(parametros), PageRequest.of(0, tamanho + 1)), tamanho,
+                Function.identity(), AuthorSummary::id);
+    }
+
+    private PageResponse<AuthorSummary> listarAutoresVivos(Map<String, String> parametros) {
+        int ano = Integer.parseInt(obrigatorio(parametros, "ano"));
+        long cursor = cursor(parametros);
+        int tamanho = tamanho(parametros);
+        List<Long> ids = indiceAutoresVivos.listarVivosEntre(ano, ano).stream()
+                .filter(id -> id > cursor)
+                .sorted()
+                .limit(tamanho + 1L)
+                .toList();
+        List<AuthorSummary> autores = ids.isEmpty() ? List.of() : authorRepository.findResumosPorIds(ids).stream()
+                .sorted(Comparator.comparing(AuthorSummary::id))
+                .toList();
+        return pagina(autores, tamanho, Function.identity(), AuthorSummary::id);
+    }
+
+    private StatisticsResponse estatisticas() {
+        return new StatisticsResponse(bookRepository.calcularEstatisticas(),
+                bookRepository.findFirstByDownloadCountNotNullOrderByDownloadCountDesc().map(BookResponse::of).orElse(null),
+                bookRepository.findFirstByDownloadCountNotNullOrderByDownloadCountAsc().map(BookResponse::of).orElse(null),
+                bookRepository.calcularEstatisticasPorIdioma(),
+                bookRepository.calcularEstatisticasPorAutor(PageRequest.of(0, 10)));
+    }
+
+    /**
+     * Monta a página a partir de até tamanho + 1 itens: o item a mais indica que existe uma próxima página.
+     */
+    private static <E, T> PageResponse<T> pagina(List<E> itens, int tamanho, Function<E, T> conversao,
+                                                 Function<T, Long> chave) {
+        List<T> convertidos = itens.stream().limit(tamanho).map(conversao).toList();
+        Long proximo = itens.size() > tamanho && !convertidos.isEmpty()
+                ? chave.apply(convertidos.get(convertidos.size() - 1)) : null;
+        return new PageResponse<>(convertidos, proximo);
+    }
+
+    /**
+     * O último id da página anterior. Os índices em memória guardam ids em bitmaps indexados por int,
+     * por isso o cursor precisa caber em um int e deixar espaço para o id seguinte.
+     */
+    private static long cursor(Map<String, String> parametros) {
+        String valor = parametros.get("cursor");
+        long cursor = valor == null || valor.isBlank() ? 0 : Long.parseLong(valor);
+        if (cursor < 0 || cursor >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("O parâmetro 'cursor' deve estar entre 0 e " + (Integer.MAX_VALUE - 1) + ".");
+        }
+        return cursor;
+    }
+
+    private int tamanho(Map<String, String> parametros) {
+        return limitado(parametros, "tamanho", TAMANHO_PADRAO);
+    }
+
+    private int limitado(Map<String, String> parametros, String nome, int padrao) {
+        String valor = parametros.get(nome);
+        int numero = valor == null || valor.isBlank() ? padrao : Integer.parseInt(valor);
+        if (numero < 1 || numero > tamanhoMaximo) {
+            throw new IllegalArgumentException("O parâmetro '" + nome + "' deve estar entre 1 e " + tamanhoMaximo + ".");
+        }
+        return numero;
+    }
+
+    private static String obrigatorio(Map<String, String> parametros, String nome) {
+        String valor = parametros.get(nome);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("O parâmetro '" + nome + "' é obrigatório.");
+        }
+        return valor;
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nome = URLDecoder.decode(igual >= 0 ? par.substring(0, igual) : par, StandardCharsets.UTF_8);
+            String valor = igual >= 0 ? URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8) : "";
+            parametros.putIfAbsent(nome, valor);
+        }
+        return parametros;
+    }
+}
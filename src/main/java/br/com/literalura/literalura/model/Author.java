@@ -3,6 +3,9 @@ package br.com.literalura.literalura.model;
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,9 +15,12 @@ import java.util.stream.Collectors;
  * Entidade JPA que representa um autor.
  * Esta classe é usada tanto para mapear os dados da API Gutendex
  * quanto para persistir as informações do autor no banco de dados.
+ * Fica no cache de segundo nível do Hibernate (região "autores").
  */
 @Entity
 @Table(name = "autores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "autores")
 @JsonIgnoreProperties(ignoreUnknown = true) // Ignora campos do JSON que não estão mapeados nesta classe
 public class Author {
     @Id
@@ -35,9 +41,12 @@ public class Author {
      * Um autor pode ter escrito vários livros.
      * - mappedBy: Indica que a entidade Book é a dona do relacionamento (ela contém a foreign key).
      * - cascade: Propaga todas as operações (salvar, atualizar, deletar) do Autor para seus Livros associados.
-     * - fetch: EAGER carrega os livros do autor imediatamente quando o autor é carregado do banco.
+     * - fetch: LAZY só carrega os livros do autor quando a lista é acessada. As listagens usam a
+     *   projeção {@link AuthorSummary}, que já traz os títulos agregados em uma única consulta.
+     * Os ids dos livros de cada autor ficam no cache de segundo nível (região "autores.livros").
      */
-    @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "autores.livros")
+    @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Book> books = new ArrayList<>();
 
     /**
@@ -91,16 +100,17 @@ public class Author {
 
     /**
      * Sobrescreve o método toString para fornecer uma representação textual clara do autor,
-     * incluindo uma lista dos títulos de seus livros.
+     * incluindo uma lista dos títulos de seus livros quando eles já estiverem carregados.
+     * A lista nunca é carregada aqui, para que o toString não dispare consultas ao banco.
      *
      * @return String formatada com os dados do autor.
      */
     @Override
     public String toString() {
         // Usa Stream API para coletar os títulos de todos os livros associados e juntá-los em uma única String.
-        String titulosLivros = books.stream()
-                .map(Book::getTitle)
-                .collect(Collectors.joining(", "));
+        String titulosLivros = Hibernate.isInitialized(books)
+                ? books.stream().map(Book::getTitle).collect(Collectors.joining(", "))
+                : "...";
 
         return "----- AUTOR -----" +
                 "\nNome: " + name +
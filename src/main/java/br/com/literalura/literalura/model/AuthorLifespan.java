@@ -0,0 +1,11 @@
+package br.com.literalura.literalura.model;
+
+/**
+ * Projeção com apenas o período de vida de um autor, usada para montar o índice em memória
+ * de autores vivos por ano sem carregar as entidades completas.
+ *
+ * @param id Chave primária do autor.
+ * @param birthYear Ano de nascimento.
+ * @param deathYear Ano de falecimento (null se não informado).
+ */
+public record AuthorLifespan(Long id, Integer birthYear, Integer deathYear) {}
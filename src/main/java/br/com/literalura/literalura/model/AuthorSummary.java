@@ -0,0 +1,28 @@
+package br.com.literalura.literalura.model;
+
+/**
+ * Projeção de leitura de um autor, usada nas listagens.
+ * Traz os dados do autor e os títulos dos seus livros já agregados pelo banco em uma única String,
+ * evitando carregar as entidades Book de cada autor para a memória.
+ *
+ * @param id Chave primária do autor.
+ * @param name Nome do autor.
+ * @param birthYear Ano de nascimento.
+ * @param deathYear Ano de falecimento.
+ * @param titles Títulos dos livros do autor, separados por vírgula (null se não houver livros).
+ */
+public record AuthorSummary(Long id, String name, Integer birthYear, Integer deathYear, String titles) {
+
+    /**
+     * Mesmo formato de {@link Author#toString()}, para que as listagens não mudem de aparência.
+     */
+    @Override
+    public String toString() {
+        return "----- AUTOR -----" +
+                "\nNome: " + name +
+                "\nAno de Nascimento: " + birthYear +
+                "\nAno de Falecimento: " + deathYear +
+                "\nLivros: [" + (titles != null ? titles : "") + "]" +
+                "\n-----------------\n";
+    }
+}
@@ -4,15 +4,24 @@ import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Entidade JPA que representa um livro.
  * Usada para mapear dados da API Gutendex e para persistência no banco de dados.
+ * Fica no cache de segundo nível do Hibernate (região "livros"), já com os campos calculados (@Formula).
  */
 @Entity
 @Table(name = "livros")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "livros")
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Book {
     @JsonIgnore // O ID interno do nosso banco não deve ser enviado ou recebido via JSON.
@@ -24,21 +33,65 @@ public class Book {
     private String title;
 
     /**
-     * Relacionamento muitos-para-um com a entidade Author.
+     * Relacionamento muitos-para-um com a entidade Author: o primeiro autor do livro.
      * Muitos livros podem pertencer a um único autor.
      * - cascade: Garante que, ao salvar um livro, seu autor associado também seja salvo (se for novo).
      */
     @ManyToOne(cascade = CascadeType.ALL)
     private Author author;
 
+    // Todos os autores e tradutores informados pela API, em ordem. Gravados na tabela livro_autores pela ingestão.
+    @Transient
+    private List<Author> authors = List.of();
+
+    @Transient
+    private List<Author> translators = List.of();
+
+    // Os autores e tradutores de um livro lido do banco, em ordem (somente leitura). Agregados como array,
+    // e não como texto com separador, porque um nome pode conter qualquer separador.
+    @JsonIgnore
+    @Formula("(SELECT array_agg(a.name ORDER BY la.posicao) FROM livro_autores la " +
+            "JOIN autores a ON a.id = la.autor_id WHERE la.livro_id = id AND la.papel = 'A')")
+    private String[] authorNames;
+
+    @JsonIgnore
+    @Formula("(SELECT array_agg(a.name ORDER BY la.posicao) FROM livro_autores la " +
+            "JOIN autores a ON a.id = la.autor_id WHERE la.livro_id = id AND la.papel = 'T')")
+    private String[] translatorNames;
+
+    // Primeiro idioma do livro, usado nas exibições e estatísticas.
     private String language;
 
+    // Todos os idiomas informados pela API, em ordem. Gravados na tabela livro_idiomas pela ingestão.
+    @Transient
+    private List<String> languages = List.of();
+
+    // Os idiomas de um livro lido do banco, separados por vírgula (somente leitura).
+    @JsonIgnore
+    @Formula("(SELECT string_agg(i.codigo, ', ' ORDER BY li.posicao) FROM livro_idiomas li " +
+            "JOIN idiomas i ON i.id = li.idioma_id WHERE li.livro_id = id)")
+    private String languageCodes;
+
     @JsonAlias("download_count")
     private Integer downloadCount;
 
     @JsonAlias("id") // Mapeia o ID do livro na API Gutendex para este campo.
     private Integer gutendexId;
 
+    // Endereços do texto puro e do EPUB, escolhidos entre os formatos informados pela API.
+    @JsonIgnore
+    private String textUrl;
+
+    @JsonIgnore
+    private String epubUrl;
+
+    // Contagens calculadas sobre o texto baixado (ver ArmazemConteudo); nulas enquanto ele não foi baixado.
+    @JsonIgnore
+    private Long wordCount;
+
+    @JsonIgnore
+    private Long characterCount;
+
     public Book() {}
 
     // Getters e Setters
@@ -63,40 +116,88 @@ public class Book {
         return author;
     }
 
+    /**
+     * Define o autor como o único autor do livro.
+     */
     public void setAuthor(Author author) {
         this.author = author;
+        this.authors = author != null ? List.of(author) : List.of();
+    }
+
+    public List<Author> getAuthors() {
+        return authors;
+    }
+
+    /**
+     * Define todos os autores do livro, em ordem; o primeiro também fica em author.
+     */
+    public void setAuthors(List<Author> authors) {
+        this.authors = List.copyOf(authors);
+        this.author = authors.isEmpty() ? null : authors.get(0);
+    }
+
+    public List<Author> getTranslators() {
+        return translators;
+    }
+
+    public void setTranslators(List<Author> translators) {
+        this.translators = List.copyOf(translators);
     }
 
     /**
      * Método auxiliar usado pelo Jackson para desserializar a lista de autores da API.
-     * Conforme o requisito, pegamos apenas o primeiro autor da lista.
+     * Guarda todos os autores; o primeiro também fica em author.
      * @param authors Lista de autores recebida do JSON da API.
      */
     @JsonAlias("authors")
     public void setAuthorsFromAPI(List<Author> authors) {
-        if (authors != null && !authors.isEmpty()) {
-            this.author = authors.get(0); // Pega apenas o primeiro autor.
-        } else {
-            this.author = null;
+        setAuthors(comNome(authors));
+    }
+
+    /**
+     * Método auxiliar usado pelo Jackson para desserializar a lista de tradutores da API.
+     * @param translators Lista de tradutores recebida do JSON da API.
+     */
+    @JsonAlias("translators")
+    public void setTranslatorsFromAPI(List<Author> translators) {
+        this.translators = comNome(translators);
+    }
+
+    private static List<Author> comNome(List<Author> autores) {
+        if (autores == null) {
+            return List.of();
         }
+        return autores.stream().filter(autor -> autor != null && autor.getName() != null).toList();
     }
 
     public String getLanguage() {
         return language;
     }
 
+    public List<String> getLanguages() {
+        return languages;
+    }
+
     /**
      * Método auxiliar usado pelo Jackson para desserializar a lista de idiomas da API.
-     * Conforme o requisito, pegamos apenas o primeiro idioma da lista.
+     * Guarda todos os idiomas (em minúsculas e sem repetição); o primeiro também fica em language.
      * @param languages Lista de idiomas recebida do JSON da API.
      */
     @JsonAlias("languages")
     public void setLanguages(List<String> languages) {
-        if (languages != null && !languages.isEmpty()) {
-            this.language = languages.get(0); // Pega apenas o primeiro idioma.
-        } else {
-            this.language = "desconhecido";
+        List<String> codigos = new ArrayList<>();
+        if (languages != null) {
+            for (String codigo : languages) {
+                if (codigo != null && !codigo.isBlank()) {
+                    String normalizado = codigo.strip().toLowerCase(Locale.ROOT);
+                    if (!codigos.contains(normalizado)) {
+                        codigos.add(normalizado);
+                    }
+                }
+            }
         }
+        this.languages = List.copyOf(codigos);
+        this.language = codigos.isEmpty() ? "desconhecido" : codigos.get(0);
     }
 
     public Integer getDownloadCount() {
@@ -115,18 +216,101 @@ public class Book {
         this.gutendexId = gutendexId;
     }
 
+    public String getTextUrl() {
+        return textUrl;
+    }
+
+    public String getEpubUrl() {
+        return epubUrl;
+    }
+
+    /**
+     * Método auxiliar usado pelo Jackson para ler os formatos (tipo de conteúdo → endereço) da API.
+     * Guarda o texto puro, de preferência em UTF-8 e fora de um .zip, e o EPUB.
+     * @param formats Mapa de formatos recebido do JSON da API.
+     */
+    @JsonAlias("formats")
+    public void setFormatsFromAPI(Map<String, String> formats) {
+        this.textUrl = null;
+        this.epubUrl = null;
+        if (formats == null) {
+            return;
+        }
+        int melhorTexto = 0;
+        for (Map.Entry<String, String> formato : formats.entrySet()) {
+            String tipo = formato.getKey().toLowerCase(Locale.ROOT);
+            String endereco = formato.getValue();
+            if (endereco == null || endereco.isBlank()) {
+                continue;
+            }
+            if (tipo.startsWith("application/epub+zip")) {
+                this.epubUrl = endereco;
+            } else if (tipo.startsWith("text/plain")) {
+                int preferencia = (endereco.endsWith(".zip") ? 0 : 2) + (tipo.contains("utf-8") ? 1 : 0) + 1;
+                if (preferencia > melhorTexto) {
+                    melhorTexto = preferencia;
+                    this.textUrl = endereco;
+                }
+            }
+        }
+    }
+
+    public Long getWordCount() {
+        return wordCount;
+    }
+
+    public Long getCharacterCount() {
+        return characterCount;
+    }
+
+    /**
+     * Nomes dos autores, na ordem da API: os agregados pelo banco (livro lido do banco) ou os recebidos da API.
+     */
+    List<String> nomesDosAutores() {
+        if (authorNames != null) {
+            return List.of(authorNames);
+        }
+        if (!authors.isEmpty()) {
+            return authors.stream().map(Author::getName).toList();
+        }
+        return author != null ? List.of(author.getName()) : List.of();
+    }
+
+    /**
+     * Nomes dos tradutores, do banco ou da API (vazia se não houver).
+     */
+    List<String> nomesDosTradutores() {
+        if (translatorNames != null) {
+            return List.of(translatorNames);
+        }
+        return translators.stream().map(Author::getName).toList();
+    }
+
+    /**
+     * Códigos de todos os idiomas, do banco ou da API.
+     */
+    List<String> codigosDosIdiomas() {
+        if (languageCodes != null) {
+            return List.of(languageCodes.split(", "));
+        }
+        return !languages.isEmpty() ? languages : language != null ? List.of(language) : List.of();
+    }
+
     /**
      * Sobrescreve o método toString para uma representação textual clara do livro.
      * @return String formatada com os dados do livro.
      */
     @Override
     public String toString() {
-        String nomeAutor = (author != null) ? author.getName() : "Autor desconhecido";
+        List<String> autores = nomesDosAutores();
+        String nomeAutor = autores.isEmpty() ? "Autor desconhecido" : String.join("; ", autores);
+        String tradutores = String.join("; ", nomesDosTradutores());
         return "----- LIVRO -----" +
                 "\nTítulo: " + title +
                 "\nAutor: " + nomeAutor +
-                "\nIdioma: " + language +
+                (tradutores.isEmpty() ? "" : "\nTradução: " + tradutores) +
+                "\nIdioma: " + String.join(", ", codigosDosIdiomas()) +
                 "\nNúmero de Downloads: " + downloadCount +
                 "\n-----------------\n";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package br.com.literalura.literalura.model;
+
+import java.util.List;
+
+/**
+ * Representação de um livro nas respostas da API HTTP local, montada a partir da entidade já carregada.
+ * As entidades JPA não são serializadas diretamente: têm associações preguiçosas e campos internos.
+ *
+ * @param id Chave primária do livro.
+ * @param gutendexId Id do livro na API Gutendex.
+ * @param title Título do livro.
+ * @param authors Nomes dos autores, em ordem.
+ * @param translators Nomes dos tradutores (vazia se não houver).
+ * @param languages Códigos dos idiomas, em ordem.
+ * @param downloadCount Número de downloads.
+ */
+public record BookResponse(Long id, Integer gutendexId, String title, List<String> authors, List<String> translators,
+                           List<String> languages, Integer downloadCount) {
+
+    public static BookResponse of(Book livro) {
+        return new BookResponse(livro.getId(), livro.getGutendexId(), livro.getTitle(), livro.nomesDosAutores(),
+                livro.nomesDosTradutores(), livro.codigosDosIdiomas(), livro.getDownloadCount());
+    }
+}
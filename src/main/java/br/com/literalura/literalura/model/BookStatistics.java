@@ -0,0 +1,11 @@
+package br.com.literalura.literalura.model;
+
+/**
+ * Resultado da consulta de agregação sobre os downloads dos livros, calculada no banco de dados.
+ *
+ * @param total Total de livros registrados.
+ * @param minDownloads Menor número de downloads (null se nenhum livro tiver downloads informados).
+ * @param maxDownloads Maior número de downloads.
+ * @param averageDownloads Média de downloads.
+ */
+public record BookStatistics(Long total, Integer minDownloads, Integer maxDownloads, Double averageDownloads) {}
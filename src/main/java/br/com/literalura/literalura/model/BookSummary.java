@@ -0,0 +1,40 @@
+package br.com.literalura.literalura.model;
+
+import java.util.List;
+
+/**
+ * Projeção de leitura de um livro, com os nomes dos autores já resolvidos.
+ * Usada pelas estruturas mantidas em memória (como o índice de busca local),
+ * que não devem guardar entidades JPA.
+ *
+ * @param id Chave primária do livro.
+ * @param title Título do livro.
+ * @param authorName Nomes dos autores, na ordem da API, separados por "; " (null se desconhecido).
+ * @param language Código do idioma.
+ * @param downloadCount Número de downloads.
+ */
+public record BookSummary(Long id, String title, String authorName, String language, Integer downloadCount) {
+
+    /**
+     * Cria a projeção a partir de uma entidade já carregada.
+     */
+    public static BookSummary of(Book livro) {
+        List<String> autores = livro.nomesDosAutores();
+        return new BookSummary(livro.getId(), livro.getTitle(), autores.isEmpty() ? null : String.join("; ", autores),
+                livro.getLanguage(), livro.getDownloadCount());
+    }
+
+    /**
+     * Mesmo formato de {@link Book#toString()}, para que as listagens não mudem de aparência.
+     */
+    @Override
+    public String toString() {
+        String nomeAutor = (authorName != null) ? authorName : "Autor desconhecido";
+        return "----- LIVRO -----" +
+                "\nTítulo: " + title +
+                "\nAutor: " + nomeAutor +
+                "\nIdioma: " + language +
+                "\nNúmero de Downloads: " + downloadCount +
+                "\n-----------------\n";
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.literalura.literalura.model;
+
+/**
+ * Totais de um grupo de livros (ex: um idioma ou um autor), calculados no banco de dados.
+ *
+ * @param group Identificação do grupo (código do idioma ou nome do autor).
+ * @param books Número de livros do grupo.
+ * @param downloads Soma dos downloads dos livros do grupo.
+ */
+public record GroupStatistics(String group, Long books, Long downloads) {}
@@ -0,0 +1,13 @@
+package br.com.literalura.literalura.model;
+
+import java.util.List;
+
+/**
+ * Uma página de uma listagem da API HTTP local, com paginação por chave (keyset).
+ * Para ler a próxima página, repita a chamada com cursor = nextCursor.
+ *
+ * @param items Itens da página.
+ * @param nextCursor Cursor da próxima página (o último id desta), ou null se esta for a última.
+ * @param <T> Tipo dos itens.
+ */
+public record PageResponse<T>(List<T> items, Long nextCursor) {}
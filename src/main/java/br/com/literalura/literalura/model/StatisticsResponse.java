@@ -0,0 +1,15 @@
+package br.com.literalura.literalura.model;
+
+import java.util.List;
+
+/**
+ * Estatísticas gerais do catálogo nas respostas da API HTTP local (as mesmas da opção 7 do menu).
+ *
+ * @param downloads Total de livros e mínimo, máximo e média de downloads.
+ * @param mostDownloaded Livro com mais downloads (null se não houver).
+ * @param leastDownloaded Livro com menos downloads (null se não houver).
+ * @param byLanguage Livros e downloads por idioma.
+ * @param topAuthors Os autores com mais downloads somados.
+ */
+public record StatisticsResponse(BookStatistics downloads, BookResponse mostDownloaded, BookResponse leastDownloaded,
+                                 List<GroupStatistics> byLanguage, List<GroupStatistics> topAuthors) {}
@@ -1,9 +1,16 @@
 package br.com.literalura.literalura.repository;
 
 import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.AuthorLifespan;
+import br.com.literalura.literalura.model.AuthorSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,24 +18,62 @@ import java.util.Optional;
  * Interface de repositório do Spring Data JPA para a entidade Author.
  * Fornece métodos CRUD (Create, Read, Update, Delete) prontos para uso
  * e permite a declaração de consultas customizadas.
+ * Os métodos com a dica HINT_CACHEABLE guardam o resultado no cache de consultas do Hibernate
+ * (ver {@link br.com.literalura.literalura.service.CacheSegundoNivel}).
  */
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
     /**
-     * Busca um autor pelo nome, ignorando maiúsculas e minúsculas.
-     * Esta é uma "derived query", onde o Spring Data JPA cria a consulta automaticamente a partir do nome do método.
-     * @param name Nome (ou parte do nome) do autor a ser buscado.
-     * @return Um Optional contendo o autor encontrado, ou vazio se não encontrar.
+     * Busca um autor pelo nome exato, ignorando maiúsculas e minúsculas.
+     * Usa o índice sobre upper(name) e, ao contrário da busca parcial, não corre o risco
+     * de encontrar vários autores com nomes parecidos.
+     * @param name Nome completo do autor (ex: "Austen, Jane").
+     * @return Um Optional contendo o primeiro autor encontrado.
      */
-    Optional<Author> findByNameContainsIgnoreCase(String name);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Author> findFirstByNameIgnoreCase(String name);
 
     /**
-     * Busca autores que estavam vivos em um determinado ano.
-     * A lógica considera autores que nasceram antes ou no ano fornecido, e que faleceram
-     * depois ou no ano fornecido (ou que ainda não faleceram).
-     * @param ano O ano para a verificação.
-     * @return Uma lista de autores que estavam vivos no ano especificado.
+     * Busca uma página de autores com os títulos de seus livros, em uma única consulta.
+     * O listagg agrega os títulos no próprio banco (string_agg no PostgreSQL),
+     * então nenhuma entidade Book é carregada. A paginação é por chave (keyset) sobre o id.
+     * @param id O último id da página anterior (0 para a primeira página).
+     * @param pagina Define o tamanho da página (use PageRequest.of(0, tamanho)).
+     * @return Os autores seguintes, em ordem de id.
      */
-    @Query("SELECT a FROM Author a WHERE a.birthYear <= :ano AND (a.deathYear IS NULL OR a.deathYear >= :ano)")
-    List<Author> findAutoresVivosEmAno(Integer ano);
-}
\ No newline at end of file
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new br.com.literalura.literalura.model.AuthorSummary(a.id, a.name, a.birthYear, a.deathYear, " +
+            "listagg(b.title, ', ') WITHIN GROUP (ORDER BY b.title)) " +
+            "FROM Author a LEFT JOIN a.books b WHERE a.id > :id " +
+            "GROUP BY a.id, a.name, a.birthYear, a.deathYear ORDER BY a.id")
+    List<AuthorSummary> findResumosApos(Long id, Pageable pagina);
+
+    /**
+     * Estimativa do número de autores mantida pelo PostgreSQL, sem percorrer a tabela.
+     * Retorna -1 se a tabela nunca foi analisada.
+     * @return O número estimado de autores.
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'autores'", nativeQuery = true)
+    long estimarTotal();
+
+    /**
+     * Busca os autores indicados, com os títulos de seus livros agregados.
+     * Usada junto com o índice em memória de autores vivos, que devolve apenas os ids.
+     * @param ids Ids dos autores.
+     * @return As projeções dos autores encontrados, ordenadas por nome.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new br.com.literalura.literalura.model.AuthorSummary(a.id, a.name, a.birthYear, a.deathYear, " +
+            "listagg(b.title, ', ') WITHIN GROUP (ORDER BY b.title)) " +
+            "FROM Author a LEFT JOIN a.books b WHERE a.id IN :ids " +
+            "GROUP BY a.id, a.name, a.birthYear, a.deathYear ORDER BY a.name")
+    List<AuthorSummary> findResumosPorIds(Collection<Long> ids);
+
+    /**
+     * Lista o período de vida de todos os autores com ano de nascimento conhecido.
+     * @return Uma projeção por autor, com id, nascimento e falecimento.
+     */
+    @Query("SELECT new br.com.literalura.literalura.model.AuthorLifespan(a.id, a.birthYear, a.deathYear) " +
+            "FROM Author a WHERE a.birthYear IS NOT NULL")
+    List<AuthorLifespan> findPeriodosDeVida();
+}
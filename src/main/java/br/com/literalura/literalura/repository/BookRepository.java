@@ -1,27 +1,115 @@
 package br.com.literalura.literalura.repository;
 
 import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.BookStatistics;
+import br.com.literalura.literalura.model.BookSummary;
+import br.com.literalura.literalura.model.GroupStatistics;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Interface de repositório do Spring Data JPA para a entidade Book.
+ * Os métodos com a dica HINT_CACHEABLE guardam o resultado no cache de consultas do Hibernate
+ * (ver {@link br.com.literalura.literalura.service.CacheSegundoNivel}).
  */
 public interface BookRepository extends JpaRepository<Book, Long> {
 
     /**
-     * Busca um livro pelo título, ignorando maiúsculas e minúsculas.
-     * @param title Título (ou parte do título) do livro.
-     * @return Um Optional contendo o livro encontrado.
+     * Busca livros pelos ids, com o autor carregado na mesma consulta.
+     * Usada com os ids vindos dos índices em memória (ex: livros de um idioma).
+     * @param ids Os ids dos livros.
+     * @return Os livros encontrados, em ordem de id.
      */
-    Optional<Book> findByTitleContainsIgnoreCase(String title);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findPorIds(Collection<Long> ids);
 
     /**
-     * Busca todos os livros registrados em um determinado idioma.
-     * @param language O código do idioma (ex: "en", "pt").
-     * @return Uma lista de livros para o idioma especificado.
+     * Busca uma página de livros usando paginação por chave (keyset): em vez de pular N linhas
+     * com OFFSET, começa logo depois do último id exibido, o que custa o mesmo em qualquer página.
+     * O autor é carregado na mesma consulta para evitar uma consulta extra por livro.
+     * @param id O último id da página anterior (0 para a primeira página).
+     * @param pagina Define o tamanho da página (use PageRequest.of(0, tamanho)).
+     * @return Os livros seguintes, em ordem de id.
      */
-    List<Book> findByLanguage(String language);
-}
\ No newline at end of file
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.id > :id ORDER BY b.id")
+    List<Book> findPaginaApos(Long id, Pageable pagina);
+
+    /**
+     * Estimativa do número de livros mantida pelo PostgreSQL nas estatísticas da tabela.
+     * Ao contrário de count(*), não percorre a tabela. Retorna -1 se a tabela nunca foi analisada.
+     * @return O número estimado de livros.
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'livros'", nativeQuery = true)
+    long estimarTotal();
+
+    /**
+     * Calcula total, mínimo, máximo e média de downloads diretamente no banco,
+     * retornando uma única linha em vez de carregar todos os livros.
+     * @return As estatísticas agregadas.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new br.com.literalura.literalura.model.BookStatistics(count(b), min(b.downloadCount), " +
+            "max(b.downloadCount), avg(b.downloadCount)) FROM Book b")
+    BookStatistics calcularEstatisticas();
+
+    /**
+     * Busca o livro com mais downloads (usa o índice sobre download_count).
+     * @return Um Optional contendo o livro mais baixado.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Book> findFirstByDownloadCountNotNullOrderByDownloadCountDesc();
+
+    /**
+     * Busca o livro com menos downloads (usa o índice sobre download_count).
+     * @return Um Optional contendo o livro menos baixado.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Book> findFirstByDownloadCountNotNullOrderByDownloadCountAsc();
+
+    /**
+     * Agrupa os livros por idioma, com a quantidade e a soma de downloads de cada um.
+     * Um livro em vários idiomas conta em cada um deles (tabela livro_idiomas), como na contagem do
+     * {@link br.com.literalura.literalura.service.IndiceIdiomas}; livros sem idioma ficam de fora.
+     * Consulta nativa porque livro_idiomas não é mapeada como entidade.
+     * @return Uma linha por idioma, do idioma com mais livros para o com menos.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "SELECT i.codigo AS \"group\", count(*) AS books, sum(l.download_count) AS downloads " +
+            "FROM livro_idiomas li JOIN idiomas i ON i.id = li.idioma_id JOIN livros l ON l.id = li.livro_id " +
+            "GROUP BY i.codigo ORDER BY count(*) DESC, i.codigo", nativeQuery = true)
+    List<GroupStatistics> calcularEstatisticasPorIdioma();
+
+    /**
+     * Agrupa os livros por autor, com a quantidade e a soma de downloads de cada um.
+     * Um livro com vários autores conta para cada um deles (tabela livro_autores, papel 'A'), como no
+     * {@link br.com.literalura.literalura.service.RankingDownloads}; tradutores ficam de fora.
+     * @param pagina Limita quantos autores são retornados (use PageRequest.of(0, n)).
+     * @return Os autores com mais downloads somados.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "SELECT a.name AS \"group\", count(*) AS books, sum(l.download_count) AS downloads " +
+            "FROM livro_autores la JOIN autores a ON a.id = la.autor_id JOIN livros l ON l.id = la.livro_id " +
+            "WHERE la.papel = 'A' GROUP BY a.id, a.name ORDER BY sum(l.download_count) DESC NULLS LAST", nativeQuery = true)
+    List<GroupStatistics> calcularEstatisticasPorAutor(Pageable pagina);
+
+    /**
+     * Lista todos os livros como projeções, com os nomes de todos os autores, sem carregar entidades.
+     * Usada para montar as estruturas de busca mantidas em memória.
+     * @return Uma projeção por livro.
+     */
+    @Query(value = "SELECT l.id, l.title, string_agg(a.name, '; ' ORDER BY la.posicao) AS \"authorName\", " +
+            "l.language, l.download_count AS \"downloadCount\" FROM livros l " +
+            "LEFT JOIN livro_autores la ON la.livro_id = l.id AND la.papel = 'A' " +
+            "LEFT JOIN autores a ON a.id = la.autor_id GROUP BY l.id", nativeQuery = true)
+    List<BookSummary> findResumos();
+}
@@ -0,0 +1,18 @@
+package br.com.literalura.literalura.service;
+
+/**
+ * Exceção lançada quando a API externa não pôde ser consultada: todas as tentativas falharam,
+ * o prazo da requisição acabou, o disjuntor está aberto por causa de falhas recentes ou uma leitura
+ * em fluxo recebeu uma resposta de erro.
+ * Assim como os demais erros do ConsumoApi, é uma exceção de runtime.
+ */
+public class ApiIndisponivelException extends RuntimeException {
+
+    public ApiIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+
+    public ApiIndisponivelException(String mensagem, Throwable causa) {
+        super(mensagem, causa);
+    }
+}
@@ -0,0 +1,436 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.GutendexResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.LongStream;
+
+/**
+ * Armazém dos textos completos dos livros cadastrados: baixa o texto puro e o EPUB de cada livro para
+ * um diretório local e grava no banco o número de palavras e de caracteres do texto.
+ * <p>
+ * - os endereços vêm do campo "formats" da API (colunas text_url e epub_url); os livros cadastrados antes
+ *   de existirem essas colunas têm os endereços buscados com "?ids=", 32 livros por chamada;
+ * - cada arquivo é gravado como {@code <gutendexId>.txt} / {@code <gutendexId>.epub}, então um livro é
+ *   baixado uma única vez, mesmo que apareça em várias execuções;
+ * - o download vai para um arquivo ".parcial", escrito direto do fluxo da rede com FileChannel.transferFrom.
+ *   Um download interrompido continua do ponto em que parou, com o cabeçalho Range; se o servidor não
+ *   aceitar, recomeça do zero. O arquivo ".parcial" fica travado (FileLock) durante o download, para que
+ *   outra execução ao mesmo tempo não escreva nele. Arquivos travados por outra execução ficam para a próxima
+ *   e aparecem à parte no relatório;
+ * - a contagem lê o texto mapeado em memória (FileChannel.map), em partes de {@value #TAMANHO_PARTE_MB} MB
+ *   contadas em paralelo, sem copiar o arquivo para o heap. As palavras são sequências de bytes que não são
+ *   espaço em branco ASCII; os caracteres são os pontos de código UTF-8. O cabeçalho e a licença do
+ *   Projeto Gutenberg que acompanham o texto entram na contagem.
+ * <p>
+ * Livros sem texto puro na API ficam com text_url vazio e não são procurados de novo.
+ */
+@Service
+public class ArmazemConteudo {
+    private static final Logger log = LoggerFactory.getLogger(ArmazemConteudo.class);
+    // A API devolve no máximo 32 livros por página, então esse é o limite de ids por chamada.
+    private static final int IDS_POR_CHAMADA = 32;
+    private static final int TAMANHO_PARTE_MB = 64;
+    private static final long TAMANHO_PARTE = TAMANHO_PARTE_MB * 1024L * 1024L;
+    // Quantos bytes cada transferFrom copia da rede para o arquivo.
+    private static final long BLOCO_TRANSFERENCIA = 1 << 20;
+    // Resultados de garantirArquivo que não são bytes baixados.
+    private static final long JA_NO_DISCO = -1;
+    private static final long EM_USO = -2;
+
+    private final JdbcTemplate jdbc;
+    private final ConsumoApi consumo;
+    private final ConverteDados conversor = new ConverteDados();
+    private final CacheSegundoNivel cacheSegundoNivel;
+    private final String enderecoBase;
+    private final Path diretorio;
+    private final boolean baixarEpub;
+
+    /**
+     * @param diretorio Onde os arquivos são gravados.
+     * @param baixarEpub Baixa também o EPUB, além do texto puro.
+     */
+    public ArmazemConteudo(JdbcTemplate jdbc, ConsumoApi consumo, CacheSegundoNivel cacheSegundoNivel,
+                           @Value("${literalura.gutendex.endereco:https://gutendex.com/books/}") String enderecoBase,
+                           @Value("${literalura.conteudo.diretorio:.literalura/conteudo}") Path diretorio,
+                           @Value("${literalura.conteudo.epub:true}") boolean baixarEpub) {
+        this.jdbc = jdbc;
+        this.consumo = consumo;
+        this.cacheSegundoNivel = cacheSegundoNivel;
+        this.enderecoBase = enderecoBase;
+        this.diretorio = diretorio;
+        this.baixarEpub = baixarEpub;
+    }
+
+    /**
+     * Baixa e conta os textos dos livros indicados ou, se nenhum for indicado, dos livros mais baixados
+     * que ainda não têm contagem.
+     *
+     * @param gutendexIds Ids da Gutendex dos livros desejados (vazio escolhe pelos downloads).
+     * @param maxLivros Número máximo de livros quando os ids não são indicados.
+     * @param concorrencia Número máximo de downloads simultâneos.
+     * @return O relatório da execução.
+     */
+    public RelatorioConteudo baixar(Collection<Integer> gutendexIds, int maxLivros, int concorrencia) {
+        long inicio = System.nanoTime();
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório " + diretorio, e);
+        }
+
+        List<Livro> livros = gutendexIds.isEmpty()
+                ? jdbc.query("SELECT id, gutendex_id, text_url, epub_url, word_count FROM livros " +
+                        "WHERE word_count IS NULL AND gutendex_id IS NOT NULL AND (text_url IS NULL OR text_url <> '') " +
+                        "ORDER BY download_count DESC NULLS LAST, id LIMIT ?", ArmazemConteudo::livro, maxLivros)
+                : jdbc.query("SELECT id, gutendex_id, text_url, epub_url, word_count FROM livros " +
+                        "WHERE gutendex_id = ANY(?::int[]) ORDER BY id", ArmazemConteudo::livro,
+                        (Object) gutendexIds.toArray(Integer[]::new));
+        livros = resolverEnderecos(livros);
+
+        Queue<Resultado> resultados = new ConcurrentLinkedQueue<>();
+        Semaphore vagas = new Semaphore(Math.max(1, concorrencia));
+        ExecutorService executor = Executores.paraTarefasIo("conteudo", concorrencia);
+        try {
+            for (Livro livro : livros) {
+                vagas.acquire();
+                executor.execute(() -> {
+                    try {
+                        resultados.add(processar(livro));
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            }
+            // Espera os downloads em andamento: quando todas as vagas voltarem, todos terminaram.
+            vagas.acquire(Math.max(1, concorrencia));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int baixados = 0;
+        int jaNoDisco = 0;
+        int emUso = 0;
+        int contados = 0;
+        int semTexto = 0;
+        int falhas = 0;
+        long bytes = 0;
+        long palavras = 0;
+        long caracteres = 0;
+        List<Long> alterados = new ArrayList<>();
+        for (Resultado resultado : resultados) {
+            if (resultado.erro() != null) {
+                falhas++;
+                log.warn("Falha no livro {}: {}", resultado.gutendexId(), resultado.erro());
+                continue;
+            }
+            baixados += resultado.arquivosBaixados();
+            jaNoDisco += resultado.arquivosNoDisco();
+            emUso += resultado.arquivosEmUso();
+            bytes += resultado.bytesBaixados();
+            if (resultado.textoEmUso()) {
+                // Sem contagem nesta execução, mas o texto existe: a outra execução (ou a próxima) conta.
+                continue;
+            }
+            if (resultado.contagem() == null) {
+                semTexto++;
+            } else if (resultado.contado()) {
+                contados++;
+                palavras += resultado.contagem().palavras();
+                caracteres += resultado.contagem().caracteres();
+                alterados.add(resultado.livroId());
+            }
+        }
+        cacheSegundoNivel.descartarLivros(alterados);
+        return new RelatorioConteudo(livros.size(), baixados, jaNoDisco, emUso, contados, semTexto, falhas, bytes,
+                palavras, caracteres, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Totais do conteúdo já contado, calculados pelo banco.
+     */
+    public ResumoConteudo resumo() {
+        return jdbc.queryForObject("SELECT count(word_count), coalesce(sum(word_count), 0), " +
+                        "coalesce(sum(character_count), 0) FROM livros",
+                (rs, linha) -> new ResumoConteudo(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    /**
+     * Busca na API os endereços dos livros que ainda não os têm e grava-os no banco.
+     * Livros que a API não tem mais continuam sem endereço e ficam de fora desta execução.
+     */
+    private List<Livro> resolverEnderecos(List<Livro> livros) {
+        List<Integer> semEndereco = livros.stream().filter(livro -> livro.textUrl() == null).map(Livro::gutendexId).toList();
+        Map<Integer, Book> daApi = new HashMap<>();
+        for (int i = 0; i < semEndereco.size(); i += IDS_POR_CHAMADA) {
+            StringJoiner ids = new StringJoiner(",");
+            semEndereco.subList(i, Math.min(semEndereco.size(), i + IDS_POR_CHAMADA)).forEach(id -> ids.add(id.toString()));
+            try {
+                GutendexResponse resposta = consumo.obterConvertido(enderecoBase + "?ids=" + ids, GutendexResponse.class, conversor);
+                if (resposta.getResults() != null) {
+                    resposta.getResults().forEach(livro -> daApi.put(livro.getGutendexId(), livro));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falha ao buscar os endereços dos livros {}: {}", ids, e.getMessage());
+            }
+        }
+        if (!daApi.isEmpty()) {
+            List<Book> encontrados = new ArrayList<>(daApi.values());
+            // Texto vazio marca "a API não tem texto puro deste livro", para não procurá-lo de novo.
+            jdbc.update("UPDATE livros l SET text_url = v.texto, epub_url = v.epub " +
+                            "FROM unnest(?::int[], ?::text[], ?::text[]) AS v(gutendex_id, texto, epub) " +
+                            "WHERE l.gutendex_id = v.gutendex_id",
+                    encontrados.stream().map(Book::getGutendexId).toArray(Integer[]::new),
+                    encontrados.stream().map(livro -> livro.getTextUrl() != null ? livro.getTextUrl() : "").toArray(String[]::new),
+                    encontrados.stream().map(Book::getEpubUrl).toArray(String[]::new));
+        }
+
+        List<Livro> resolvidos = new ArrayList<>(livros.size());
+        for (Livro livro : livros) {
+            if (livro.textUrl() != null) {
+                resolvidos.add(livro);
+            } else if (daApi.containsKey(livro.gutendexId())) {
+                Book daApiLivro = daApi.get(livro.gutendexId());
+                resolvidos.add(new Livro(livro.id(), livro.gutendexId(),
+                        daApiLivro.getTextUrl() != null ? daApiLivro.getTextUrl() : "", daApiLivro.getEpubUrl(),
+                        livro.palavras()));
+            }
+        }
+        return resolvidos;
+    }
+
+    /**
+     * Baixa os arquivos de um livro que ainda não estão no disco e conta o texto, se ele ainda não foi contado.
+     */
+    private Resultado processar(Livro livro) {
+        try {
+            int baixados = 0;
+            int noDisco = 0;
+            int emUso = 0;
+            long bytes = 0;
+            Path texto = diretorio.resolve(livro.gutendexId() + ".txt");
+            long textoBaixado = JA_NO_DISCO;
+            if (!livro.textUrl().isEmpty()) {
+                textoBaixado = garantirArquivo(livro.textUrl(), texto);
+                baixados += textoBaixado >= 0 ? 1 : 0;
+                noDisco += textoBaixado == JA_NO_DISCO ? 1 : 0;
+                emUso += textoBaixado == EM_USO ? 1 : 0;
+                bytes += Math.max(0, textoBaixado);
+            }
+            if (baixarEpub && livro.epubUrl() != null && !livro.epubUrl().isEmpty()) {
+                long baixado = garantirArquivo(livro.epubUrl(), diretorio.resolve(livro.gutendexId() + ".epub"));
+                baixados += baixado >= 0 ? 1 : 0;
+                noDisco += baixado == JA_NO_DISCO ? 1 : 0;
+                emUso += baixado == EM_USO ? 1 : 0;
+                bytes += Math.max(0, baixado);
+            }
+
+            if (textoBaixado == EM_USO) {
+                return new Resultado(livro.id(), livro.gutendexId(), baixados, noDisco, emUso, bytes, null, false, true, null);
+            }
+            if (!Files.exists(texto)) {
+                return new Resultado(livro.id(), livro.gutendexId(), baixados, noDisco, emUso, bytes, null, false, false, null);
+            }
+            if (textoBaixado == JA_NO_DISCO && livro.palavras() != null) {
+                return new Resultado(livro.id(), livro.gutendexId(), baixados, noDisco, emUso, bytes,
+                        new Contagem(livro.palavras(), 0), false, false, null);
+            }
+            Contagem contagem = contar(texto);
+            jdbc.update("UPDATE livros SET word_count = ?, character_count = ? WHERE id = ?",
+                    contagem.palavras(), contagem.caracteres(), livro.id());
+            return new Resultado(livro.id(), livro.gutendexId(), baixados, noDisco, emUso, bytes, contagem, true, false, null);
+        } catch (IOException | RuntimeException e) {
+            return new Resultado(livro.id(), livro.gutendexId(), 0, 0, 0, 0, null, false, false, e.getMessage());
+        }
+    }
+
+    /**
+     * Garante que o arquivo esteja no disco, baixando-o (ou continuando o download) se necessário.
+     *
+     * @return Os bytes baixados nesta chamada, {@link #JA_NO_DISCO} se o arquivo já estava completo no disco
+     *         ou {@link #EM_USO} se ele está sendo baixado por outra execução.
+     */
+    private long garantirArquivo(String endereco, Path destino) throws IOException {
+        if (Files.exists(destino)) {
+            return JA_NO_DISCO;
+        }
+        Path parcial = destino.resolveSibling(destino.getFileName() + ".parcial");
+        try (FileChannel canal = FileChannel.open(parcial, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock trava;
+            try {
+                trava = canal.tryLock();
+            } catch (OverlappingFileLockException e) {
+                trava = null;
+            }
+            if (trava == null) {
+                return EM_USO;
+            }
+            // Outra execução pode ter terminado e movido o arquivo entre a verificação acima e a trava:
+            // o .parcial aberto aqui é então um arquivo novo e vazio, que não deve ser baixado de novo.
+            if (Files.exists(destino)) {
+                Files.deleteIfExists(parcial);
+                return JA_NO_DISCO;
+            }
+            long jaBaixado = canal.size();
+            long baixados;
+            ConsumoApi.FluxoParcial resposta = consumo.obterFluxoAPartirDe(endereco, jaBaixado);
+            try (InputStream corpo = resposta.corpo(); ReadableByteChannel origem = Channels.newChannel(corpo)) {
+                if (resposta.status() == 416 && jaBaixado > 0) {
+                    // Nada depois do último byte gravado: o download anterior já tinha chegado ao fim.
+                    baixados = 0;
+                } else if (resposta.status() != 200 && resposta.status() != 206) {
+                    throw new IOException("O servidor respondeu " + resposta.status() + " para " + endereco);
+                } else {
+                    long posicao = resposta.inicio();
+                    canal.truncate(posicao);
+                    long transferidos;
+                    while ((transferidos = canal.transferFrom(origem, posicao, BLOCO_TRANSFERENCIA)) > 0) {
+                        posicao += transferidos;
+                    }
+                    baixados = posicao - resposta.inicio();
+                }
+            }
+            canal.force(true);
+            // A troca acontece com a trava ainda obtida (ela é liberada ao fechar o canal), para que nenhuma
+            // outra execução trave o .parcial depois de gravado e antes de ele virar o arquivo final.
+            Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return baixados;
+        }
+    }
+
+    /**
+     * Conta as palavras e os caracteres de um texto em UTF-8, mapeando o arquivo em memória e contando
+     * as partes em paralelo. Cada parte olha o último byte da anterior para saber se começa no meio de uma palavra.
+     */
+    static Contagem contar(Path arquivo) throws IOException {
+        return contar(arquivo, TAMANHO_PARTE);
+    }
+
+    /**
+     * Como {@link #contar(Path)}, com o tamanho das partes em bytes.
+     */
+    static Contagem contar(Path arquivo, long tamanhoParte) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            long partes = (tamanho + tamanhoParte - 1) / tamanhoParte;
+            return LongStream.range(0, partes).parallel()
+                    .mapToObj(parte -> contarParte(canal, parte * tamanhoParte, Math.min(tamanho, (parte + 1) * tamanhoParte)))
+                    .reduce(new Contagem(0, 0), Contagem::somar);
+        }
+    }
+
+    private static Contagem contarParte(FileChannel canal, long inicio, long fim) {
+        // Mapeia um byte a mais antes da parte, quando existe, para saber se ela começa dentro de uma palavra.
+        long inicioMapeado = Math.max(0, inicio - 1);
+        MappedByteBuffer dados;
+        try {
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, inicioMapeado, fim - inicioMapeado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        boolean emPalavra = inicio > 0 && !espaco(dados.get(0));
+        long palavras = 0;
+        long caracteres = 0;
+        for (int i = (int) (inicio - inicioMapeado), limite = dados.limit(); i < limite; i++) {
+            byte b = dados.get(i);
+            // Bytes de continuação (10xxxxxx) fazem parte do caractere anterior.
+            if ((b & 0xC0) != 0x80) {
+                caracteres++;
+            }
+            if (espaco(b)) {
+                emPalavra = false;
+            } else if (!emPalavra) {
+                emPalavra = true;
+                palavras++;
+            }
+        }
+        return new Contagem(palavras, caracteres);
+    }
+
+    private static boolean espaco(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+
+    private static Livro livro(ResultSet rs, int linha) throws SQLException {
+        return new Livro(rs.getLong("id"), rs.getInt("gutendex_id"), rs.getString("text_url"),
+                rs.getString("epub_url"), (Long) rs.getObject("word_count"));
+    }
+
+    private record Livro(long id, int gutendexId, String textUrl, String epubUrl, Long palavras) {}
+
+    private record Resultado(long livroId, int gutendexId, int arquivosBaixados, int arquivosNoDisco, int arquivosEmUso,
+                             long bytesBaixados, Contagem contagem, boolean contado, boolean textoEmUso, String erro) {}
+
+    /**
+     * Palavras e caracteres de um texto.
+     */
+    record Contagem(long palavras, long caracteres) {
+        Contagem somar(Contagem outra) {
+            return new Contagem(palavras + outra.palavras, caracteres + outra.caracteres);
+        }
+    }
+
+    /**
+     * Totais do conteúdo contado no catálogo.
+     * @param livros Livros com o texto contado.
+     * @param palavras Soma das palavras.
+     * @param caracteres Soma dos caracteres.
+     */
+    public record ResumoConteudo(long livros, long palavras, long caracteres) {}
+
+    /**
+     * Relatório de uma execução.
+     * @param livros Livros considerados (com endereço conhecido).
+     * @param arquivosBaixados Arquivos baixados (ou completados) nesta execução.
+     * @param arquivosNoDisco Arquivos que já estavam no disco e não foram baixados de novo.
+     * @param arquivosEmUso Arquivos sendo baixados por outra execução, deixados para ela.
+     * @param livrosContados Livros cujo texto foi contado e gravado.
+     * @param semTexto Livros sem texto puro disponível (não inclui os de texto sendo baixado por outra execução).
+     * @param falhas Livros cujo download ou contagem falhou.
+     * @param bytesBaixados Bytes recebidos da rede.
+     * @param palavras Palavras dos textos contados nesta execução.
+     * @param caracteres Caracteres dos textos contados nesta execução.
+     * @param duracao Tempo total.
+     */
+    public record RelatorioConteudo(int livros, int arquivosBaixados, int arquivosNoDisco, int arquivosEmUso,
+                                    int livrosContados, int semTexto, int falhas, long bytesBaixados, long palavras,
+                                    long caracteres, Duration duracao) {
+
+        public double megabytesPorSegundo() {
+            return bytesBaixados / 1048576.0 / Math.max(0.001, duracao.toNanos() / 1e9);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.GutendexResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Atualização periódica e incremental do número de downloads dos livros já cadastrados, que só é
+ * gravado na ingestão e muda com o tempo na Gutendex.
+ * <p>
+ * O catálogo local é percorrido em ordem de id, em janelas de livros. Cada janela é consultada na API
+ * com "?ids=" (até 32 ids da Gutendex por chamada, várias chamadas em paralelo) e só os livros cujo
+ * número mudou são gravados, em uma única instrução UPDATE por janela, na mesma transação que avança
+ * a marca d'água (tabela sincronizacoes).
+ * <p>
+ * Cada execução para ao atingir o limite de livros ou de tempo, e a seguinte continua de onde ela parou;
+ * ao chegar ao fim do catálogo, a marca volta ao início. Se uma chamada falhar, a marca fica antes do
+ * grupo que falhou e a execução termina, para que nenhum livro seja pulado.
+ * <p>
+ * Depois de cada janela gravada, publica um {@link DownloadsAtualizadosEvent} com os livros alterados.
+ */
+@Service
+public class AtualizacaoDownloads {
+    private static final Logger log = LoggerFactory.getLogger(AtualizacaoDownloads.class);
+    // A API devolve no máximo 32 livros por página, então esse é o limite de ids por chamada.
+    private static final int IDS_POR_CHAMADA = 32;
+    // Nome da linha desta tarefa na tabela sincronizacoes.
+    private static final String TAREFA = "downloads";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final ConsumoApi consumo;
+    private final ConverteDados conversor = new ConverteDados();
+    private final ApplicationEventPublisher eventos;
+    private final String enderecoBase;
+    private final int maxLivros;
+    private final Duration duracaoMaxima;
+    private final int concorrencia;
+    private final ScheduledExecutorService agendador;
+
+    /**
+     * @param intervalo Intervalo entre as execuções agendadas (zero desliga o agendamento).
+     * @param maxLivros Número máximo de livros verificados por execução.
+     * @param duracaoMaxima Tempo máximo de uma execução; a janela em andamento é concluída.
+     * @param concorrencia Número de chamadas simultâneas à API.
+     */
+    public AtualizacaoDownloads(JdbcTemplate jdbc, TransactionTemplate transacao, ConsumoApi consumo,
+                                ApplicationEventPublisher eventos,
+                                @Value("${literalura.gutendex.endereco:https://gutendex.com/books/}") String enderecoBase,
+                                @Value("${literalura.downloads.intervalo:0s}") Duration intervalo,
+                                @Value("${literalura.downloads.max-livros:5000}") int maxLivros,
+                                @Value("${literalura.downloads.duracao-maxima:2m}") Duration duracaoMaxima,
+                                @Value("${literalura.downloads.concorrencia:4}") int concorrencia) {
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.consumo = consumo;
+        this.eventos = eventos;
+        this.enderecoBase = enderecoBase;
+        this.maxLivros = maxLivros;
+        this.duracaoMaxima = duracaoMaxima;
+        this.concorrencia = Math.max(1, concorrencia);
+        if (intervalo.isZero() || intervalo.isNegative()) {
+            this.agendador = null;
+        } else {
+            this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "atualizacao-downloads");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long espera = intervalo.toMillis();
+            agendador.scheduleWithFixedDelay(this::executarAgendada, espera, espera, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * Executa uma atualização com os limites configurados.
+     */
+    public RelatorioAtualizacao executar() {
+        return executar(maxLivros, duracaoMaxima);
+    }
+
+    /**
+     * Verifica os próximos livros a partir da marca d'água e grava os números de downloads que mudaram.
+     * Execuções simultâneas (ex: a agendada e uma pedida pela linha de comando) rodam uma depois da outra.
+     *
+     * @param limiteLivros Número máximo de livros verificados.
+     * @param prazo Tempo máximo da execução; a janela em andamento é concluída.
+     * @return O relatório da execução.
+     */
+    public synchronized RelatorioAtualizacao executar(int limiteLivros, Duration prazo) {
+        long inicio = System.nanoTime();
+        long fim = inicio + prazo.toNanos();
+        long marca = lerMarca();
+        int verificados = 0;
+        int alterados = 0;
+        int chamadas = 0;
+        int falhas = 0;
+        boolean voltaCompleta = false;
+
+        // Cada janela tem no máximo "concorrencia" grupos, o que limita as chamadas simultâneas.
+        ExecutorService executor = Executores.paraTarefasIo("atualizacao-downloads", concorrencia);
+        try {
+            while (verificados < limiteLivros && System.nanoTime() < fim) {
+                List<LivroCadastrado> janela = proximaJanela(marca,
+                        Math.min(IDS_POR_CHAMADA * concorrencia, limiteLivros - verificados));
+                if (janela.isEmpty()) {
+                    voltaCompleta = true;
+                    break;
+                }
+
+                List<List<LivroCadastrado>> grupos = new ArrayList<>();
+                for (int i = 0; i < janela.size(); i += IDS_POR_CHAMADA) {
+                    grupos.add(janela.subList(i, Math.min(janela.size(), i + IDS_POR_CHAMADA)));
+                }
+                List<Future<Map<Integer, Integer>>> respostas = new ArrayList<>();
+                for (List<LivroCadastrado> grupo : grupos) {
+                    respostas.add(executor.submit(() -> consultar(grupo)));
+                }
+                chamadas += grupos.size();
+
+                // Os grupos são lidos em ordem de id: a marca avança só até o último grupo respondido sem lacunas.
+                Map<Long, Integer> alteracoes = new LinkedHashMap<>();
+                long novaMarca = marca;
+                int verificadosJanela = 0;
+                boolean falhou = false;
+                for (int i = 0; i < grupos.size(); i++) {
+                    Map<Integer, Integer> downloads;
+                    try {
+                        downloads = respostas.get(i).get();
+                    } catch (ExecutionException e) {
+                        falhas++;
+                        falhou = true;
+                        log.warn("Falha ao consultar os downloads a partir do livro {}: {}",
+                                grupos.get(i).get(0).id(), e.getCause().getMessage());
+                        break;
+                    }
+                    for (LivroCadastrado livro : grupos.get(i)) {
+                        Integer atual = downloads.get(livro.gutendexId());
+                        if (atual != null && !atual.equals(livro.downloadCount())) {
+                            alteracoes.put(livro.id(), atual);
+                        }
+                        novaMarca = livro.id();
+                    }
+                    verificadosJanela += grupos.get(i).size();
+                }
+
+                if (verificadosJanela > 0) {
+                    gravar(alteracoes, novaMarca, verificadosJanela);
+                }
+                marca = novaMarca;
+                verificados += verificadosJanela;
+                alterados += alteracoes.size();
+                if (falhou) {
+                    break;
+                }
+            }
+            if (voltaCompleta) {
+                jdbc.update("UPDATE sincronizacoes SET ultimo_livro_id = 0, voltas_completas = voltas_completas + 1, " +
+                        "atualizada_em = now() WHERE nome = ?", TAREFA);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new RelatorioAtualizacao(verificados, alterados, chamadas, falhas, voltaCompleta,
+                voltaCompleta ? 0 : marca, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private void executarAgendada() {
+        try {
+            RelatorioAtualizacao relatorio = executar();
+            log.info("Downloads atualizados: {} livros verificados, {} alterados, {} chamadas ({} com falha) em {} ms",
+                    relatorio.verificados(), relatorio.alterados(), relatorio.chamadas(), relatorio.falhas(),
+                    relatorio.duracao().toMillis());
+        } catch (RuntimeException e) {
+            // Uma exceção cancelaria as próximas execuções agendadas.
+            log.warn("Falha na atualização agendada dos downloads: {}", e.getMessage());
+        }
+    }
+
+    private long lerMarca() {
+        Long marca = jdbc.queryForObject("SELECT ultimo_livro_id FROM sincronizacoes WHERE nome = ?", Long.class, TAREFA);
+        return marca != null ? marca : 0;
+    }
+
+    private List<LivroCadastrado> proximaJanela(long marca, int tamanho) {
+        return jdbc.query("SELECT id, gutendex_id, download_count FROM livros " +
+                        "WHERE id > ? AND gutendex_id IS NOT NULL ORDER BY id LIMIT ?",
+                (rs, linha) -> new LivroCadastrado(rs.getLong("id"), rs.getInt("gutendex_id"),
+                        (Integer) rs.getObject("download_count")),
+                marca, tamanho);
+    }
+
+    /**
+     * Consulta um grupo de livros na API, sem passar pelo cache de respostas.
+     * @return gutendexId → número de downloads, para os livros que a API devolveu.
+     */
+    private Map<Integer, Integer> consultar(List<LivroCadastrado> grupo) throws IOException {
+        StringJoiner ids = new StringJoiner(",");
+        grupo.forEach(livro -> ids.add(String.valueOf(livro.gutendexId())));
+        Map<Integer, Integer> downloads = new HashMap<>();
+        try (InputStream corpo = consumo.obterFluxo(enderecoBase + "?ids=" + ids)) {
+            conversor.obterDadosEmFluxo(corpo, GutendexResponse.class, "results", Book.class, livro -> {
+                if (livro.getGutendexId() != null && livro.getDownloadCount() != null) {
+                    downloads.put(livro.getGutendexId(), livro.getDownloadCount());
+                }
+            });
+        }
+        return downloads;
+    }
+
+    /**
+     * Grava os downloads alterados de uma janela e avança a marca d'água na mesma transação.
+     * O evento é entregue aos ouvintes depois do commit.
+     */
+    private void gravar(Map<Long, Integer> alteracoes, long marca, int verificados) {
+        transacao.executeWithoutResult(status -> {
+            if (!alteracoes.isEmpty()) {
+                jdbc.update("UPDATE livros l SET download_count = v.downloads " +
+                                "FROM unnest(?::bigint[], ?::int[]) AS v(id, downloads) WHERE l.id = v.id",
+                        alteracoes.keySet().toArray(Long[]::new), alteracoes.values().toArray(Integer[]::new));
+                eventos.publishEvent(new DownloadsAtualizadosEvent(Map.copyOf(alteracoes)));
+            }
+            jdbc.update("UPDATE sincronizacoes SET ultimo_livro_id = ?, livros_verificados = livros_verificados + ?, " +
+                    "livros_alterados = livros_alterados + ?, atualizada_em = now() WHERE nome = ?",
+                    marca, verificados, alteracoes.size(), TAREFA);
+        });
+    }
+
+    private record LivroCadastrado(long id, Integer gutendexId, Integer downloadCount) {}
+
+    /**
+     * Relatório de uma execução.
+     * @param verificados Livros consultados na API.
+     * @param alterados Livros cujo número de downloads mudou e foi gravado.
+     * @param chamadas Chamadas feitas à API.
+     * @param falhas Chamadas que falharam (a execução termina na primeira).
+     * @param voltaCompleta true se a execução chegou ao fim do catálogo (a próxima recomeça do início).
+     * @param marca Id do último livro verificado, de onde a próxima execução continua.
+     * @param duracao Tempo total da execução.
+     */
+    public record RelatorioAtualizacao(int verificados, int alterados, int chamadas, int falhas,
+                                       boolean voltaCompleta, long marca, Duration duracao) {}
+}
@@ -0,0 +1,171 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache de "internação" de autores usado pela ingestão: cada nome normalizado (ver
+ * {@link NormalizadorTexto#chave(String)}) corresponde a uma única instância de {@link Author}, já com o id do banco.
+ * <p>
+ * Autores repetidos em uma coleta (o mesmo autor em muitas páginas) são resolvidos em memória; apenas os que
+ * ainda não estão no cache vão ao banco, em um upsert de várias linhas sobre a chave única autores.normalized_name.
+ * Autores gravados dentro de uma transação só entram no cache depois do commit, para que um lote desfeito
+ * não deixe ids inexistentes no cache.
+ * <p>
+ * Métrica: literalura.autores.cache (tag resultado = acerto | falta).
+ */
+@Component
+public class CacheAutores {
+    // Limite de linhas por instrução, para ficar bem abaixo do máximo de parâmetros do PostgreSQL.
+    private static final int LINHAS_POR_INSTRUCAO = 500;
+    // Acima deste tamanho o cache é esvaziado e volta a ser preenchido pelos próximos lotes.
+    private static final int MAX_AUTORES = 200_000;
+
+    private final JdbcTemplate jdbc;
+    private final ConcurrentMap<String, Author> autores = new ConcurrentHashMap<>();
+    private final int maxAutores;
+    private final Counter acertos;
+    private final Counter faltas;
+
+    @Autowired
+    public CacheAutores(JdbcTemplate jdbc, MeterRegistry metricas) {
+        this(jdbc, metricas, MAX_AUTORES);
+    }
+
+    /**
+     * @param maxAutores Tamanho acima do qual o cache é esvaziado.
+     */
+    CacheAutores(JdbcTemplate jdbc, MeterRegistry metricas, int maxAutores) {
+        this.jdbc = jdbc;
+        this.maxAutores = maxAutores;
+        this.acertos = resultado(metricas, "acerto");
+        this.faltas = resultado(metricas, "falta");
+    }
+
+    private static Counter resultado(MeterRegistry metricas, String resultado) {
+        return Counter.builder("literalura.autores.cache")
+                .description("Autores resolvidos pela ingestão, no cache ou no banco")
+                .tag("resultado", resultado)
+                .register(metricas);
+    }
+
+    /**
+     * Resolve os autores recebidos: devolve, para cada nome normalizado, a instância única com o id do banco,
+     * inserindo os autores que ainda não existem.
+     *
+     * @param recebidos Autores vindos da API (podem se repetir; autores sem nome são ignorados).
+     * @return Nome normalizado → autor com id, na ordem em que apareceram.
+     */
+    public Map<String, Author> resolver(Collection<Author> recebidos) {
+        Map<String, Author> resolvidos = new LinkedHashMap<>();
+        Map<String, Author> novos = new LinkedHashMap<>();
+        for (Author autor : recebidos) {
+            if (autor == null || autor.getName() == null) {
+                continue;
+            }
+            String chave = NormalizadorTexto.chave(autor.getName());
+            if (resolvidos.containsKey(chave) || novos.containsKey(chave)) {
+                continue;
+            }
+            Author conhecido = autores.get(chave);
+            if (conhecido != null) {
+                resolvidos.put(chave, conhecido);
+            } else {
+                novos.put(chave, autor);
+            }
+        }
+        acertos.increment(resolvidos.size());
+        faltas.increment(novos.size());
+        if (novos.isEmpty()) {
+            return resolvidos;
+        }
+
+        Map<String, Author> gravados = gravar(novos);
+        resolvidos.putAll(gravados);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    internar(gravados);
+                }
+            });
+        } else {
+            internar(gravados);
+        }
+        return resolvidos;
+    }
+
+    /**
+     * Número de autores no cache.
+     */
+    public int tamanho() {
+        return autores.size();
+    }
+
+    /**
+     * Descarta todos os autores do cache (ex: depois de apagar a tabela de autores).
+     */
+    public void esvaziar() {
+        autores.clear();
+    }
+
+    /**
+     * Insere os autores que ainda não existem e obtém o id de todos, novos ou já cadastrados.
+     * O "DO UPDATE" sem efeito prático faz o RETURNING devolver também as linhas que já existiam.
+     */
+    private Map<String, Author> gravar(Map<String, Author> novos) {
+        Map<String, Long> idsPorChave = new HashMap<>();
+        List<Map.Entry<String, Author>> lista = new ArrayList<>(novos.entrySet());
+        for (int inicio = 0; inicio < lista.size(); inicio += LINHAS_POR_INSTRUCAO) {
+            List<Map.Entry<String, Author>> parte = lista.subList(inicio, Math.min(lista.size(), inicio + LINHAS_POR_INSTRUCAO));
+            List<Object> parametros = new ArrayList<>();
+            for (Map.Entry<String, Author> entrada : parte) {
+                Author autor = entrada.getValue();
+                parametros.add(new SqlParameterValue(Types.VARCHAR, autor.getName()));
+                parametros.add(new SqlParameterValue(Types.VARCHAR, entrada.getKey()));
+                parametros.add(new SqlParameterValue(Types.INTEGER, autor.getBirthYear()));
+                parametros.add(new SqlParameterValue(Types.INTEGER, autor.getDeathYear()));
+            }
+            String sql = "INSERT INTO autores (name, normalized_name, birth_year, death_year) VALUES " +
+                    String.join(", ", Collections.nCopies(parte.size(), "(?, ?, ?, ?)")) +
+                    " ON CONFLICT (normalized_name) DO UPDATE SET normalized_name = EXCLUDED.normalized_name" +
+                    " RETURNING id, normalized_name";
+            jdbc.query(sql, rs -> {
+                idsPorChave.put(rs.getString("normalized_name"), rs.getLong("id"));
+            }, parametros.toArray());
+        }
+
+        Map<String, Author> gravados = new LinkedHashMap<>();
+        novos.forEach((chave, autor) -> {
+            autor.setId(idsPorChave.get(chave));
+            gravados.put(chave, autor);
+        });
+        return gravados;
+    }
+
+    private void internar(Map<String, Author> gravados) {
+        if (autores.size() + gravados.size() > maxAutores) {
+            autores.clear();
+        }
+        // putIfAbsent: se outra thread internou o mesmo autor antes, a instância dela é mantida (o id é o mesmo).
+        gravados.forEach(autores::putIfAbsent);
+    }
+}
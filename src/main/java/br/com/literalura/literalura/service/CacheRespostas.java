@@ -0,0 +1,331 @@
+package br.com.literalura.literalura.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Cache das respostas da API Gutendex, com duas camadas:
+ * - memória: um mapa LRU (os menos usados recentemente saem primeiro) limitado em número de entradas;
+ * - disco: um arquivo por URL, nomeado pelo hash SHA-256 do endereço, que sobrevive a reinícios.
+ *   Os arquivos são lidos por mapeamento em memória (FileChannel.map), sem passar por um fluxo; a URL e o
+ *   corpo são copiados do mapeamento para Strings. O diretório tem um tamanho máximo: quando as gravações
+ *   passam dele, uma limpeza apaga os arquivos expirados e, se ainda precisar, os gravados há mais tempo.
+ * As duas camadas respeitam o mesmo tempo de vida (TTL); entradas expiradas são descartadas na leitura.
+ */
+@Component
+public class CacheRespostas {
+    private static final Logger log = LoggerFactory.getLogger(CacheRespostas.class);
+    // Identifica o formato dos arquivos do cache em disco ("LTRC").
+    private static final int ASSINATURA = 0x4C545243;
+
+    private final boolean habilitado;
+    private final int maxEntradas;
+    private final long ttlMillis;
+    private final Path diretorio;
+    private final long maxBytesDisco;
+    private final LongSupplier relogio;
+    private final Map<String, Entrada> memoria;
+    // Bytes no diretório desde a última limpeza, somando as gravações; -1 até a primeira limpeza,
+    // que conta também os arquivos de execuções anteriores.
+    private long bytesEmDisco = -1;
+
+    private final AtomicLong acertosMemoria = new AtomicLong();
+    private final AtomicLong acertosDisco = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+
+    /**
+     * @param habilitado Liga ou desliga o cache (desligado, toda chamada vai à rede).
+     * @param maxEntradas Número máximo de respostas mantidas em memória.
+     * @param ttl Tempo de vida de cada resposta, em memória e em disco.
+     * @param diretorio Diretório dos arquivos do cache em disco.
+     * @param maxDisco Tamanho máximo dos arquivos do cache em disco.
+     */
+    @Autowired
+    public CacheRespostas(@Value("${literalura.cache.habilitado:true}") boolean habilitado,
+                          @Value("${literalura.cache.max-entradas:500}") int maxEntradas,
+                          @Value("${literalura.cache.ttl:1h}") Duration ttl,
+                          @Value("${literalura.cache.diretorio:.literalura/cache-http}") Path diretorio,
+                          @Value("${literalura.cache.max-disco:256MB}") DataSize maxDisco) {
+        this(habilitado, maxEntradas, ttl, diretorio, maxDisco, System::currentTimeMillis);
+    }
+
+    /**
+     * Construtor com o relógio indicado, usado nos testes do tempo de vida.
+     */
+    CacheRespostas(boolean habilitado, int maxEntradas, Duration ttl, Path diretorio, DataSize maxDisco,
+                   LongSupplier relogio) {
+        this.habilitado = habilitado;
+        this.maxEntradas = maxEntradas;
+        this.ttlMillis = ttl.toMillis();
+        this.diretorio = diretorio;
+        this.maxBytesDisco = maxDisco.toBytes();
+        this.relogio = relogio;
+        // accessOrder = true faz o LinkedHashMap manter a ordem de uso, base do descarte LRU.
+        this.memoria = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                return size() > CacheRespostas.this.maxEntradas;
+            }
+        };
+    }
+
+    /**
+     * Cria um cache desligado, usado quando o ConsumoApi é criado fora do Spring.
+     */
+    public static CacheRespostas desabilitado() {
+        return new CacheRespostas(false, 0, Duration.ZERO, Path.of("."), DataSize.ofBytes(0));
+    }
+
+    /**
+     * Procura a resposta de uma URL, primeiro em memória e depois em disco.
+     * Uma resposta encontrada em disco é promovida para a memória.
+     *
+     * @param endereco A URL consultada.
+     * @return A resposta guardada, ou vazio se não houver resposta válida.
+     */
+    public Optional<String> obter(String endereco) {
+        if (!habilitado) {
+            return Optional.empty();
+        }
+        long agora = relogio.getAsLong();
+        synchronized (memoria) {
+            Entrada entrada = memoria.get(endereco);
+            if (entrada != null && !expirada(entrada, agora)) {
+                acertosMemoria.incrementAndGet();
+                return Optional.of(entrada.corpo());
+            }
+            memoria.remove(endereco);
+        }
+
+        Entrada doDisco = lerDoDisco(endereco, agora);
+        if (doDisco != null) {
+            acertosDisco.incrementAndGet();
+            synchronized (memoria) {
+                memoria.put(endereco, doDisco);
+            }
+            return Optional.of(doDisco.corpo());
+        }
+        faltas.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Guarda a resposta de uma URL nas duas camadas.
+     * Falhas de escrita em disco não interrompem a aplicação: a resposta continua em memória.
+     */
+    public void guardar(String endereco, String corpo) {
+        if (!habilitado) {
+            return;
+        }
+        Entrada entrada = new Entrada(corpo, relogio.getAsLong());
+        synchronized (memoria) {
+            memoria.put(endereco, entrada);
+        }
+        try {
+            gravarNoDisco(endereco, entrada);
+        } catch (IOException e) {
+            log.warn("Não foi possível gravar o cache em disco: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Contadores de acertos e faltas desde o início da aplicação.
+     */
+    public Estatisticas estatisticas() {
+        int tamanho;
+        synchronized (memoria) {
+            tamanho = memoria.size();
+        }
+        return new Estatisticas(acertosMemoria.get(), acertosDisco.get(), faltas.get(), tamanho);
+    }
+
+    private boolean expirada(Entrada entrada, long agora) {
+        return agora - entrada.gravadoEm() > ttlMillis;
+    }
+
+    /**
+     * Lê um arquivo do cache. Formato: assinatura (int), momento da gravação (long),
+     * URL (int + bytes UTF-8) e corpo (int + bytes UTF-8). A URL gravada é comparada com a pedida
+     * para descartar colisões de hash.
+     */
+    private Entrada lerDoDisco(String endereco, long agora) {
+        Path arquivo = arquivoDe(endereco);
+        if (!Files.exists(arquivo)) {
+            return null;
+        }
+        Entrada entrada = null;
+        boolean expiradaEmDisco = false;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (dados.getInt() != ASSINATURA) {
+                return null;
+            }
+            long gravadoEm = dados.getLong();
+            byte[] url = new byte[dados.getInt()];
+            dados.get(url);
+            if (!endereco.equals(new String(url, StandardCharsets.UTF_8))) {
+                return null;
+            }
+            if (agora - gravadoEm > ttlMillis) {
+                expiradaEmDisco = true;
+            } else {
+                byte[] corpo = new byte[dados.getInt()];
+                dados.get(corpo);
+                entrada = new Entrada(new String(corpo, StandardCharsets.UTF_8), gravadoEm);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Arquivo truncado ou corrompido: é tratado como falta e será sobrescrito.
+            return null;
+        }
+        if (expiradaEmDisco) {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                // Será sobrescrito na próxima gravação.
+            }
+        }
+        return entrada;
+    }
+
+    /**
+     * Grava a entrada em disco e, se o diretório passar do tamanho máximo, faz a limpeza.
+     * O momento da gravação também vai para a data de modificação do arquivo, usada pela limpeza.
+     */
+    private void gravarNoDisco(String endereco, Entrada entrada) throws IOException {
+        byte[] url = endereco.getBytes(StandardCharsets.UTF_8);
+        byte[] corpo = entrada.corpo().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer dados = ByteBuffer.allocate(4 + 8 + 4 + url.length + 4 + corpo.length);
+        dados.putInt(ASSINATURA).putLong(entrada.gravadoEm())
+                .putInt(url.length).put(url)
+                .putInt(corpo.length).put(corpo)
+                .flip();
+
+        Files.createDirectories(diretorio);
+        Path arquivo = arquivoDe(endereco);
+        long tamanho = dados.remaining();
+        // Grava em um arquivo temporário e move, para que um leitor nunca veja um arquivo pela metade.
+        Path temporario = Files.createTempFile(diretorio, "entrada", ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                while (dados.hasRemaining()) {
+                    canal.write(dados);
+                }
+            }
+            Files.setLastModifiedTime(temporario, FileTime.fromMillis(entrada.gravadoEm()));
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Só resta o temporário se a escrita ou a troca falhou.
+            Files.deleteIfExists(temporario);
+        }
+
+        synchronized (this) {
+            if (bytesEmDisco >= 0) {
+                bytesEmDisco += tamanho;
+            }
+            if (bytesEmDisco < 0 || bytesEmDisco > maxBytesDisco) {
+                bytesEmDisco = limparDisco();
+            }
+        }
+    }
+
+    /**
+     * Apaga os arquivos expirados e os temporários abandonados e, se o diretório ainda passar do tamanho
+     * máximo, os arquivos gravados há mais tempo, até ficar em 90% do máximo (para não limpar a cada gravação).
+     *
+     * @return Os bytes que continuam no diretório.
+     */
+    private long limparDisco() throws IOException {
+        long agora = relogio.getAsLong();
+        List<ArquivoEmDisco> arquivos = new ArrayList<>();
+        try (Stream<Path> conteudo = Files.list(diretorio)) {
+            for (Path arquivo : conteudo.toList()) {
+                String nome = arquivo.getFileName().toString();
+                if (!nome.endsWith(".bin") && !nome.endsWith(".tmp")) {
+                    continue;
+                }
+                long gravadoEm;
+                long tamanho;
+                try {
+                    gravadoEm = Files.getLastModifiedTime(arquivo).toMillis();
+                    tamanho = Files.size(arquivo);
+                } catch (IOException e) {
+                    // Apagado por outra thread ou processo durante a listagem.
+                    continue;
+                }
+                if (agora - gravadoEm > ttlMillis) {
+                    Files.deleteIfExists(arquivo);
+                } else if (nome.endsWith(".bin")) {
+                    arquivos.add(new ArquivoEmDisco(arquivo, gravadoEm, tamanho));
+                }
+            }
+        }
+        long total = arquivos.stream().mapToLong(ArquivoEmDisco::tamanho).sum();
+        if (total > maxBytesDisco) {
+            arquivos.sort(Comparator.comparingLong(ArquivoEmDisco::gravadoEm));
+            long alvo = maxBytesDisco / 10 * 9;
+            for (ArquivoEmDisco arquivo : arquivos) {
+                if (total <= alvo) {
+                    break;
+                }
+                Files.deleteIfExists(arquivo.caminho());
+                total -= arquivo.tamanho();
+            }
+        }
+        return total;
+    }
+
+    Path arquivoDe(String endereco) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(endereco.getBytes(StandardCharsets.UTF_8));
+            return diretorio.resolve(HexFormat.of().formatHex(hash) + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entrada(String corpo, long gravadoEm) {}
+
+    private record ArquivoEmDisco(Path caminho, long gravadoEm, long tamanho) {}
+
+    /**
+     * Contadores do cache.
+     * @param acertosMemoria Respostas encontradas em memória.
+     * @param acertosDisco Respostas encontradas apenas em disco.
+     * @param faltas Consultas que precisaram ir à rede.
+     * @param entradasEmMemoria Número de respostas atualmente em memória.
+     */
+    public record Estatisticas(long acertosMemoria, long acertosDisco, long faltas, int entradasEmMemoria) {
+        public double taxaDeAcerto() {
+            long total = acertosMemoria + acertosDisco + faltas;
+            return total == 0 ? 0 : (double) (acertosMemoria + acertosDisco) / total;
+        }
+    }
+}
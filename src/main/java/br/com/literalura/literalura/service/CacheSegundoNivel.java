@@ -0,0 +1,181 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Cache de segundo nível do Hibernate para {@link Author}, {@link Book}
+ * e a lista de livros de cada autor, mais o cache de consultas usado pelos métodos de repositório
+ * marcados como "cacheable". O provedor é o Caffeine (JCache), em memória, com um limite de entradas
+ * e um tempo de vida por região.
+ * <p>
+ * A ingestão grava por JDBC, sem passar pelo Hibernate, que por isso não sabe que as tabelas mudaram.
+ * A cada lote ingerido, depois do commit, os resultados de consultas em cache são descartados, junto
+ * com a lista de livros dos autores do lote. Os livros e autores já em cache não mudam com a ingestão.
+ * Quando a {@link AtualizacaoDownloads} altera o número de downloads, os livros alterados também são descartados.
+ * <p>
+ * As taxas de acerto aparecem nas métricas hibernate.second.level.cache.requests (por região) e
+ * hibernate.cache.query.requests, publicadas a partir das estatísticas do Hibernate.
+ */
+@Component
+public class CacheSegundoNivel implements HibernatePropertiesCustomizer {
+    public static final String REGIAO_LIVROS = "livros";
+    public static final String REGIAO_AUTORES = "autores";
+    public static final String REGIAO_LIVROS_DO_AUTOR = "autores.livros";
+
+    private static final String PAPEL_LIVROS_DO_AUTOR = Author.class.getName() + ".books";
+
+    private final boolean habilitado;
+    private final ObjectProvider<EntityManagerFactory> fabricas;
+    private final CacheManager gerenciador;
+
+    /**
+     * @param habilitado Liga ou desliga o cache (desligado, toda consulta vai ao banco).
+     * @param maxEntidades Número máximo de entradas em cada região de entidades e coleções.
+     * @param maxConsultas Número máximo de resultados de consultas guardados.
+     * @param ttl Tempo de vida de cada entrada.
+     * @param fabricas Fonte do EntityManagerFactory, obtido só quando necessário (ele depende deste bean).
+     */
+    public CacheSegundoNivel(@Value("${literalura.cache-entidades.habilitado:true}") boolean habilitado,
+                             @Value("${literalura.cache-entidades.max-entidades:20000}") long maxEntidades,
+                             @Value("${literalura.cache-entidades.max-consultas:1000}") long maxConsultas,
+                             @Value("${literalura.cache-entidades.ttl:30m}") Duration ttl,
+                             ObjectProvider<EntityManagerFactory> fabricas) {
+        this.habilitado = habilitado;
+        this.fabricas = fabricas;
+        if (!habilitado) {
+            this.gerenciador = null;
+            return;
+        }
+        this.gerenciador = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        criarRegiao(REGIAO_LIVROS, maxEntidades, ttl);
+        criarRegiao(REGIAO_AUTORES, maxEntidades, ttl);
+        criarRegiao(REGIAO_LIVROS_DO_AUTOR, maxEntidades, ttl);
+        criarRegiao(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, maxConsultas, ttl);
+        // Os horários de atualização de cada tabela não podem expirar antes dos resultados que eles validam.
+        criarRegiao(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 0, null);
+    }
+
+    @Override
+    public void customize(Map<String, Object> propriedades) {
+        propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, habilitado);
+        propriedades.put(AvailableSettings.USE_QUERY_CACHE, habilitado);
+        if (!habilitado) {
+            return;
+        }
+        propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+        propriedades.put(ConfigSettings.CACHE_MANAGER, gerenciador);
+        // Todas as regiões são criadas acima, com limite; uma região não prevista é um erro de configuração.
+        propriedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        // Necessário para as métricas de acertos e faltas.
+        propriedades.put(AvailableSettings.GENERATE_STATISTICS, true);
+        // Com as estatísticas ligadas, o Hibernate também registraria um bloco "Session Metrics" em INFO ao
+        // fim de cada sessão, misturado ao menu do console; os números já aparecem no painel de métricas.
+        propriedades.put(AvailableSettings.LOG_SESSION_METRICS, false);
+    }
+
+    /**
+     * Descarta os resultados de consultas e a lista de livros dos autores de um lote recém-gravado.
+     * Só é executado depois do commit, para que uma consulta feita no meio não guarde o estado antigo de novo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoIngerirLivros(LivrosIngeridosEvent evento) {
+        Cache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        cache.evictQueryRegions();
+        for (Author autor : evento.autores()) {
+            if (autor.getId() != null) {
+                cache.evictCollectionData(PAPEL_LIVROS_DO_AUTOR, autor.getId());
+            }
+        }
+    }
+
+    /**
+     * Descarta os livros cujo número de downloads mudou e os resultados de consultas (estatísticas, listagens).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAtualizarDownloads(DownloadsAtualizadosEvent evento) {
+        Cache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        cache.evictQueryRegions();
+        evento.downloadsPorLivro().keySet().forEach(id -> cache.evictEntityData(Book.class, id));
+    }
+
+    /**
+     * Descarta os livros indicados (ex: depois de o {@link ArmazemConteudo} gravar as contagens do texto),
+     * junto com os resultados de consultas.
+     */
+    public void descartarLivros(Collection<Long> ids) {
+        Cache cache = cache();
+        if (cache == null || ids.isEmpty()) {
+            return;
+        }
+        cache.evictQueryRegions();
+        ids.forEach(id -> cache.evictEntityData(Book.class, id));
+    }
+
+    /**
+     * Descarta todo o conteúdo do cache (ex: depois de alterar as tabelas fora do Hibernate).
+     */
+    public void esvaziar() {
+        Cache cache = cache();
+        if (cache != null) {
+            cache.evictAllRegions();
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (gerenciador != null) {
+            gerenciador.close();
+        }
+    }
+
+    private Cache cache() {
+        if (!habilitado) {
+            return null;
+        }
+        EntityManagerFactory fabrica = fabricas.getIfAvailable();
+        return fabrica != null ? fabrica.unwrap(SessionFactory.class).getCache() : null;
+    }
+
+    private void criarRegiao(String nome, long maximo, Duration ttl) {
+        if (gerenciador.getCache(nome) != null) {
+            // O gerenciador do Caffeine é compartilhado na JVM (ex: vários contextos nos testes).
+            gerenciador.destroyCache(nome);
+        }
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        if (maximo > 0) {
+            configuracao.setMaximumSize(OptionalLong.of(maximo));
+        }
+        if (ttl != null) {
+            configuracao.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        gerenciador.createCache(nome, configuracao);
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.literalura.literalura.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Guarda em disco o progresso de uma coleta paginada, permitindo que uma coleta
+ * interrompida continue a partir da última página confirmada.
+ * Cada endereço de busca tem seu próprio arquivo, nomeado pelo hash da URL.
+ */
+public class CheckpointColeta {
+    private final Path arquivo;
+    private final String endereco;
+
+    /**
+     * @param diretorio Diretório onde os arquivos de checkpoint são mantidos.
+     * @param endereco URL inicial da coleta (identifica o checkpoint).
+     */
+    public CheckpointColeta(Path diretorio, String endereco) {
+        this.endereco = endereco;
+        this.arquivo = diretorio.resolve("coleta-" + hash(endereco) + ".properties");
+    }
+
+    /**
+     * Lê a última página confirmada para este endereço.
+     * @return O número da última página persistida sem lacunas, ou 0 se não houver checkpoint.
+     */
+    public int ultimaPaginaConfirmada() {
+        if (!Files.exists(arquivo)) {
+            return 0;
+        }
+        Properties propriedades = new Properties();
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            propriedades.load(leitor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Um checkpoint de outra URL (colisão de hash) é ignorado.
+        if (!endereco.equals(propriedades.getProperty("endereco"))) {
+            return 0;
+        }
+        return Integer.parseInt(propriedades.getProperty("ultimaPagina", "0"));
+    }
+
+    /**
+     * Registra a última página confirmada. A escrita é feita em um arquivo temporário
+     * e movida atomicamente, para que uma interrupção nunca deixe o checkpoint corrompido.
+     */
+    public void confirmar(int ultimaPagina, int totalPaginas) {
+        Properties propriedades = new Properties();
+        propriedades.setProperty("endereco", endereco);
+        propriedades.setProperty("ultimaPagina", String.valueOf(ultimaPagina));
+        propriedades.setProperty("totalPaginas", String.valueOf(totalPaginas));
+        try {
+            Files.createDirectories(arquivo.getParent());
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try (Writer escritor = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8)) {
+                propriedades.store(escritor, "Checkpoint de coleta do LiterAlura");
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove o checkpoint, usado quando a coleta termina por completo.
+     */
+    public void remover() {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(String texto) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(texto.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.GutendexResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Serviço que percorre todas as páginas de uma consulta na API Gutendex (ou o catálogo inteiro),
+ * seguindo a paginação indicada por {@link GutendexResponse#getNext()}.
+ * As páginas são buscadas em paralelo, com uma janela limitada de requisições em andamento, e convertidas
+ * em fluxo; os livros convertidos são juntados, na thread de quem chamou a coleta, em lotes que podem
+ * atravessar páginas, e cada lote cheio é entregue à persistência.
+ */
+public class ColetorCatalogo {
+    private final ConsumoApi consumo;
+    private final ConverteDados conversor;
+    private final int paginasSimultaneas;
+    private final int livrosPorLote;
+    private final Path diretorioCheckpoints;
+
+    /**
+     * @param consumo Cliente HTTP usado para buscar as páginas.
+     * @param conversor Conversor de JSON para objetos.
+     * @param paginasSimultaneas Número máximo de páginas sendo baixadas ao mesmo tempo.
+     * @param livrosPorLote Livros entregues de uma vez à persistência (cada entrega é uma transação).
+     * @param diretorioCheckpoints Diretório onde o progresso das coletas é salvo.
+     */
+    public ColetorCatalogo(ConsumoApi consumo, ConverteDados conversor, int paginasSimultaneas, int livrosPorLote,
+                           Path diretorioCheckpoints) {
+        this.consumo = consumo;
+        this.conversor = conversor;
+        this.paginasSimultaneas = Math.max(1, paginasSimultaneas);
+        this.livrosPorLote = Math.max(1, livrosPorLote);
+        this.diretorioCheckpoints = diretorioCheckpoints;
+    }
+
+    /**
+     * Coleta todas as páginas de um endereço da API.
+     * Se existir um checkpoint para o endereço, as páginas já confirmadas são puladas.
+     * Os livros chegam à persistência em lotes de {@code livrosPorLote}, montados à medida que as páginas são
+     * lidas: um lote pode juntar o fim de uma página com o começo de outras, e o último lote vem incompleto.
+     * Uma página só é confirmada depois que todos os livros dela foram gravados. As páginas podem ficar prontas
+     * fora de ordem; o checkpoint só avança até a maior página confirmada sem lacunas, então uma retomada nunca
+     * perde páginas (no máximo repete alguns livros).
+     *
+     * @param endereco URL da consulta (ex: "https://gutendex.com/books/?search=dickens").
+     * @param persistencia Recebe cada lote de livros. É sempre chamada na thread atual.
+     * @return Um resumo da coleta.
+     */
+    public ResultadoColeta coletar(String endereco, Consumer<List<Book>> persistencia) {
+        long inicio = System.nanoTime();
+        CheckpointColeta checkpoint = new CheckpointColeta(diretorioCheckpoints, endereco);
+        Lotes lotes = new Lotes(persistencia, checkpoint);
+
+        // A primeira página é sempre lida, nesta thread: ela informa o total de resultados e o tamanho da página.
+        // Se ela já foi confirmada antes, os livros dela são só contados.
+        boolean gravarPrimeira = lotes.ultimaConfirmada < 1;
+        PaginaLida primeira = buscarPagina(endereco, 1, livro -> {
+            if (gravarPrimeira) {
+                lotes.adicionar(livro);
+            }
+        });
+        int tamanhoPagina = Math.max(1, primeira.livros());
+        GutendexResponse envelope = primeira.envelope();
+        lotes.totalPaginas = envelope.getNext() == null ? 1 : (int) Math.ceil((double) envelope.getCount() / tamanhoPagina);
+        if (gravarPrimeira) {
+            lotes.terminarPagina(1);
+        }
+
+        ExecutorService executor = Executores.paraTarefasIo("coleta-gutendex", paginasSimultaneas);
+        BlockingQueue<Entrega> entregas = new LinkedBlockingQueue<>();
+        int totalPaginas = lotes.totalPaginas;
+        // A primeira página já foi lida acima, mesmo que ainda espere o lote dela ser gravado para ser confirmada.
+        int proximaPagina = Math.max(1, lotes.ultimaConfirmada) + 1;
+        int emAndamento = 0;
+        int paginasComFalha = 0;
+
+        try {
+            // Preenche a janela inicial de páginas em andamento.
+            while (emAndamento < paginasSimultaneas && proximaPagina <= totalPaginas) {
+                submeter(executor, entregas, endereco, proximaPagina++);
+                emAndamento++;
+            }
+
+            while (emAndamento > 0) {
+                Entrega entrega = entregas.take();
+                if (entrega.erro() != null) {
+                    // Uma página que falhou não é confirmada; o checkpoint para antes dela.
+                    // Os livros dela que já foram gravados são repetidos na retomada e ignorados pela ingestão.
+                    paginasComFalha++;
+                    emAndamento--;
+                    continue;
+                }
+                if (!entrega.fimDaPagina()) {
+                    lotes.adicionar(entrega.livro());
+                    continue;
+                }
+                emAndamento--;
+                lotes.terminarPagina(entrega.pagina());
+
+                // Mantém a janela cheia enquanto não houver falhas.
+                if (paginasComFalha == 0 && proximaPagina <= totalPaginas) {
+                    submeter(executor, entregas, endereco, proximaPagina++);
+                    emAndamento++;
+                }
+            }
+            // Grava o último lote, incompleto, e confirma as páginas que estavam esperando por ele.
+            lotes.gravar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        boolean completa = lotes.ultimaConfirmada >= totalPaginas;
+        if (completa) {
+            checkpoint.remover();
+        }
+        return new ResultadoColeta(lotes.paginasProcessadas, totalPaginas, lotes.livrosRecebidos, paginasComFalha,
+                completa, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Baixa uma página em outra thread e entrega os livros dela pela fila, à medida que são convertidos,
+     * seguidos de uma entrega que marca o fim da página (ou o erro que a interrompeu). Erros (ex: OutOfMemoryError)
+     * também marcam o fim, para que a coleta não fique esperando por uma página que não vai terminar.
+     */
+    private void submeter(ExecutorService executor, BlockingQueue<Entrega> entregas, String endereco, int numero) {
+        executor.execute(() -> {
+            try {
+                buscarPagina(endereco, numero, livro -> entregas.add(new Entrega(numero, livro, false, null)));
+                entregas.add(new Entrega(numero, null, true, null));
+            } catch (Throwable e) {
+                entregas.add(new Entrega(numero, null, true, e));
+                if (e instanceof Error erro) {
+                    throw erro;
+                }
+            }
+        });
+    }
+
+    /**
+     * Baixa e converte uma página em fluxo: os livros são convertidos enquanto o corpo
+     * ainda está chegando, sem montar uma String com a resposta inteira, e entregues um a um.
+     */
+    private PaginaLida buscarPagina(String endereco, int numero, Consumer<Book> livros) {
+        int[] total = {0};
+        try (InputStream corpo = consumo.obterFluxo(enderecoDaPagina(endereco, numero))) {
+            GutendexResponse pagina = conversor.obterDadosEmFluxo(corpo, GutendexResponse.class, "results", Book.class, livro -> {
+                total[0]++;
+                livros.accept(livro);
+            });
+            return new PaginaLida(pagina, total[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Monta a URL de uma página específica. A API usa o parâmetro "page", o mesmo
+     * que aparece nos links "next" e "previous" das respostas.
+     */
+    private static String enderecoDaPagina(String endereco, int numero) {
+        if (numero == 1) {
+            return endereco;
+        }
+        return endereco + (endereco.contains("?") ? "&" : "?") + "page=" + numero;
+    }
+
+    private record PaginaLida(GutendexResponse envelope, int livros) {}
+
+    /**
+     * Um livro de uma página, ou o fim dela.
+     * @param fimDaPagina A página terminou de ser lida (sem livro).
+     * @param erro O erro que interrompeu a página, se houver.
+     */
+    private record Entrega(int pagina, Book livro, boolean fimDaPagina, Throwable erro) {}
+
+    /**
+     * O lote em montagem e o progresso das páginas. Só é usado pela thread de quem chamou a coleta.
+     * As páginas lidas por inteiro esperam o lote que contém os últimos livros delas ser gravado
+     * para entrarem no checkpoint.
+     */
+    private final class Lotes {
+        private final Consumer<List<Book>> persistencia;
+        private final List<Book> lote = new ArrayList<>(livrosPorLote);
+        private final List<Integer> lidasNaoGravadas = new ArrayList<>();
+        private final TreeSet<Integer> confirmadasForaDeOrdem = new TreeSet<>();
+        private final CheckpointColeta checkpoint;
+        // Conhecido depois da primeira página, antes de qualquer página terminar.
+        private int totalPaginas;
+        private int ultimaConfirmada;
+        private int paginasProcessadas;
+        private int livrosRecebidos;
+
+        Lotes(Consumer<List<Book>> persistencia, CheckpointColeta checkpoint) {
+            this.persistencia = persistencia;
+            this.checkpoint = checkpoint;
+            this.ultimaConfirmada = checkpoint.ultimaPaginaConfirmada();
+        }
+
+        void adicionar(Book livro) {
+            lote.add(livro);
+            if (lote.size() == livrosPorLote) {
+                gravar();
+            }
+        }
+
+        void terminarPagina(int pagina) {
+            lidasNaoGravadas.add(pagina);
+            if (lote.isEmpty()) {
+                confirmarLidas();
+            }
+        }
+
+        /**
+         * Entrega o lote atual à persistência e confirma as páginas lidas por inteiro até aqui.
+         */
+        void gravar() {
+            if (!lote.isEmpty()) {
+                persistencia.accept(List.copyOf(lote));
+                livrosRecebidos += lote.size();
+                lote.clear();
+            }
+            confirmarLidas();
+        }
+
+        private void confirmarLidas() {
+            if (lidasNaoGravadas.isEmpty()) {
+                return;
+            }
+            paginasProcessadas += lidasNaoGravadas.size();
+            confirmadasForaDeOrdem.addAll(lidasNaoGravadas);
+            lidasNaoGravadas.clear();
+            // Avança o checkpoint apenas pelas páginas contíguas já persistidas por inteiro.
+            while (!confirmadasForaDeOrdem.isEmpty() && confirmadasForaDeOrdem.first() == ultimaConfirmada + 1) {
+                ultimaConfirmada = confirmadasForaDeOrdem.pollFirst();
+            }
+            checkpoint.confirmar(ultimaConfirmada, totalPaginas);
+        }
+    }
+
+    /**
+     * Resumo de uma coleta.
+     * @param paginasProcessadas Páginas persistidas nesta execução.
+     * @param totalPaginas Total de páginas da consulta.
+     * @param livrosRecebidos Livros entregues à persistência nesta execução.
+     * @param paginasComFalha Páginas que não puderam ser baixadas.
+     * @param completa Indica se todas as páginas foram confirmadas.
+     * @param duracao Tempo total da coleta.
+     */
+    public record ResultadoColeta(int paginasProcessadas, int totalPaginas, int livrosRecebidos,
+                                  int paginasComFalha, boolean completa, Duration duracao) {}
+}
@@ -1,44 +1,419 @@
 package br.com.literalura.literalura.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 /**
  * Classe de serviço responsável por consumir uma API externa.
  * Utiliza o cliente HTTP moderno do Java (java.net.http).
+ * Uma única instância de HttpClient é criada e reutilizada em todas as chamadas, o que mantém
+ * as conexões abertas (keep-alive) e evita repetir o handshake TLS a cada requisição.
+ * Todas as chamadas passam pela {@link PoliticaResiliencia} (prazo, novas tentativas, hedge e disjuntor).
+ * <p>
+ * Pedidos iguais feitos ao mesmo tempo (ex: vários trabalhadores da carga em lote buscando o mesmo título)
+ * são agrupados: enquanto uma chamada a um endereço está em andamento, quem pedir o mesmo endereço espera
+ * por ela em vez de abrir outra. Os endereços são comparados depois de normalizados (ver
+ * {@link #normalizarEndereco(String)}). Com {@link #obterConvertido}, a conversão do JSON também é feita uma
+ * única vez, e todos recebem os mesmos objetos.
+ * <p>
+ * Métricas registradas:
+ * - literalura.http.requisicao: tempo até a resposta (incluindo novas tentativas), por tipo e resultado;
+ * - literalura.http.bytes: tamanho dos corpos recebidos da rede (respostas do cache não contam);
+ * - literalura.http.agrupadas: pedidos atendidos por uma chamada (ou conversão) que já estava em andamento.
  */
+@Service
 public class ConsumoApi {
+    private final HttpClient client;
+    private final Duration timeoutRequisicao;
+    private final CacheRespostas cache;
+    private final PoliticaResiliencia politica;
+    // Executa as chamadas de obterDadosAsync, que esperam a política (novas tentativas e hedge) terminar.
+    private final ExecutorService executorAsync = Executores.paraTarefasIo("consumo-api", 8);
+    private final MeterRegistry metricas;
+    private final DistributionSummary bytesRecebidos;
+    private final Counter chamadasAgrupadas;
+    private final Counter conversoesAgrupadas;
+    // Chamadas e conversões em andamento, pelo endereço normalizado. Cada entrada sai do mapa ao terminar.
+    private final ConcurrentMap<String, CompletableFuture<String>> chamadasEmAndamento = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Object>> conversoesEmAndamento = new ConcurrentHashMap<>();
+
+    /**
+     * Cria o serviço com timeouts padrão (10s para conectar e 30s por requisição), sem cache
+     * e com a política de resiliência padrão. Útil fora do contexto do Spring.
+     * As métricas vão para o registro global do Micrometer.
+     */
+    public ConsumoApi() {
+        this(Duration.ofSeconds(10), Duration.ofSeconds(30), CacheRespostas.desabilitado(), PoliticaResiliencia.padrao(),
+                Metrics.globalRegistry);
+    }
+
+    /**
+     * Construtor usado pelo Spring, com os timeouts lidos do application.properties.
+     *
+     * @param timeoutConexao Tempo máximo para estabelecer a conexão.
+     * @param timeoutRequisicao Tempo máximo de espera pela resposta de cada requisição.
+     * @param cache Cache consultado antes de cada chamada de {@link #obterDados(String)}.
+     * @param politica Política de prazo, novas tentativas, hedge e disjuntor aplicada a cada chamada.
+     * @param metricas Registro onde são publicados os tempos e tamanhos das respostas.
+     */
+    @Autowired
+    public ConsumoApi(@Value("${literalura.http.timeout-conexao:10s}") Duration timeoutConexao,
+                      @Value("${literalura.http.timeout-requisicao:30s}") Duration timeoutRequisicao,
+                      CacheRespostas cache, PoliticaResiliencia politica, MeterRegistry metricas) {
+        this.timeoutRequisicao = timeoutRequisicao;
+        this.cache = cache;
+        this.politica = politica;
+        this.metricas = metricas;
+        this.bytesRecebidos = DistributionSummary.builder("literalura.http.bytes")
+                .description("Tamanho dos corpos de resposta recebidos da API")
+                .baseUnit("bytes")
+                .register(metricas);
+        this.chamadasAgrupadas = contadorAgrupadas("chamada", metricas);
+        this.conversoesAgrupadas = contadorAgrupadas("conversao", metricas);
+        // HTTP/2 permite várias requisições simultâneas na mesma conexão; se o servidor
+        // não suportar, o cliente volta automaticamente para HTTP/1.1.
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(timeoutConexao)
+                .build();
+    }
 
     /**
      * Realiza uma requisição GET para um dado endereço e retorna o corpo da resposta como uma String JSON.
+     * Respostas repetidas são servidas pelo cache, sem acesso à rede; apenas respostas
+     * bem-sucedidas (status 200) são guardadas. Pedidos simultâneos ao mesmo endereço compartilham uma única chamada.
      *
      * @param endereco A URL completa da API a ser consultada.
      * @return Uma String contendo o JSON retornado pela API.
-     * @throws RuntimeException se ocorrer um erro de I/O ou interrupção durante a chamada HTTP.
+     * @throws ApiIndisponivelException se a API não responder a tempo, falhar em todas as tentativas
+     *         ou estiver com o disjuntor aberto.
      */
     public String obterDados(String endereco) {
-        // 1. Cria um cliente HTTP com configurações padrão.
-        HttpClient client = HttpClient.newHttpClient();
+        Optional<String> emCache = cache.obter(endereco);
+        if (emCache.isPresent()) {
+            return emCache.get();
+        }
+        return umaVez(chamadasEmAndamento, normalizarEndereco(endereco), chamadasAgrupadas, () -> buscar(endereco));
+    }
+
+    /**
+     * Obtém o JSON de um endereço e o converte, como {@code conversor.obterDados(obterDados(endereco), classe)},
+     * mas agrupando também a conversão: pedidos simultâneos do mesmo endereço e tipo recebem os mesmos objetos.
+     * Por isso, quem usa este método não deve alterar os objetos recebidos de forma que atrapalhe os demais.
+     *
+     * @param endereco A URL completa da API a ser consultada.
+     * @param classe O tipo do objeto de destino.
+     * @param conversor O conversor usado pela chamada que de fato faz a conversão.
+     * @return O objeto convertido.
+     * @throws ApiIndisponivelException nos mesmos casos de {@link #obterDados(String)}.
+     */
+    public <T> T obterConvertido(String endereco, Class<T> classe, IConverteDados conversor) {
+        String chave = normalizarEndereco(endereco) + " " + classe.getName();
+        return classe.cast(umaVez(conversoesEmAndamento, chave, conversoesAgrupadas,
+                () -> conversor.obterDados(obterDados(endereco), classe)));
+    }
 
-        // 2. Constrói uma requisição HTTP para o URI fornecido.
-        HttpRequest request = HttpRequest.newBuilder()
+    /**
+     * Versão assíncrona de {@link #obterDados(String)}, com o mesmo cache. A requisição é enviada sem bloquear
+     * a thread atual, permitindo disparar várias chamadas ao mesmo tempo.
+     *
+     * @param endereco A URL completa da API a ser consultada.
+     * @return Um CompletableFuture que será completado com o JSON retornado pela API.
+     */
+    public CompletableFuture<String> obterDadosAsync(String endereco) {
+        Optional<String> emCache = cache.obter(endereco);
+        if (emCache.isPresent()) {
+            return CompletableFuture.completedFuture(emCache.get());
+        }
+        CompletableFuture<String> emAndamento = chamadasEmAndamento.get(normalizarEndereco(endereco));
+        if (emAndamento != null) {
+            chamadasAgrupadas.increment();
+            // Uma cópia, para que quem recebe não possa completar ou cancelar a chamada dos outros.
+            return emAndamento.copy();
+        }
+        return CompletableFuture.supplyAsync(() -> obterDados(endereco), executorAsync);
+    }
+
+    /**
+     * Realiza uma requisição GET e retorna o corpo da resposta como um fluxo de bytes,
+     * sem esperar o download terminar nem montar uma String com o conteúdo inteiro.
+     * Não passa pelo cache: é usado nas coletas em massa, em que cada página é lida uma única vez.
+     * Quem chama deve fechar o fluxo (de preferência com try-with-resources).
+     * Não usa hedge: uma resposta em fluxo duplicada ocuparia uma conexão até ser descartada.
+     * O tempo medido vai até a chegada dos cabeçalhos; a leitura do corpo entra no tempo de conversão,
+     * e os bytes são contados quando o fluxo é fechado.
+     *
+     * @param endereco A URL completa da API a ser consultada.
+     * @return Um InputStream com o corpo da resposta, lido à medida que chega pela rede.
+     * @throws ApiIndisponivelException se a API não responder a tempo, falhar em todas as tentativas,
+     *         estiver com o disjuntor aberto ou responder com um status diferente de 200. Quem lê o fluxo
+     *         espera uma página de resultados; o corpo de um erro seria lido como uma página vazia.
+     */
+    public InputStream obterFluxo(String endereco) {
+        Timer.Sample amostra = Timer.start(metricas);
+        HttpResponse<InputStream> response;
+        try {
+            response = politica.executar(
+                    () -> client.sendAsync(criarRequisicao(endereco), HttpResponse.BodyHandlers.ofInputStream()), false);
+        } catch (RuntimeException e) {
+            amostra.stop(timerRequisicao("fluxo", "falha"));
+            throw e;
+        }
+        if (response.statusCode() != 200) {
+            amostra.stop(timerRequisicao("fluxo", "falha"));
+            try {
+                // Descarta o corpo do erro e libera a conexão.
+                response.body().close();
+            } catch (IOException e) {
+                // A resposta já é uma falha; o erro ao fechar não muda nada.
+            }
+            throw new ApiIndisponivelException("A API respondeu " + response.statusCode() + " para " + endereco);
+        }
+        amostra.stop(timerRequisicao("fluxo", "sucesso"));
+        return new FluxoContado(response.body(), bytesRecebidos);
+    }
+
+    /**
+     * Como {@link #obterFluxo(String)}, mas pede o conteúdo a partir de um byte (cabeçalho Range),
+     * para continuar um download interrompido. O servidor pode ignorar o pedido e mandar o arquivo inteiro.
+     * Não passa pelo cache nem pelo agrupamento de pedidos.
+     *
+     * @param endereco A URL do arquivo.
+     * @param inicio Primeiro byte desejado (0 pede o arquivo inteiro).
+     * @return O status, o byte em que o corpo começa (0 se o arquivo veio inteiro) e o corpo.
+     * @throws ApiIndisponivelException nos mesmos casos de {@link #obterFluxo(String)}.
+     */
+    public FluxoParcial obterFluxoAPartirDe(String endereco, long inicio) {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder()
                 .uri(URI.create(endereco))
-                .build();
+                .timeout(timeoutRequisicao)
+                .GET();
+        if (inicio > 0) {
+            requisicao.header("Range", "bytes=" + inicio + "-");
+        }
+        Timer.Sample amostra = Timer.start(metricas);
+        HttpResponse<InputStream> response;
+        try {
+            response = politica.executar(
+                    () -> client.sendAsync(requisicao.build(), HttpResponse.BodyHandlers.ofInputStream()), false);
+        } catch (RuntimeException e) {
+            amostra.stop(timerRequisicao("arquivo", "falha"));
+            throw e;
+        }
+        amostra.stop(timerRequisicao("arquivo", "sucesso"));
+        long inicioDoCorpo = response.statusCode() == 206 ? inicio : 0;
+        return new FluxoParcial(response.statusCode(), inicioDoCorpo, new FluxoContado(response.body(), bytesRecebidos));
+    }
+
+    /**
+     * Resposta de {@link #obterFluxoAPartirDe(String, long)}. Quem recebe deve fechar o corpo.
+     * @param status Status HTTP (206 quando o servidor atendeu o pedido parcial).
+     * @param inicio Posição no arquivo do primeiro byte do corpo.
+     * @param corpo O corpo da resposta.
+     */
+    public record FluxoParcial(int status, long inicio, InputStream corpo) {}
 
-        // 3. Envia a requisição e espera pela resposta.
-        HttpResponse<String> response = null;
+    /**
+     * Normaliza um endereço para que pedidos equivalentes sejam reconhecidos como iguais: esquema e host em
+     * minúsculas, sem a porta padrão, sem fragmento e com os parâmetros da consulta em ordem alfabética.
+     * Endereços que não são URIs válidas são usados como estão.
+     */
+    static String normalizarEndereco(String endereco) {
+        URI uri;
+        try {
+            uri = URI.create(endereco.strip());
+        } catch (IllegalArgumentException e) {
+            return endereco;
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return endereco;
+        }
+        String esquema = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder normalizado = new StringBuilder(esquema).append("://")
+                .append(uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : uri.getRawAuthority());
+        int porta = uri.getPort();
+        if (porta != -1 && !(porta == 80 && esquema.equals("http")) && !(porta == 443 && esquema.equals("https"))) {
+            normalizado.append(':').append(porta);
+        }
+        String caminho = uri.getRawPath();
+        normalizado.append(caminho == null || caminho.isEmpty() ? "/" : caminho);
+        String consulta = uri.getRawQuery();
+        if (consulta != null && !consulta.isEmpty()) {
+            String[] parametros = Arrays.stream(consulta.split("&")).filter(p -> !p.isEmpty()).sorted().toArray(String[]::new);
+            if (parametros.length > 0) {
+                normalizado.append('?').append(String.join("&", parametros));
+            }
+        }
+        return normalizado.toString();
+    }
+
+    /**
+     * Executa a tarefa uma única vez para cada chave entre os pedidos simultâneos: o primeiro executa,
+     * os que chegam enquanto ele não terminou esperam pelo mesmo resultado (ou pela mesma exceção).
+     * Erros (ex: OutOfMemoryError) também completam o resultado compartilhado, para que ninguém fique esperando.
+     */
+    private static <T> T umaVez(ConcurrentMap<String, CompletableFuture<T>> emAndamento, String chave,
+                                Counter agrupadas, Supplier<? extends T> tarefa) {
+        CompletableFuture<T> nova = new CompletableFuture<>();
+        CompletableFuture<T> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            agrupadas.increment();
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error erro) {
+                    throw erro;
+                }
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
         try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        } catch (IOException | InterruptedException e) {
-            // Lança uma exceção de runtime para evitar o tratamento de exceções checadas em toda a aplicação.
-            throw new RuntimeException(e);
+            T resultado = tarefa.get();
+            nova.complete(resultado);
+            return resultado;
+        } catch (Throwable e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, nova);
         }
+    }
+
+    /**
+     * Faz a chamada de fato, sem agrupamento, e guarda a resposta no cache.
+     */
+    private String buscar(String endereco) {
+        Timer.Sample amostra = Timer.start(metricas);
+        HttpResponse<String> response;
+        try {
+            response = politica.executar(
+                    () -> client.sendAsync(criarRequisicao(endereco), HttpResponse.BodyHandlers.ofString()), true);
+        } catch (RuntimeException e) {
+            amostra.stop(timerRequisicao("texto", "falha"));
+            throw e;
+        }
+        amostra.stop(timerRequisicao("texto", "sucesso"));
+        bytesRecebidos.record(bytesUtf8(response.body()));
+        if (response.statusCode() == 200) {
+            cache.guardar(endereco, response.body());
+        }
+        return response.body();
+    }
+
+    private static Counter contadorAgrupadas(String tipo, MeterRegistry metricas) {
+        return Counter.builder("literalura.http.agrupadas")
+                .description("Pedidos atendidos por uma chamada ou conversão igual que já estava em andamento")
+                .tag("tipo", tipo)
+                .register(metricas);
+    }
 
-        // 4. Retorna o corpo da resposta.
-        String json = response.body();
-        return json;
+    /**
+     * Contadores da política de resiliência (novas tentativas, hedges e disjuntor).
+     */
+    public PoliticaResiliencia.Estatisticas estatisticasResiliencia() {
+        return politica.estatisticas();
+    }
+
+    private Timer timerRequisicao(String tipo, String resultado) {
+        return Timer.builder("literalura.http.requisicao")
+                .description("Tempo das chamadas à API, incluindo novas tentativas")
+                .tag("tipo", tipo)
+                .tag("resultado", resultado)
+                .register(metricas);
+    }
+
+    /**
+     * Conta os bytes de uma String em UTF-8 sem criar um array com a codificação.
+     */
+    private static long bytesUtf8(String texto) {
+        long bytes = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Fluxo que conta os bytes lidos e os registra na métrica quando é fechado.
+     */
+    private static final class FluxoContado extends FilterInputStream {
+        private final DistributionSummary bytesRecebidos;
+        private long lidos;
+        private boolean fechado;
+
+        FluxoContado(InputStream origem, DistributionSummary bytesRecebidos) {
+            super(origem);
+            this.bytesRecebidos = bytesRecebidos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                lidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) throws IOException {
+            int n = super.read(destino, inicio, tamanho);
+            if (n > 0) {
+                lidos += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!fechado) {
+                fechado = true;
+                bytesRecebidos.record(lidos);
+            }
+            super.close();
+        }
+    }
+
+    private HttpRequest criarRequisicao(String endereco) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(endereco))
+                .timeout(timeoutRequisicao)
+                .GET()
+                .build();
     }
-}
\ No newline at end of file
+}
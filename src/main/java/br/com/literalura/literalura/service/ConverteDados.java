@@ -1,15 +1,44 @@
 package br.com.literalura.literalura.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
 
 /**
  * Implementação da interface IConverteDados que utiliza a biblioteca Jackson
  * para realizar a conversão de JSON para objetos Java.
+ * O tempo de cada conversão é registrado na métrica literalura.json.conversao, por forma (texto ou fluxo)
+ * e tipo de destino.
  */
 public class ConverteDados implements IConverteDados {
     // ObjectMapper é a classe principal do Jackson para ler e escrever JSON.
     private final ObjectMapper mapper = new ObjectMapper();
+    private final MeterRegistry metricas;
+
+    /**
+     * Cria o conversor publicando as métricas no registro global do Micrometer.
+     */
+    public ConverteDados() {
+        this(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param metricas Registro onde são publicados os tempos de conversão.
+     */
+    public ConverteDados(MeterRegistry metricas) {
+        this.metricas = metricas;
+    }
 
     /**
      * Converte uma String JSON em um objeto do tipo especificado.
@@ -21,10 +50,64 @@ public class ConverteDados implements IConverteDados {
      */
     @Override
     public <T> T obterDados(String json, Class<T> classe) {
+        Timer.Sample amostra = Timer.start(metricas);
         try {
             return mapper.readValue(json, classe);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
+        } finally {
+            amostra.stop(timer("texto", classe));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lê o JSON token a token com o JsonParser do Jackson. Apenas um item da lista fica
+     * em memória por vez, e a conversão começa antes de o fluxo ter sido lido por completo.
+     * O fluxo não é fechado por este método; isso fica a cargo de quem o abriu.
+     * O tempo medido inclui a espera pelos bytes que ainda estão chegando pela rede.
+     *
+     * @throws RuntimeException se ocorrer um erro de leitura ou se o JSON não for um objeto.
+     */
+    @Override
+    public <E, T> E obterDadosEmFluxo(InputStream json, Class<E> classeEnvelope, String campoLista,
+                                      Class<T> classeItem, Consumer<T> consumidor) {
+        Timer.Sample amostra = Timer.start(metricas);
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            // Sem isso, fechar o parser fecharia também o fluxo de quem chamou.
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("O JSON recebido não é um objeto.");
+            }
+
+            ObjectNode envelope = mapper.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+
+                if (campo.equals(campoLista) && valor == JsonToken.START_ARRAY) {
+                    // Converte cada elemento da lista assim que ele termina de ser lido.
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        consumidor.accept(mapper.readValue(parser, classeItem));
+                    }
+                } else {
+                    // Campos pequenos do envelope (count, next, previous) são guardados como árvore.
+                    JsonNode no = mapper.readTree(parser);
+                    envelope.set(campo, no != null ? no : NullNode.getInstance());
+                }
+            }
+            return mapper.treeToValue(envelope, classeEnvelope);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            amostra.stop(timer("fluxo", classeEnvelope));
+        }
+    }
+
+    private Timer timer(String forma, Class<?> classe) {
+        return Timer.builder("literalura.json.conversao")
+                .description("Tempo de conversão de JSON em objetos")
+                .tag("forma", forma)
+                .tag("tipo", classe.getSimpleName())
+                .register(metricas);
+    }
+}
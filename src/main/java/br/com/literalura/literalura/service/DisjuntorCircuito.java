@@ -0,0 +1,100 @@
+package br.com.literalura.literalura.service;
+
+import java.time.Duration;
+
+/**
+ * Disjuntor (circuit breaker) que protege a aplicação de uma API fora do ar.
+ * Depois de um número de falhas seguidas, o disjuntor "abre" e as chamadas falham imediatamente,
+ * sem ir à rede, durante um tempo de espera. Passado esse tempo, uma única chamada de teste é liberada
+ * (estado meio aberto): se ela funcionar, o disjuntor fecha; se falhar, abre de novo.
+ */
+public class DisjuntorCircuito {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    private final int limiteFalhas;
+    private final long tempoAbertoNanos;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long abertoEm;
+    private boolean testeEmAndamento;
+    private long aberturas;
+
+    /**
+     * @param limiteFalhas Falhas seguidas que abrem o disjuntor.
+     * @param tempoAberto Tempo que o disjuntor fica aberto antes de liberar uma chamada de teste.
+     */
+    public DisjuntorCircuito(int limiteFalhas, Duration tempoAberto) {
+        this.limiteFalhas = Math.max(1, limiteFalhas);
+        this.tempoAbertoNanos = tempoAberto.toNanos();
+    }
+
+    /**
+     * Verifica se uma chamada pode ser feita agora.
+     * @return true se a chamada é a chamada de teste do estado meio aberto. Ela precisa terminar em
+     *         {@link #registrarSucesso()}, {@link #registrarFalha()} ou {@link #liberarTeste()}.
+     * @throws ApiIndisponivelException se o disjuntor estiver aberto.
+     */
+    public synchronized boolean verificar() {
+        if (estado == Estado.ABERTO && System.nanoTime() - abertoEm >= tempoAbertoNanos) {
+            estado = Estado.MEIO_ABERTO;
+            testeEmAndamento = false;
+        }
+        if (estado == Estado.ABERTO || (estado == Estado.MEIO_ABERTO && testeEmAndamento)) {
+            throw new ApiIndisponivelException("A API está indisponível (disjuntor aberto após " +
+                    limiteFalhas + " falhas seguidas). Tente novamente em instantes.");
+        }
+        if (estado == Estado.MEIO_ABERTO) {
+            testeEmAndamento = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Libera a vaga da chamada de teste que terminou sem resposta da API (ex: interrompida),
+     * para que a próxima chamada seja o novo teste. O disjuntor continua meio aberto.
+     */
+    public synchronized void liberarTeste() {
+        if (estado == Estado.MEIO_ABERTO) {
+            testeEmAndamento = false;
+        }
+    }
+
+    /**
+     * Registra uma chamada bem-sucedida, fechando o disjuntor.
+     */
+    public synchronized void registrarSucesso() {
+        falhasSeguidas = 0;
+        estado = Estado.FECHADO;
+        testeEmAndamento = false;
+    }
+
+    /**
+     * Registra uma falha. Abre o disjuntor ao atingir o limite, ou imediatamente se a falha
+     * foi da chamada de teste do estado meio aberto.
+     */
+    public synchronized void registrarFalha() {
+        falhasSeguidas++;
+        if (estado == Estado.MEIO_ABERTO || falhasSeguidas >= limiteFalhas) {
+            if (estado != Estado.ABERTO) {
+                aberturas++;
+            }
+            estado = Estado.ABERTO;
+            abertoEm = System.nanoTime();
+            testeEmAndamento = false;
+        }
+    }
+
+    public synchronized Estado estado() {
+        return estado;
+    }
+
+    /**
+     * Quantas vezes o disjuntor abriu desde o início da aplicação.
+     */
+    public synchronized long aberturas() {
+        return aberturas;
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.literalura.literalura.service;
+
+import java.util.Map;
+
+/**
+ * Evento publicado pela {@link AtualizacaoDownloads} depois que o número de downloads de livros
+ * já cadastrados é atualizado no banco. Permite que estruturas mantidas em memória (índices, rankings,
+ * caches) troquem apenas os valores alterados.
+ *
+ * @param downloadsPorLivro Id do livro → novo número de downloads. Contém só os livros que mudaram.
+ */
+public record DownloadsAtualizadosEvent(Map<Long, Integer> downloadsPorLivro) {}
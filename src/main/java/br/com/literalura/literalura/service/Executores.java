@@ -0,0 +1,45 @@
+package br.com.literalura.literalura.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe utilitária para criar os executores usados nas tarefas de I/O (chamadas HTTP, coletas).
+ * Quando a JVM suporta threads virtuais (Java 21+), elas são usadas; caso contrário
+ * (o projeto compila para Java 17), cai para um pool fixo de threads de plataforma.
+ */
+public final class Executores {
+
+    private Executores() {}
+
+    /**
+     * Cria um executor para tarefas bloqueantes de I/O.
+     * O limite de tarefas simultâneas deve ser controlado por quem submete as tarefas
+     * (ex: uma janela de páginas em andamento), pois threads virtuais não têm limite próprio.
+     *
+     * @param nome Prefixo do nome das threads, útil para diagnóstico.
+     * @param threadsPlataforma Tamanho do pool usado quando threads virtuais não estão disponíveis.
+     * @return Um ExecutorService pronto para uso. Deve ser encerrado por quem o criou.
+     */
+    public static ExecutorService paraTarefasIo(String nome, int threadsPlataforma) {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor() só existe a partir do Java 21.
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(1, threadsPlataforma), fabricaDeThreads(nome));
+        }
+    }
+
+    private static ThreadFactory fabricaDeThreads(String nome) {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, nome + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package br.com.literalura.literalura.service;
 
+import java.io.InputStream;
+import java.util.function.Consumer;
+
 /**
  * Interface que define um contrato para serviços de conversão de dados.
  * O uso de uma interface permite desacoplar a implementação (ex: Jackson) do resto do código.
@@ -13,4 +16,21 @@ public interface IConverteDados {
      * @return Uma instância de T.
      */
     <T> T obterDados(String json, Class<T> classe);
-}
\ No newline at end of file
+
+    /**
+     * Converte os dados lendo diretamente de um fluxo, sem carregar o documento inteiro na memória.
+     * Os itens da lista indicada por {@code campoLista} são convertidos e entregues um a um ao consumidor,
+     * à medida que são lidos; os demais campos formam o objeto "envelope" retornado.
+     *
+     * @param json Fluxo com os dados (ex: o corpo de uma resposta HTTP).
+     * @param classeEnvelope A classe de destino para os campos fora da lista (ex: count, next).
+     * @param campoLista Nome do campo que contém a lista de itens (ex: "results").
+     * @param classeItem A classe de destino de cada item da lista.
+     * @param consumidor Recebe cada item convertido, na ordem em que aparece.
+     * @param <E> O tipo do envelope.
+     * @param <T> O tipo de cada item.
+     * @return O envelope, com o campo da lista não preenchido.
+     */
+    <E, T> E obterDadosEmFluxo(InputStream json, Class<E> classeEnvelope, String campoLista,
+                               Class<T> classeItem, Consumer<T> consumidor);
+}
@@ -0,0 +1,256 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.AuthorLifespan;
+import br.com.literalura.literalura.repository.AuthorRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Índice em memória dos períodos de vida dos autores, para responder "quais autores estavam vivos
+ * no ano X" (ou em algum momento entre X e Y) sem consultar o banco a cada ano.
+ * <p>
+ * Usa duas estruturas complementares:
+ * - duas árvores de Fenwick (contagens acumuladas de nascimentos e de falecimentos por ano), que
+ *   respondem contagens em O(log n) e aceitam inserções incrementais;
+ * - uma árvore de intervalos centrada, que lista os autores de um período em O(log n + k).
+ *   Ela é reconstruída sob demanda, apenas quando houve inserções desde a última listagem.
+ * <p>
+ * Um autor está vivo no ano X se nasceu até X e faleceu em X ou depois (os dois anos contam). Autores sem ano
+ * de nascimento são ignorados e autores sem ano de falecimento são considerados vivos desde o nascimento.
+ * O índice é carregado do banco no primeiro uso e atualizado a cada lote ingerido.
+ */
+@Component
+public class IndiceAutoresVivos {
+    // Faixa de anos coberta pelas contagens; anos fora dela são ajustados para as extremidades.
+    private static final int ANO_MINIMO = -4000;
+    private static final int ANO_MAXIMO = 2200;
+
+    private final AuthorRepository authorRepository;
+
+    private final Set<Long> idsIndexados = new HashSet<>();
+    private final List<Intervalo> intervalos = new ArrayList<>();
+    private final long[] nascimentos = new long[ANO_MAXIMO - ANO_MINIMO + 3];
+    private final long[] falecimentos = new long[ANO_MAXIMO - ANO_MINIMO + 3];
+    private NoIntervalo raiz;
+    private boolean arvoreDesatualizada;
+    private boolean carregado;
+
+    public IndiceAutoresVivos(AuthorRepository authorRepository) {
+        this.authorRepository = authorRepository;
+    }
+
+    /**
+     * Conta os autores vivos em um ano.
+     * @param ano O ano consultado.
+     * @return O número de autores vivos no ano.
+     */
+    public synchronized int contarVivosEm(int ano) {
+        return contarVivosEntre(ano, ano);
+    }
+
+    /**
+     * Conta os autores que estiveram vivos em algum momento entre dois anos (inclusive).
+     * Um autor está no período se nasceu até o ano final e não faleceu antes do ano inicial;
+     * quem faleceu antes do ano inicial necessariamente nasceu antes do ano final,
+     * então basta subtrair uma contagem da outra.
+     *
+     * @param anoInicial Primeiro ano do período.
+     * @param anoFinal Último ano do período.
+     * @return O número de autores vivos em algum momento do período.
+     */
+    public synchronized int contarVivosEntre(int anoInicial, int anoFinal) {
+        garantirCarregado();
+        if (anoFinal < anoInicial) {
+            return 0;
+        }
+        // falecimentos guarda o ano seguinte ao falecimento: somar até anoInicial conta quem faleceu antes dele.
+        return (int) (somar(nascimentos, anoFinal) - somar(falecimentos, anoInicial));
+    }
+
+    /**
+     * Conta os autores vivos em cada ano de um período, útil para montar linhas do tempo.
+     * @param anoInicial Primeiro ano do período.
+     * @param anoFinal Último ano do período.
+     * @return Um array em que a posição i contém a contagem do ano anoInicial + i.
+     */
+    public synchronized int[] contarPorAno(int anoInicial, int anoFinal) {
+        garantirCarregado();
+        int[] contagens = new int[Math.max(0, anoFinal - anoInicial + 1)];
+        for (int i = 0; i < contagens.length; i++) {
+            contagens[i] = contarVivosEntre(anoInicial + i, anoInicial + i);
+        }
+        return contagens;
+    }
+
+    /**
+     * Lista os ids dos autores que estiveram vivos em algum momento entre dois anos (inclusive).
+     * @param anoInicial Primeiro ano do período.
+     * @param anoFinal Último ano do período.
+     * @return Os ids dos autores, sem ordem definida.
+     */
+    public synchronized List<Long> listarVivosEntre(int anoInicial, int anoFinal) {
+        garantirCarregado();
+        if (arvoreDesatualizada) {
+            raiz = construir(intervalos);
+            arvoreDesatualizada = false;
+        }
+        List<Long> ids = new ArrayList<>();
+        if (anoFinal >= anoInicial) {
+            consultar(raiz, anoInicial, anoFinal, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Atualiza o índice com os autores de um lote recém-gravado.
+     * Só é executado depois do commit, para nunca indexar autores de uma transação desfeita.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoIngerirLivros(LivrosIngeridosEvent evento) {
+        if (!carregado) {
+            // O índice ainda não foi usado; ele lerá tudo do banco no primeiro acesso.
+            return;
+        }
+        for (Author autor : evento.autores()) {
+            registrar(autor.getId(), autor.getBirthYear(), autor.getDeathYear());
+        }
+    }
+
+    private void garantirCarregado() {
+        if (carregado) {
+            return;
+        }
+        for (AuthorLifespan periodo : authorRepository.findPeriodosDeVida()) {
+            registrar(periodo.id(), periodo.birthYear(), periodo.deathYear());
+        }
+        carregado = true;
+    }
+
+    private void registrar(Long id, Integer nascimento, Integer falecimento) {
+        if (id == null || nascimento == null || !idsIndexados.add(id)) {
+            return;
+        }
+        int fim = falecimento != null ? falecimento : Integer.MAX_VALUE;
+        if (fim < nascimento) {
+            // Dados inconsistentes: pela regra da consulta SQL, o autor nunca estaria vivo.
+            return;
+        }
+        intervalos.add(new Intervalo(id, nascimento, fim));
+        arvoreDesatualizada = true;
+        adicionar(nascimentos, nascimento);
+        if (falecimento != null) {
+            adicionar(falecimentos, falecimento + 1);
+        }
+    }
+
+    // ---- Árvore de Fenwick (índices 1..n sobre a faixa de anos) ----
+
+    private static int posicao(int ano) {
+        return Math.min(Math.max(ano, ANO_MINIMO), ANO_MAXIMO + 1) - ANO_MINIMO + 1;
+    }
+
+    private static void adicionar(long[] arvore, int ano) {
+        for (int i = posicao(ano); i < arvore.length; i += i & -i) {
+            arvore[i]++;
+        }
+    }
+
+    private static long somar(long[] arvore, int ano) {
+        long soma = 0;
+        for (int i = posicao(ano); i > 0; i -= i & -i) {
+            soma += arvore[i];
+        }
+        return soma;
+    }
+
+    // ---- Árvore de intervalos centrada ----
+
+    private record Intervalo(long id, int inicio, int fim) {}
+
+    private static final class NoIntervalo {
+        final int centro;
+        final Intervalo[] porInicio; // intervalos que contêm o centro, em ordem crescente de início
+        final Intervalo[] porFim;    // os mesmos intervalos, em ordem decrescente de fim
+        NoIntervalo esquerda;
+        NoIntervalo direita;
+
+        NoIntervalo(int centro, Intervalo[] porInicio, Intervalo[] porFim) {
+            this.centro = centro;
+            this.porInicio = porInicio;
+            this.porFim = porFim;
+        }
+    }
+
+    private static NoIntervalo construir(List<Intervalo> intervalos) {
+        if (intervalos.isEmpty()) {
+            return null;
+        }
+        // O centro é a mediana dos inícios, o que mantém a árvore equilibrada.
+        int[] inicios = intervalos.stream().mapToInt(Intervalo::inicio).sorted().toArray();
+        int centro = inicios[inicios.length / 2];
+
+        List<Intervalo> esquerda = new ArrayList<>();
+        List<Intervalo> direita = new ArrayList<>();
+        List<Intervalo> cruzam = new ArrayList<>();
+        for (Intervalo intervalo : intervalos) {
+            if (intervalo.fim() < centro) {
+                esquerda.add(intervalo);
+            } else if (intervalo.inicio() > centro) {
+                direita.add(intervalo);
+            } else {
+                cruzam.add(intervalo);
+            }
+        }
+
+        Intervalo[] porInicio = cruzam.toArray(Intervalo[]::new);
+        Arrays.sort(porInicio, Comparator.comparingInt(Intervalo::inicio));
+        Intervalo[] porFim = cruzam.toArray(Intervalo[]::new);
+        Arrays.sort(porFim, Comparator.comparingInt(Intervalo::fim).reversed());
+
+        NoIntervalo no = new NoIntervalo(centro, porInicio, porFim);
+        no.esquerda = construir(esquerda);
+        no.direita = construir(direita);
+        return no;
+    }
+
+    /**
+     * Coleta os intervalos que se sobrepõem a [anoInicial, anoFinal].
+     * Todos os intervalos de um nó contêm o centro, então basta percorrer uma das listas ordenadas
+     * até o primeiro que não se sobrepõe, e descer apenas para os lados que podem ter resultados.
+     */
+    private static void consultar(NoIntervalo no, int anoInicial, int anoFinal, List<Long> ids) {
+        while (no != null) {
+            if (anoFinal < no.centro) {
+                for (Intervalo intervalo : no.porInicio) {
+                    if (intervalo.inicio() > anoFinal) {
+                        break;
+                    }
+                    ids.add(intervalo.id());
+                }
+                no = no.esquerda;
+            } else if (anoInicial > no.centro) {
+                for (Intervalo intervalo : no.porFim) {
+                    if (intervalo.fim() < anoInicial) {
+                        break;
+                    }
+                    ids.add(intervalo.id());
+                }
+                no = no.direita;
+            } else {
+                for (Intervalo intervalo : no.porInicio) {
+                    ids.add(intervalo.id());
+                }
+                consultar(no.esquerda, anoInicial, anoFinal, ids);
+                no = no.direita;
+            }
+        }
+    }
+}
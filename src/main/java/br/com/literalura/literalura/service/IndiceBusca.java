@@ -0,0 +1,185 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.BookSummary;
+import br.com.literalura.literalura.repository.BookRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória sobre os títulos e nomes de autores do catálogo local.
+ * Permite responder buscas por livros já cadastrados sem chamar a API Gutendex.
+ * <p>
+ * Cada termo normalizado (sem acentos, em minúsculas) aponta para os ids dos livros que o contêm.
+ * Os termos ficam em mapas ordenados, então um termo da busca também encontra os termos que
+ * começam com ele (busca por prefixo). Todos os termos da busca precisam ser encontrados (E lógico),
+ * e os resultados são ordenados por relevância e, em caso de empate, por número de downloads.
+ * <p>
+ * O índice é montado a partir do banco no primeiro uso e atualizado a cada lote ingerido
+ * e a cada atualização do número de downloads.
+ */
+@Component
+public class IndiceBusca {
+    // Pesos de relevância: termos do título valem mais que os do autor, e termos exatos mais que prefixos.
+    private static final int PESO_TITULO_EXATO = 4;
+    private static final int PESO_TITULO_PREFIXO = 2;
+    private static final int PESO_AUTOR_EXATO = 3;
+    private static final int PESO_AUTOR_PREFIXO = 1;
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, Set<Long>> termosTitulo = new TreeMap<>();
+    private final NavigableMap<String, Set<Long>> termosAutor = new TreeMap<>();
+    private final Map<Long, BookSummary> documentos = new HashMap<>();
+    private volatile boolean carregado;
+
+    public IndiceBusca(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Busca livros do catálogo local pelo título e/ou nome do autor.
+     * @param consulta Texto digitado pelo usuário (acentos e maiúsculas são ignorados).
+     * @param limite Número máximo de resultados.
+     * @return Os livros encontrados, do mais relevante para o menos relevante.
+     */
+    public List<BookSummary> buscar(String consulta, int limite) {
+        List<String> termos = NormalizadorTexto.termos(consulta);
+        if (termos.isEmpty()) {
+            return List.of();
+        }
+        garantirCarregado();
+
+        trava.readLock().lock();
+        try {
+            Map<Long, Integer> pontuacao = null;
+            for (String termo : termos) {
+                Map<Long, Integer> doTermo = new HashMap<>();
+                pontuar(termosTitulo, termo, PESO_TITULO_EXATO, PESO_TITULO_PREFIXO, doTermo);
+                pontuar(termosAutor, termo, PESO_AUTOR_EXATO, PESO_AUTOR_PREFIXO, doTermo);
+
+                if (pontuacao == null) {
+                    pontuacao = doTermo;
+                } else {
+                    // Mantém apenas os livros que contêm todos os termos até aqui.
+                    Map<Long, Integer> anterior = pontuacao;
+                    pontuacao = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entrada : doTermo.entrySet()) {
+                        Integer acumulado = anterior.get(entrada.getKey());
+                        if (acumulado != null) {
+                            pontuacao.put(entrada.getKey(), acumulado + entrada.getValue());
+                        }
+                    }
+                }
+                if (pontuacao.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<Long, Integer> pontos = pontuacao;
+            return pontos.keySet().stream()
+                    .map(documentos::get)
+                    .sorted(Comparator.<BookSummary>comparingInt(livro -> pontos.get(livro.id())).reversed()
+                            .thenComparing(livro -> livro.downloadCount() != null ? livro.downloadCount() : 0,
+                                    Comparator.reverseOrder()))
+                    .limit(limite)
+                    .toList();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adiciona ao índice os livros de um lote recém-gravado.
+     * Só é executado depois do commit, para nunca indexar livros de uma transação desfeita.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoIngerirLivros(LivrosIngeridosEvent evento) {
+        // A verificação fica dentro da trava: se a carga estiver em andamento, espera por ela em vez de
+        // descartar o lote, que pode ter sido gravado depois da leitura do banco. Repetidos são ignorados.
+        trava.writeLock().lock();
+        try {
+            if (!carregado) {
+                // O índice ainda não foi usado; ele lerá tudo do banco no primeiro acesso.
+                return;
+            }
+            for (Book livro : evento.livros()) {
+                indexar(BookSummary.of(livro));
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Troca o número de downloads dos livros atualizados, usado no desempate dos resultados.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAtualizarDownloads(DownloadsAtualizadosEvent evento) {
+        trava.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            evento.downloadsPorLivro().forEach((id, downloads) -> documentos.computeIfPresent(id, (chave, livro) ->
+                    new BookSummary(livro.id(), livro.title(), livro.authorName(), livro.language(), downloads)));
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void garantirCarregado() {
+        if (carregado) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            if (!carregado) {
+                bookRepository.findResumos().forEach(this::indexar);
+                carregado = true;
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void indexar(BookSummary livro) {
+        if (livro.id() == null || documentos.putIfAbsent(livro.id(), livro) != null) {
+            return;
+        }
+        for (String termo : NormalizadorTexto.termos(livro.title())) {
+            termosTitulo.computeIfAbsent(termo, t -> new HashSet<>()).add(livro.id());
+        }
+        for (String termo : NormalizadorTexto.termos(livro.authorName())) {
+            termosAutor.computeIfAbsent(termo, t -> new HashSet<>()).add(livro.id());
+        }
+    }
+
+    /**
+     * Soma a pontuação de um termo da busca: o termo exato recebe o peso maior e os termos que
+     * apenas começam com ele (ex: "pride" encontrando "prideful") recebem o peso de prefixo.
+     * Cada livro fica com a maior pontuação obtida para este termo.
+     */
+    private static void pontuar(NavigableMap<String, Set<Long>> termos, String termo, int pesoExato,
+                                int pesoPrefixo, Map<Long, Integer> pontuacao) {
+        // Todos os termos com o prefixo ficam entre "termo" e "termo" seguido do maior caractere possível.
+        for (Map.Entry<String, Set<Long>> entrada : termos.subMap(termo, true, termo + Character.MAX_VALUE, false).entrySet()) {
+            int peso = entrada.getKey().equals(termo) ? pesoExato : pesoPrefixo;
+            for (Long id : entrada.getValue()) {
+                pontuacao.merge(id, peso, Math::max);
+            }
+        }
+    }
+}
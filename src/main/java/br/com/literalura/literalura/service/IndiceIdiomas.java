@@ -0,0 +1,176 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de bitmaps em memória dos idiomas dos livros: para cada idioma, um {@link BitSet} em que o bit
+ * de posição N está ligado se o livro de id N está naquele idioma.
+ * <p>
+ * "Livros no idioma X" é a leitura de um bitmap, "livros em X e Y" é um AND entre bitmaps e
+ * "livros em X ou Y" um OR, sem percorrer a tabela de livros. A contagem por idioma é o número de bits ligados.
+ * <p>
+ * O índice é carregado do dicionário de idiomas (tabela idiomas, com ids pequenos) e da tabela livro_idiomas
+ * no primeiro uso, e atualizado a cada lote ingerido.
+ */
+@Component
+public class IndiceIdiomas {
+    private final JdbcTemplate jdbc;
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    private final Map<String, BitSet> livrosPorIdioma = new HashMap<>();
+    private volatile boolean carregado;
+
+    public IndiceIdiomas(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Livros que estão em todos os idiomas indicados (E lógico).
+     * @param codigos Códigos dos idiomas (ex: "en", "fr"); maiúsculas são ignoradas.
+     * @return Um bitmap com os ids dos livros. Alterá-lo não afeta o índice.
+     */
+    public BitSet livrosEmTodos(Collection<String> codigos) {
+        return combinar(codigos, true);
+    }
+
+    /**
+     * Livros que estão em pelo menos um dos idiomas indicados (OU lógico).
+     * @param codigos Códigos dos idiomas; maiúsculas são ignoradas.
+     * @return Um bitmap com os ids dos livros. Alterá-lo não afeta o índice.
+     */
+    public BitSet livrosEmAlgum(Collection<String> codigos) {
+        return combinar(codigos, false);
+    }
+
+    /**
+     * Conta os livros de um idioma.
+     * @param codigo Código do idioma.
+     * @return O número de livros que têm esse idioma (entre outros, se houver).
+     */
+    public int contar(String codigo) {
+        garantirCarregado();
+        trava.readLock().lock();
+        try {
+            BitSet livros = livrosPorIdioma.get(normalizar(codigo));
+            return livros != null ? livros.cardinality() : 0;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Conta os livros de cada idioma cadastrado.
+     * @return Código do idioma e número de livros, do idioma com mais livros para o com menos.
+     */
+    public Map<String, Integer> contarPorIdioma() {
+        garantirCarregado();
+        List<Map.Entry<String, Integer>> contagens = new ArrayList<>();
+        trava.readLock().lock();
+        try {
+            livrosPorIdioma.forEach((codigo, livros) -> contagens.add(Map.entry(codigo, livros.cardinality())));
+        } finally {
+            trava.readLock().unlock();
+        }
+        contagens.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        contagens.forEach(contagem -> resultado.put(contagem.getKey(), contagem.getValue()));
+        return resultado;
+    }
+
+    /**
+     * Adiciona ao índice os livros de um lote recém-gravado.
+     * Só é executado depois do commit, para nunca indexar livros de uma transação desfeita.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoIngerirLivros(LivrosIngeridosEvent evento) {
+        // Verificado dentro da trava: um lote gravado durante a carga espera por ela em vez de ser descartado.
+        trava.writeLock().lock();
+        try {
+            if (!carregado) {
+                // O índice ainda não foi usado; ele lerá tudo do banco no primeiro acesso.
+                return;
+            }
+            for (Book livro : evento.livros()) {
+                for (String codigo : livro.getLanguages()) {
+                    marcar(codigo, livro.getId());
+                }
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private BitSet combinar(Collection<String> codigos, boolean todos) {
+        garantirCarregado();
+        BitSet resultado = null;
+        trava.readLock().lock();
+        try {
+            for (String codigo : codigos) {
+                BitSet livros = livrosPorIdioma.getOrDefault(normalizar(codigo), new BitSet());
+                if (resultado == null) {
+                    resultado = (BitSet) livros.clone();
+                } else if (todos) {
+                    resultado.and(livros);
+                } else {
+                    resultado.or(livros);
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        return resultado != null ? resultado : new BitSet();
+    }
+
+    private void garantirCarregado() {
+        if (carregado) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            if (!carregado) {
+                // O dicionário é pequeno; as linhas de livro_idiomas trazem apenas o id do idioma.
+                Map<Short, BitSet> porId = new HashMap<>();
+                jdbc.query("SELECT id, codigo FROM idiomas", rs -> {
+                    BitSet livros = new BitSet();
+                    porId.put(rs.getShort("id"), livros);
+                    livrosPorIdioma.put(rs.getString("codigo"), livros);
+                });
+                jdbc.query("SELECT idioma_id, livro_id FROM livro_idiomas", rs -> {
+                    porId.get(rs.getShort("idioma_id")).set(posicao(rs.getLong("livro_id")));
+                });
+                carregado = true;
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void marcar(String codigo, Long livroId) {
+        if (livroId != null) {
+            livrosPorIdioma.computeIfAbsent(codigo, c -> new BitSet()).set(posicao(livroId));
+        }
+    }
+
+    private static int posicao(long livroId) {
+        // Os ids vêm de uma sequência do banco; um BitSet comporta ids até Integer.MAX_VALUE.
+        return Math.toIntExact(livroId);
+    }
+
+    private static String normalizar(String codigo) {
+        return codigo.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,217 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.BookSummary;
+import br.com.literalura.literalura.model.GutendexResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga de livros sem interação: recebe uma lista de títulos e/ou ids da Gutendex
+ * (ex: as linhas de um arquivo) e cadastra todos de uma vez.
+ * <p>
+ * - ids numéricos são agrupados em uma única chamada "?ids=1,2,3" por página da API;
+ * - títulos já presentes no catálogo local são ignorados; os demais são buscados com "?search=",
+ *   ficando com o primeiro resultado, como na busca do menu;
+ * - as chamadas à API rodam em paralelo, limitadas por um semáforo, e os resultados são gravados
+ *   pela thread atual em lotes de {@code tamanhoLote} livros, com o {@link IngestaoLivros}.
+ */
+@Service
+public class IngestaoEmLote {
+    private static final Logger log = LoggerFactory.getLogger(IngestaoEmLote.class);
+    // A API devolve no máximo 32 livros por página, então esse é o limite de ids por chamada.
+    private static final int IDS_POR_CHAMADA = 32;
+
+    private final ConsumoApi consumo;
+    private final ConverteDados conversor = new ConverteDados();
+    private final IngestaoLivros ingestao;
+    private final IndiceBusca indiceBusca;
+    private final String enderecoBase;
+
+    public IngestaoEmLote(ConsumoApi consumo, IngestaoLivros ingestao, IndiceBusca indiceBusca,
+                          @Value("${literalura.gutendex.endereco:https://gutendex.com/books/}") String enderecoBase) {
+        this.consumo = consumo;
+        this.ingestao = ingestao;
+        this.indiceBusca = indiceBusca;
+        this.enderecoBase = enderecoBase;
+    }
+
+    /**
+     * Resolve e cadastra as entradas.
+     *
+     * @param entradas Títulos ou ids da Gutendex, um por item. Itens vazios, repetidos ou iniciados por "#" são ignorados.
+     * @param concorrencia Número máximo de chamadas simultâneas à API.
+     * @param tamanhoLote Quantidade de livros acumulados antes de cada gravação no banco.
+     * @return O relatório da carga.
+     */
+    public RelatorioCarga importar(Collection<String> entradas, int concorrencia, int tamanhoLote) {
+        long inicio = System.nanoTime();
+        // Conjuntos ordenados: entradas repetidas no arquivo geram uma única chamada.
+        Set<Integer> ids = new LinkedHashSet<>();
+        Map<List<String>, String> titulos = new LinkedHashMap<>();
+        int jaCadastrados = 0;
+        for (String linha : entradas) {
+            String entrada = linha.strip();
+            if (entrada.isEmpty() || entrada.startsWith("#")) {
+                continue;
+            }
+            if (entrada.length() <= 9 && entrada.chars().allMatch(Character::isDigit)) {
+                ids.add(Integer.valueOf(entrada));
+            } else if (jaNoCatalogo(entrada)) {
+                jaCadastrados++;
+            } else {
+                titulos.putIfAbsent(NormalizadorTexto.termos(entrada), entrada);
+            }
+        }
+
+        List<String> enderecos = new ArrayList<>();
+        List<Integer> listaIds = new ArrayList<>(ids);
+        for (int i = 0; i < listaIds.size(); i += IDS_POR_CHAMADA) {
+            StringJoiner lista = new StringJoiner(",");
+            listaIds.subList(i, Math.min(listaIds.size(), i + IDS_POR_CHAMADA)).forEach(id -> lista.add(id.toString()));
+            enderecos.add(enderecoBase + "?ids=" + lista);
+        }
+        int chamadasPorIds = enderecos.size();
+        for (String titulo : titulos.values()) {
+            enderecos.add(enderecoDaBusca(titulo));
+        }
+
+        // Cada chamada devolve um ResultadoChamada pela fila; a gravação acontece só nesta thread.
+        BlockingQueue<ResultadoChamada> concluidas = new LinkedBlockingQueue<>();
+        Semaphore vagas = new Semaphore(Math.max(1, concorrencia));
+        ExecutorService executor = Executores.paraTarefasIo("carga-lote", concorrencia);
+
+        int encontrados = 0;
+        int naoEncontrados = 0;
+        int falhas = 0;
+        int inseridos = 0;
+        List<Book> pendentes = new ArrayList<>();
+        try {
+            int enviadas = 0;
+            int emAndamento = 0;
+            while (enviadas < enderecos.size() || emAndamento > 0) {
+                // Envia novas chamadas enquanto houver vagas, sem bloquear a gravação dos resultados.
+                while (enviadas < enderecos.size() && vagas.tryAcquire()) {
+                    String endereco = enderecos.get(enviadas);
+                    boolean porIds = enviadas < chamadasPorIds;
+                    enviadas++;
+                    emAndamento++;
+                    executor.execute(() -> {
+                        try {
+                            concluidas.add(chamar(endereco, porIds));
+                        } finally {
+                            vagas.release();
+                        }
+                    });
+                }
+
+                ResultadoChamada resultado = concluidas.poll(100, TimeUnit.MILLISECONDS);
+                if (resultado == null) {
+                    continue;
+                }
+                emAndamento--;
+                if (resultado.erro() != null) {
+                    falhas++;
+                    log.warn("Falha ao consultar {}: {}", resultado.endereco(), resultado.erro());
+                    continue;
+                }
+                if (resultado.livros().isEmpty()) {
+                    naoEncontrados++;
+                }
+                encontrados += resultado.livros().size();
+                pendentes.addAll(resultado.livros());
+                if (pendentes.size() >= tamanhoLote) {
+                    inseridos += ingestao.ingerir(pendentes).size();
+                    pendentes.clear();
+                }
+            }
+            if (!pendentes.isEmpty()) {
+                inseridos += ingestao.ingerir(pendentes).size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new RelatorioCarga(ids.size() + titulos.size() + jaCadastrados, ids.size(), titulos.size(),
+                jaCadastrados, enderecos.size(), encontrados, naoEncontrados, falhas, inseridos,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private boolean jaNoCatalogo(String titulo) {
+        List<String> termos = NormalizadorTexto.termos(titulo);
+        for (BookSummary livro : indiceBusca.buscar(titulo, 5)) {
+            if (NormalizadorTexto.termos(livro.title()).equals(termos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String enderecoDaBusca(String titulo) {
+        String buscaNormalizada = NormalizadorTexto.semAcentos(titulo);
+        return enderecoBase + "?search=" + URLEncoder.encode(buscaNormalizada, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Faz uma chamada à API. Uma busca por título fica apenas com o primeiro resultado;
+     * uma chamada por ids fica com todos.
+     */
+    private ResultadoChamada chamar(String endereco, boolean porIds) {
+        try {
+            GutendexResponse dados = consumo.obterConvertido(endereco, GutendexResponse.class, conversor);
+            List<Book> livros = dados.getResults() != null ? dados.getResults() : List.of();
+            return new ResultadoChamada(endereco, porIds ? livros : livros.stream().limit(1).toList(), null);
+        } catch (RuntimeException e) {
+            return new ResultadoChamada(endereco, List.of(), e.getMessage());
+        }
+    }
+
+    private record ResultadoChamada(String endereco, List<Book> livros, String erro) {}
+
+    /**
+     * Relatório de uma carga.
+     * @param entradas Entradas válidas lidas (títulos e ids).
+     * @param ids Entradas que eram ids da Gutendex.
+     * @param titulosBuscados Títulos enviados à API.
+     * @param jaCadastrados Títulos ignorados por já estarem no catálogo local.
+     * @param chamadas Chamadas feitas à API.
+     * @param livrosEncontrados Livros devolvidos pela API.
+     * @param semResultado Chamadas que não encontraram nenhum livro.
+     * @param falhas Chamadas que falharam.
+     * @param livrosInseridos Livros novos gravados no banco.
+     * @param duracao Tempo total da carga.
+     */
+    public record RelatorioCarga(int entradas, int ids, int titulosBuscados, int jaCadastrados, int chamadas,
+                                 int livrosEncontrados, int semResultado, int falhas, int livrosInseridos,
+                                 Duration duracao) {
+
+        public double entradasPorSegundo() {
+            return entradas / Math.max(0.001, duracao.toNanos() / 1e9);
+        }
+
+        public double livrosInseridosPorSegundo() {
+            return livrosInseridos / Math.max(0.001, duracao.toNanos() / 1e9);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Serviço de ingestão em lote de livros vindos da API.
+ * Em vez de consultar e salvar livro a livro (o que gera várias idas ao banco por livro),
+ * resolve um lote inteiro com poucas instruções SQL baseadas em conjuntos:
+ * 1. uma consulta com os gutendexId do lote que já estão cadastrados;
+ * 2. os autores e tradutores do lote são resolvidos pelo {@link CacheAutores}, que só vai ao banco
+ *    (um upsert de várias linhas) para os autores que ainda não conhece;
+ * 3. um INSERT de várias linhas com os livros novos, ignorando conflitos de unicidade;
+ * 4. um upsert dos códigos de idioma do lote na tabela idiomas e um INSERT com todos os idiomas
+ *    de cada livro novo em livro_idiomas;
+ * 5. um INSERT com todos os autores e tradutores de cada livro novo em livro_autores.
+ * <p>
+ * Métricas: literalura.ingestao.lote (tempo de cada lote) e literalura.ingestao.linhas
+ * (linhas gravadas, por tabela).
+ */
+@Service
+public class IngestaoLivros {
+    // Limite de linhas por instrução, para ficar bem abaixo do máximo de parâmetros do PostgreSQL.
+    private static final int LINHAS_POR_INSTRUCAO = 500;
+    // Tamanho de livros.title e autores.name (VARCHAR(255)). Um texto maior faria o INSERT de várias linhas
+    // falhar e desfazer o lote inteiro, então títulos e nomes são cortados antes de montar as instruções.
+    private static final int TAMANHO_TEXTO = 255;
+
+    private final JdbcTemplate jdbc;
+    private final CacheAutores cacheAutores;
+    private final ApplicationEventPublisher eventos;
+    private final Timer tempoLote;
+    private final Counter livrosInseridos;
+    private final Counter autoresGravados;
+    private final Counter idiomasGravados;
+    private final Counter autoriasGravadas;
+
+    public IngestaoLivros(JdbcTemplate jdbc, CacheAutores cacheAutores, ApplicationEventPublisher eventos,
+                          MeterRegistry metricas) {
+        this.jdbc = jdbc;
+        this.cacheAutores = cacheAutores;
+        this.eventos = eventos;
+        this.tempoLote = Timer.builder("literalura.ingestao.lote")
+                .description("Tempo de gravação de um lote de livros")
+                .register(metricas);
+        this.livrosInseridos = linhas(metricas, "livros");
+        this.autoresGravados = linhas(metricas, "autores");
+        this.idiomasGravados = linhas(metricas, "livro_idiomas");
+        this.autoriasGravadas = linhas(metricas, "livro_autores");
+    }
+
+    private static Counter linhas(MeterRegistry metricas, String tabela) {
+        return Counter.builder("literalura.ingestao.linhas")
+                .description("Linhas inseridas ou atualizadas pela ingestão")
+                .tag("tabela", tabela)
+                .register(metricas);
+    }
+
+    /**
+     * Salva os livros do lote que ainda não estão no banco, junto com seus autores e tradutores.
+     * Os livros recebidos são atualizados com os ids gerados e passam a apontar para as instâncias
+     * únicas de cada autor, já com id.
+     * Ao final, publica um {@link LivrosIngeridosEvent} com os livros inseridos e os autores do lote.
+     *
+     * @param livros Livros recebidos da API.
+     * @return A lista dos livros que foram efetivamente inseridos.
+     */
+    @Transactional
+    public List<Book> ingerir(Collection<Book> livros) {
+        return tempoLote.record(() -> ingerirLote(livros));
+    }
+
+    private List<Book> ingerirLote(Collection<Book> livros) {
+        // Remove repetições dentro do próprio lote (mesmo gutendexId ou mesmo título, já cortado).
+        Map<Integer, Book> porGutendexId = new LinkedHashMap<>();
+        Set<String> titulos = new HashSet<>();
+        for (Book livro : livros) {
+            if (livro.getTitle() == null || livro.getGutendexId() == null) {
+                continue;
+            }
+            livro.setTitle(NormalizadorTexto.limitar(livro.getTitle(), TAMANHO_TEXTO));
+            if (titulos.add(livro.getTitle())) {
+                porGutendexId.putIfAbsent(livro.getGutendexId(), livro);
+            }
+        }
+        if (porGutendexId.isEmpty()) {
+            return List.of();
+        }
+
+        porGutendexId.keySet().removeAll(buscarGutendexIdsExistentes(porGutendexId.keySet()));
+        if (porGutendexId.isEmpty()) {
+            return List.of();
+        }
+
+        List<Book> candidatos = new ArrayList<>(porGutendexId.values());
+        List<Author> autores = resolverAutores(candidatos);
+        List<Book> inseridos = inserirLivros(candidatos);
+        int idiomas = inserirIdiomas(inseridos);
+        int autorias = inserirAutorias(inseridos);
+        autoresGravados.increment(autores.size());
+        livrosInseridos.increment(inseridos.size());
+        idiomasGravados.increment(idiomas);
+        autoriasGravadas.increment(autorias);
+        eventos.publishEvent(new LivrosIngeridosEvent(inseridos, autores));
+        return inseridos;
+    }
+
+    /**
+     * Consulta quais gutendexId já estão cadastrados, com todos os ids em um único parâmetro de array.
+     * A junção com unnest mantém o custo proporcional ao número de ids; com uma lista "IN (?, ?, ...)"
+     * e um plano de varredura da tabela, cada linha de livros seria comparada com cada parâmetro.
+     */
+    private Set<Integer> buscarGutendexIdsExistentes(Collection<Integer> gutendexIds) {
+        String sql = "SELECT l.gutendex_id FROM unnest(?::int[]) AS g(id) JOIN livros l ON l.gutendex_id = g.id";
+        return new HashSet<>(jdbc.queryForList(sql, Integer.class, (Object) gutendexIds.toArray(Integer[]::new)));
+    }
+
+    /**
+     * Resolve os autores e tradutores do lote pelo cache e troca os de cada livro pelas instâncias únicas, com id.
+     * @return Os autores distintos do lote.
+     */
+    private List<Author> resolverAutores(List<Book> livros) {
+        List<Author> recebidos = new ArrayList<>();
+        for (Book livro : livros) {
+            recebidos.addAll(livro.getAuthors());
+            recebidos.addAll(livro.getTranslators());
+        }
+        // O nome é cortado antes de o cache calcular a chave, para que a chave do banco e a do cache coincidam.
+        for (Author autor : recebidos) {
+            if (autor != null) {
+                autor.setName(NormalizadorTexto.limitar(autor.getName(), TAMANHO_TEXTO));
+            }
+        }
+        if (recebidos.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Author> porChave = cacheAutores.resolver(recebidos);
+        for (Book livro : livros) {
+            livro.setAuthors(unicos(livro.getAuthors(), porChave));
+            livro.setTranslators(unicos(livro.getTranslators(), porChave));
+        }
+        return new ArrayList<>(porChave.values());
+    }
+
+    private static List<Author> unicos(List<Author> autores, Map<String, Author> porChave) {
+        List<Author> unicos = new ArrayList<>(autores.size());
+        for (Author autor : autores) {
+            Author unico = porChave.get(NormalizadorTexto.chave(autor.getName()));
+            // Nomes diferentes podem ter a mesma chave (ex: com e sem ponto final): o autor entra uma vez só.
+            if (unico != null && !unicos.contains(unico)) {
+                unicos.add(unico);
+            }
+        }
+        return unicos;
+    }
+
+    /**
+     * Insere os livros em instruções de várias linhas. Conflitos de unicidade (ex: título já
+     * cadastrado com outro gutendexId) são ignorados, e o RETURNING devolve apenas as linhas inseridas.
+     */
+    private List<Book> inserirLivros(List<Book> livros) {
+        List<Book> inseridos = new ArrayList<>();
+        for (int inicio = 0; inicio < livros.size(); inicio += LINHAS_POR_INSTRUCAO) {
+            List<Book> parte = livros.subList(inicio, Math.min(livros.size(), inicio + LINHAS_POR_INSTRUCAO));
+            Map<Integer, Book> porGutendexId = new HashMap<>();
+            List<Object> parametros = new ArrayList<>();
+            for (Book livro : parte) {
+                porGutendexId.put(livro.getGutendexId(), livro);
+                Long autorId = livro.getAuthor() != null ? livro.getAuthor().getId() : null;
+                parametros.add(new SqlParameterValue(Types.VARCHAR, livro.getTitle()));
+                parametros.add(new SqlParameterValue(Types.BIGINT, autorId));
+                parametros.add(new SqlParameterValue(Types.VARCHAR, livro.getLanguage()));
+                parametros.add(new SqlParameterValue(Types.INTEGER, livro.getDownloadCount()));
+                parametros.add(new SqlParameterValue(Types.INTEGER, livro.getGutendexId()));
+                parametros.add(new SqlParameterValue(Types.VARCHAR, livro.getTextUrl()));
+                parametros.add(new SqlParameterValue(Types.VARCHAR, livro.getEpubUrl()));
+            }
+            String sql = "INSERT INTO livros (title, author_id, language, download_count, gutendex_id, text_url, epub_url) " +
+                    "VALUES " + marcadores(parte.size(), 7) + " ON CONFLICT DO NOTHING RETURNING id, gutendex_id";
+            jdbc.query(sql, rs -> {
+                Book livro = porGutendexId.get(rs.getInt("gutendex_id"));
+                livro.setId(rs.getLong("id"));
+                inseridos.add(livro);
+            }, parametros.toArray());
+        }
+        return inseridos;
+    }
+
+    /**
+     * Grava todos os idiomas dos livros inseridos. Os códigos novos entram no dicionário (tabela idiomas)
+     * e cada livro recebe uma linha por idioma em livro_idiomas, com o id do código e a sua posição.
+     *
+     * @return O número de linhas gravadas em livro_idiomas.
+     */
+    private int inserirIdiomas(List<Book> livros) {
+        Set<String> codigos = new LinkedHashSet<>();
+        for (Book livro : livros) {
+            codigos.addAll(livro.getLanguages());
+        }
+        if (codigos.isEmpty()) {
+            return 0;
+        }
+
+        // Mesmo truque de resolverAutores: o "DO UPDATE" faz o RETURNING devolver também os códigos existentes.
+        Map<String, Short> idsPorCodigo = new HashMap<>();
+        List<String> lista = new ArrayList<>(codigos);
+        String sqlIdiomas = "INSERT INTO idiomas (codigo) VALUES " + String.join(", ", Collections.nCopies(lista.size(), "(?)")) +
+                " ON CONFLICT (codigo) DO UPDATE SET codigo = EXCLUDED.codigo RETURNING id, codigo";
+        jdbc.query(sqlIdiomas, rs -> {
+            idsPorCodigo.put(rs.getString("codigo"), rs.getShort("id"));
+        }, lista.toArray());
+
+        List<Object[]> linhas = new ArrayList<>();
+        for (Book livro : livros) {
+            List<String> idiomas = livro.getLanguages();
+            for (int posicao = 0; posicao < idiomas.size(); posicao++) {
+                linhas.add(new Object[]{livro.getId(), idsPorCodigo.get(idiomas.get(posicao)), posicao});
+            }
+        }
+        int gravadas = 0;
+        for (int inicio = 0; inicio < linhas.size(); inicio += LINHAS_POR_INSTRUCAO) {
+            List<Object[]> parte = linhas.subList(inicio, Math.min(linhas.size(), inicio + LINHAS_POR_INSTRUCAO));
+            List<Object> parametros = new ArrayList<>();
+            for (Object[] linha : parte) {
+                parametros.add(new SqlParameterValue(Types.BIGINT, linha[0]));
+                parametros.add(new SqlParameterValue(Types.SMALLINT, linha[1]));
+                parametros.add(new SqlParameterValue(Types.SMALLINT, linha[2]));
+            }
+            gravadas += jdbc.update("INSERT INTO livro_idiomas (livro_id, idioma_id, posicao) VALUES " +
+                    marcadores(parte.size(), 3) + " ON CONFLICT DO NOTHING", parametros.toArray());
+        }
+        return gravadas;
+    }
+
+    /**
+     * Grava os autores ('A') e tradutores ('T') de cada livro inserido em livro_autores, com a sua posição.
+     *
+     * @return O número de linhas gravadas.
+     */
+    private int inserirAutorias(List<Book> livros) {
+        List<Object> parametros = new ArrayList<>();
+        int linhas = 0;
+        int gravadas = 0;
+        for (Book livro : livros) {
+            for (String papel : List.of("A", "T")) {
+                List<Author> autores = papel.equals("A") ? livro.getAuthors() : livro.getTranslators();
+                for (int posicao = 0; posicao < autores.size(); posicao++) {
+                    parametros.add(new SqlParameterValue(Types.BIGINT, livro.getId()));
+                    parametros.add(new SqlParameterValue(Types.BIGINT, autores.get(posicao).getId()));
+                    parametros.add(new SqlParameterValue(Types.CHAR, papel));
+                    parametros.add(new SqlParameterValue(Types.SMALLINT, posicao));
+                    if (++linhas == LINHAS_POR_INSTRUCAO) {
+                        gravadas += gravarAutorias(linhas, parametros);
+                        parametros.clear();
+                        linhas = 0;
+                    }
+                }
+            }
+        }
+        if (linhas > 0) {
+            gravadas += gravarAutorias(linhas, parametros);
+        }
+        return gravadas;
+    }
+
+    private int gravarAutorias(int linhas, List<Object> parametros) {
+        return jdbc.update("INSERT INTO livro_autores (livro_id, autor_id, papel, posicao) VALUES " +
+                marcadores(linhas, 4) + " ON CONFLICT DO NOTHING", parametros.toArray());
+    }
+
+    /**
+     * Monta os marcadores de parâmetros de uma instrução com várias linhas.
+     * Ex: marcadores(2, 3) gera "(?, ?, ?), (?, ?, ?)". Com colunas = 1 gera "?, ?".
+     */
+    private static String marcadores(int linhas, int colunas) {
+        StringJoiner linha = new StringJoiner(", ", colunas > 1 ? "(" : "", colunas > 1 ? ")" : "");
+        for (int i = 0; i < colunas; i++) {
+            linha.add("?");
+        }
+        StringJoiner todas = new StringJoiner(", ");
+        for (int i = 0; i < linhas; i++) {
+            todas.add(linha.toString());
+        }
+        return todas.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+
+import java.util.List;
+
+/**
+ * Evento publicado pela {@link IngestaoLivros} depois que um lote é gravado.
+ * Permite que estruturas mantidas em memória (índices, rankings, caches) sejam atualizadas
+ * de forma incremental, sem precisar reler o banco.
+ *
+ * @param livros Livros inseridos no lote, já com o id gerado pelo banco.
+ * @param autores Todos os autores resolvidos no lote (novos ou já existentes), com seus ids.
+ */
+public record LivrosIngeridosEvent(List<Book> livros, List<Author> autores) {}
@@ -0,0 +1,71 @@
+package br.com.literalura.literalura.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classe utilitária com a normalização de texto usada nas buscas:
+ * remoção de acentos (decomposição NFD) e divisão em termos.
+ * Também limita textos ao tamanho das colunas em que são gravados.
+ */
+public final class NormalizadorTexto {
+    private static final Pattern ACENTOS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private NormalizadorTexto() {}
+
+    /**
+     * Remove os acentos de um texto (ex: "Machado de Assis, José" vira "Machado de Assis, Jose").
+     * @param texto Texto original.
+     * @return O texto sem marcas diacríticas.
+     */
+    public static String semAcentos(String texto) {
+        return ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Divide um texto em termos normalizados: sem acentos, em minúsculas e sem pontuação.
+     * @param texto Texto original (pode ser null).
+     * @return A lista de termos, na ordem em que aparecem.
+     */
+    public static List<String> termos(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null) {
+            return termos;
+        }
+        for (String termo : SEPARADORES.split(semAcentos(texto).toLowerCase(Locale.ROOT))) {
+            if (!termo.isEmpty()) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Corta um texto em um número máximo de caracteres (pontos de código, como o VARCHAR(n) do PostgreSQL),
+     * sem separar os dois chars de um caractere fora do BMP (ex: emoji).
+     * @param texto Texto original (pode ser null).
+     * @param maximo Número máximo de caracteres.
+     * @return O próprio texto, se couber, ou o seu começo.
+     */
+    public static String limitar(String texto, int maximo) {
+        if (texto == null || texto.length() <= maximo || texto.codePointCount(0, texto.length()) <= maximo) {
+            return texto;
+        }
+        return texto.substring(0, texto.offsetByCodePoints(0, maximo));
+    }
+
+    /**
+     * Chave de comparação de nomes: os termos normalizados separados por um espaço
+     * (ex: "Assis, Machado de" e "ASSIS,  Machado  de." geram a mesma chave "assis machado de").
+     * @param texto Texto original.
+     * @return A chave; textos sem letras nem números ficam apenas em minúsculas e sem espaços nas pontas.
+     */
+    public static String chave(String texto) {
+        List<String> termos = termos(texto);
+        return termos.isEmpty() ? texto.strip().toLowerCase(Locale.ROOT) : String.join(" ", termos);
+    }
+}
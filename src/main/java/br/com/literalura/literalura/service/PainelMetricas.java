@@ -0,0 +1,177 @@
+package br.com.literalura.literalura.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monta um resumo legível das métricas de desempenho de cada etapa:
+ * chamadas à API, conversão de JSON, gravação em lote, acertos do cache do Hibernate e consultas por método
+ * de repositório (estas últimas registradas automaticamente pelo Spring Boot em spring.data.repository.invocations).
+ * <p>
+ * O resumo é exibido pelo menu e, se literalura.metricas.log.intervalo for maior que zero,
+ * também é escrito no log periodicamente.
+ */
+@Component
+public class PainelMetricas {
+    private static final Logger log = LoggerFactory.getLogger(PainelMetricas.class);
+    // Quantos métodos de repositório aparecem no resumo, dos que mais consumiram tempo no total.
+    private static final int MAX_METODOS_REPOSITORIO = 15;
+
+    private final MeterRegistry metricas;
+    private final ScheduledExecutorService agendador;
+
+    /**
+     * @param metricas Registro de onde as métricas são lidas.
+     * @param intervaloLog Intervalo entre os resumos escritos no log (zero desliga).
+     */
+    public PainelMetricas(MeterRegistry metricas,
+                          @Value("${literalura.metricas.log.intervalo:0s}") Duration intervaloLog) {
+        this.metricas = metricas;
+        if (intervaloLog.isZero() || intervaloLog.isNegative()) {
+            this.agendador = null;
+        } else {
+            this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "log-metricas");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalo = intervaloLog.toMillis();
+            agendador.scheduleAtFixedRate(() -> log.info("Métricas de desempenho:\n{}", resumo()),
+                    intervalo, intervalo, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * Monta o resumo com os valores atuais. Os percentis refletem os últimos minutos;
+     * contagens e totais são acumulados desde o início da aplicação.
+     */
+    public String resumo() {
+        StringBuilder texto = new StringBuilder();
+
+        texto.append("----- API (HTTP) -----\n");
+        for (Timer timer : timers("literalura.http.requisicao")) {
+            linhaTimer(texto, timer.getId().getTag("tipo") + "/" + timer.getId().getTag("resultado"), timer);
+        }
+        DistributionSummary bytes = metricas.find("literalura.http.bytes").summary();
+        if (bytes != null && bytes.count() > 0) {
+            texto.append(String.format("  bytes recebidos: %d respostas, total %.1f KB, média %.1f KB, máx %.1f KB%n",
+                    bytes.count(), bytes.totalAmount() / 1024, bytes.mean() / 1024, bytes.max() / 1024));
+        }
+        double chamadasAgrupadas = contagemPorTipo("literalura.http.agrupadas", "chamada");
+        double conversoesAgrupadas = contagemPorTipo("literalura.http.agrupadas", "conversao");
+        if (chamadasAgrupadas + conversoesAgrupadas > 0) {
+            texto.append(String.format("  pedidos agrupados: %.0f chamadas e %.0f conversões aproveitadas de pedidos iguais em andamento%n",
+                    chamadasAgrupadas, conversoesAgrupadas));
+        }
+
+        texto.append("----- CONVERSÃO DE JSON -----\n");
+        for (Timer timer : timers("literalura.json.conversao")) {
+            linhaTimer(texto, timer.getId().getTag("tipo") + " (" + timer.getId().getTag("forma") + ")", timer);
+        }
+
+        texto.append("----- GRAVAÇÃO EM LOTE -----\n");
+        for (Timer timer : timers("literalura.ingestao.lote")) {
+            linhaTimer(texto, "lotes", timer);
+        }
+        for (Counter linhas : metricas.find("literalura.ingestao.linhas").counters()) {
+            texto.append(String.format("  linhas em %s: %.0f%n", linhas.getId().getTag("tabela"), linhas.count()));
+        }
+        double acertos = contagem("literalura.autores.cache", "acerto");
+        double faltas = contagem("literalura.autores.cache", "falta");
+        if (acertos + faltas > 0) {
+            texto.append(String.format("  cache de autores: %.0f resolvidos em memória, %.0f no banco (%.1f%% de acertos)%n",
+                    acertos, faltas, 100 * acertos / (acertos + faltas)));
+        }
+
+        texto.append("----- CACHE DO HIBERNATE -----\n");
+        metricas.find("hibernate.second.level.cache.requests").functionCounters().stream()
+                .map(contador -> contador.getId().getTag("region"))
+                .distinct()
+                .sorted()
+                .forEach(regiao -> linhaAcertos(texto, "região " + regiao,
+                        contagemFuncao("hibernate.second.level.cache.requests", regiao, "hit"),
+                        contagemFuncao("hibernate.second.level.cache.requests", regiao, "miss")));
+        linhaAcertos(texto, "consultas",
+                contagemFuncao("hibernate.cache.query.requests", null, "hit"),
+                contagemFuncao("hibernate.cache.query.requests", null, "miss"));
+
+        texto.append("----- CONSULTAS AO BANCO (por método de repositório) -----\n");
+        timers("spring.data.repository.invocations").stream()
+                .sorted(Comparator.comparingDouble((Timer t) -> t.totalTime(TimeUnit.MILLISECONDS)).reversed())
+                .limit(MAX_METODOS_REPOSITORIO)
+                .forEach(timer -> linhaTimer(texto,
+                        timer.getId().getTag("repository") + "." + timer.getId().getTag("method"), timer));
+
+        return texto.toString();
+    }
+
+    private List<Timer> timers(String nome) {
+        return metricas.find(nome).timers().stream()
+                .filter(timer -> timer.count() > 0)
+                .sorted(Comparator.comparing(timer -> timer.getId().getTags().toString()))
+                .toList();
+    }
+
+    private double contagem(String nome, String resultado) {
+        Counter contador = metricas.find(nome).tag("resultado", resultado).counter();
+        return contador != null ? contador.count() : 0;
+    }
+
+    private double contagemPorTipo(String nome, String tipo) {
+        Counter contador = metricas.find(nome).tag("tipo", tipo).counter();
+        return contador != null ? contador.count() : 0;
+    }
+
+    private double contagemFuncao(String nome, String regiao, String resultado) {
+        var busca = metricas.find(nome).tag("result", resultado);
+        if (regiao != null) {
+            busca = busca.tag("region", regiao);
+        }
+        return busca.functionCounters().stream().mapToDouble(FunctionCounter::count).sum();
+    }
+
+    private static void linhaAcertos(StringBuilder texto, String rotulo, double acertos, double faltas) {
+        if (acertos + faltas > 0) {
+            texto.append(String.format("  %s: %.0f acertos, %.0f faltas (%.1f%% de acertos)%n",
+                    rotulo, acertos, faltas, 100 * acertos / (acertos + faltas)));
+        }
+    }
+
+    private static void linhaTimer(StringBuilder texto, String rotulo, Timer timer) {
+        texto.append(String.format("  %s: %d chamadas, média %.1f ms, p95 %s, máx %.1f ms, total %.1f ms%n",
+                rotulo, timer.count(), timer.mean(TimeUnit.MILLISECONDS), p95(timer),
+                timer.max(TimeUnit.MILLISECONDS), timer.totalTime(TimeUnit.MILLISECONDS)));
+    }
+
+    private static String p95(Timer timer) {
+        for (ValueAtPercentile percentil : timer.takeSnapshot().percentileValues()) {
+            if (percentil.percentile() == 0.95) {
+                return String.format("%.1f ms", percentil.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return "-";
+    }
+}
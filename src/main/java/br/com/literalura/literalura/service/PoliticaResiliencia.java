@@ -0,0 +1,299 @@
+package br.com.literalura.literalura.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Política de controle de latência e de falhas aplicada às chamadas do {@link ConsumoApi}:
+ * - prazo total: nenhuma chamada (somando todas as tentativas) passa do prazo configurado;
+ * - requisição duplicada (hedge): se a resposta demorar mais que o p95 das latências recentes,
+ *   uma segunda requisição idêntica é enviada e vale a que responder primeiro;
+ * - novas tentativas: falhas de rede, status 429 e 5xx são repetidos com espera exponencial
+ *   e aleatória (jitter), o que é seguro porque todas as chamadas são GETs idempotentes;
+ * - disjuntor: depois de várias falhas seguidas, as chamadas falham na hora, sem ir à rede.
+ */
+@Component
+public class PoliticaResiliencia {
+    // Amostras necessárias antes de confiar no p95 medido para decidir o hedge.
+    private static final int AMOSTRAS_MINIMAS = 20;
+
+    private final int maxTentativas;
+    private final Duration esperaInicial;
+    private final Duration esperaMaxima;
+    private final Duration prazoTotal;
+    private final boolean hedgeHabilitado;
+    private final Duration hedgeAtrasoInicial;
+    private final Duration hedgeAtrasoMinimo;
+    private final DisjuntorCircuito disjuntor;
+
+    // Últimas latências de respostas bem-sucedidas, em um buffer circular.
+    private final long[] latenciasNanos = new long[128];
+    private int proximaLatencia;
+    private int totalLatencias;
+
+    private final AtomicLong tentativasRepetidas = new AtomicLong();
+    private final AtomicLong hedgesEnviados = new AtomicLong();
+    private final AtomicLong hedgesVencedores = new AtomicLong();
+
+    /**
+     * @param maxTentativas Número máximo de tentativas por chamada (1 desliga as novas tentativas).
+     * @param esperaInicial Espera base antes da segunda tentativa; dobra a cada nova tentativa.
+     * @param esperaMaxima Limite para a espera entre tentativas.
+     * @param prazoTotal Prazo máximo de uma chamada, somando todas as tentativas.
+     * @param hedgeHabilitado Liga ou desliga as requisições duplicadas.
+     * @param hedgeAtrasoInicial Atraso do hedge enquanto ainda não há amostras suficientes para o p95.
+     * @param hedgeAtrasoMinimo Atraso mínimo do hedge, mesmo que o p95 seja menor.
+     * @param disjuntorLimiteFalhas Falhas seguidas que abrem o disjuntor.
+     * @param disjuntorTempoAberto Tempo que o disjuntor fica aberto antes de testar a API de novo.
+     */
+    @Autowired
+    public PoliticaResiliencia(@Value("${literalura.http.tentativas:3}") int maxTentativas,
+                               @Value("${literalura.http.espera-inicial:200ms}") Duration esperaInicial,
+                               @Value("${literalura.http.espera-maxima:5s}") Duration esperaMaxima,
+                               @Value("${literalura.http.prazo-total:60s}") Duration prazoTotal,
+                               @Value("${literalura.http.hedge.habilitado:true}") boolean hedgeHabilitado,
+                               @Value("${literalura.http.hedge.atraso-inicial:2s}") Duration hedgeAtrasoInicial,
+                               @Value("${literalura.http.hedge.atraso-minimo:100ms}") Duration hedgeAtrasoMinimo,
+                               @Value("${literalura.http.disjuntor.limite-falhas:5}") int disjuntorLimiteFalhas,
+                               @Value("${literalura.http.disjuntor.tempo-aberto:30s}") Duration disjuntorTempoAberto) {
+        this.maxTentativas = Math.max(1, maxTentativas);
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+        this.prazoTotal = prazoTotal;
+        this.hedgeHabilitado = hedgeHabilitado;
+        this.hedgeAtrasoInicial = hedgeAtrasoInicial;
+        this.hedgeAtrasoMinimo = hedgeAtrasoMinimo;
+        this.disjuntor = new DisjuntorCircuito(disjuntorLimiteFalhas, disjuntorTempoAberto);
+    }
+
+    /**
+     * Política com os valores padrão, usada quando o ConsumoApi é criado fora do Spring.
+     */
+    public static PoliticaResiliencia padrao() {
+        return new PoliticaResiliencia(3, Duration.ofMillis(200), Duration.ofSeconds(5), Duration.ofSeconds(60),
+                true, Duration.ofSeconds(2), Duration.ofMillis(100), 5, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Executa uma requisição aplicando a política.
+     *
+     * @param envio Cria e envia uma nova requisição a cada chamada (usado nas novas tentativas e no hedge).
+     * @param permiteHedge false para respostas em fluxo, em que a resposta descartada prenderia a conexão.
+     * @return A primeira resposta que não precisou ser repetida (2xx, 3xx ou 4xx exceto 429).
+     * @throws ApiIndisponivelException se o disjuntor estiver aberto, o prazo acabar ou todas as tentativas falharem.
+     */
+    public <T> HttpResponse<T> executar(Supplier<CompletableFuture<HttpResponse<T>>> envio, boolean permiteHedge) {
+        boolean teste = disjuntor.verificar();
+        long prazo = System.nanoTime() + prazoTotal.toNanos();
+        Throwable ultimaFalha = null;
+
+        try {
+            for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
+                if (tentativa > 1) {
+                    tentativasRepetidas.incrementAndGet();
+                }
+                long inicio = System.nanoTime();
+                try {
+                    HttpResponse<T> resposta = enviarComHedge(envio, permiteHedge && hedgeHabilitado, prazo);
+                    if (!deveRepetir(resposta.statusCode())) {
+                        registrarLatencia(System.nanoTime() - inicio);
+                        disjuntor.registrarSucesso();
+                        teste = false;
+                        return resposta;
+                    }
+                    fechar(resposta);
+                    ultimaFalha = new IOException("A API respondeu com o status HTTP " + resposta.statusCode());
+                } catch (IOException | TimeoutException e) {
+                    ultimaFalha = e;
+                }
+
+                disjuntor.registrarFalha();
+                teste = false;
+                if (tentativa == maxTentativas || disjuntor.estado() == DisjuntorCircuito.Estado.ABERTO) {
+                    break;
+                }
+                long esperaNanos = esperaComJitter(tentativa);
+                if (System.nanoTime() + esperaNanos >= prazo) {
+                    break;
+                }
+                dormir(esperaNanos);
+            }
+            throw new ApiIndisponivelException("Não foi possível consultar a API: " +
+                    (ultimaFalha != null ? ultimaFalha.getMessage() : "prazo esgotado"), ultimaFalha);
+        } finally {
+            // A chamada de teste terminou sem registrar um resultado (interrompida ou com um erro que não
+            // veio da API): sem liberar a vaga, o disjuntor recusaria todas as chamadas seguintes.
+            if (teste) {
+                disjuntor.liberarTeste();
+            }
+        }
+    }
+
+    /**
+     * Envia a requisição e, se ela passar do atraso do hedge, envia uma cópia.
+     * Vale a primeira resposta que chegar; a outra é cancelada. Se o prazo acabar, as duas são canceladas.
+     */
+    private <T> HttpResponse<T> enviarComHedge(Supplier<CompletableFuture<HttpResponse<T>>> envio,
+                                               boolean hedge, long prazo) throws IOException, TimeoutException {
+        List<CompletableFuture<HttpResponse<T>>> enviadas = new ArrayList<>(2);
+        CompletableFuture<HttpResponse<T>> primeira = envio.get();
+        enviadas.add(primeira);
+        try {
+            if (hedge) {
+                long atraso = Math.min(atrasoDoHedge(), Math.max(0, prazo - System.nanoTime()));
+                try {
+                    return primeira.get(atraso, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    hedgesEnviados.incrementAndGet();
+                    CompletableFuture<HttpResponse<T>> segunda = envio.get();
+                    enviadas.add(segunda);
+                    CompletableFuture<HttpResponse<T>> vencedora = primeiraBemSucedida(primeira, segunda);
+                    HttpResponse<T> resposta = vencedora.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (segunda.isDone() && !segunda.isCompletedExceptionally() && segunda.join() == resposta) {
+                        hedgesVencedores.incrementAndGet();
+                    }
+                    return resposta;
+                }
+            }
+            return primeira.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Sem o cancelamento, as requisições continuariam ocupando conexões (e fluxos abertos)
+            // enquanto as novas tentativas começam.
+            enviadas.forEach(PoliticaResiliencia::abandonar);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            enviadas.forEach(PoliticaResiliencia::abandonar);
+            Thread.currentThread().interrupt();
+            throw new ApiIndisponivelException("A chamada à API foi interrompida.", e);
+        }
+    }
+
+    /**
+     * Cancela uma requisição que não será mais usada. Se a resposta chegou antes do cancelamento,
+     * ela é fechada.
+     */
+    private static <T> void abandonar(CompletableFuture<HttpResponse<T>> requisicao) {
+        if (!requisicao.cancel(true)) {
+            requisicao.thenAccept(PoliticaResiliencia::fechar);
+        }
+    }
+
+    /**
+     * Combina duas requisições: completa com a primeira que der certo e só falha se as duas falharem.
+     */
+    private static <T> CompletableFuture<HttpResponse<T>> primeiraBemSucedida(CompletableFuture<HttpResponse<T>> a,
+                                                                             CompletableFuture<HttpResponse<T>> b) {
+        CompletableFuture<HttpResponse<T>> resultado = new CompletableFuture<>();
+        AtomicInteger falhas = new AtomicInteger();
+        for (CompletableFuture<HttpResponse<T>> requisicao : Arrays.asList(a, b)) {
+            requisicao.whenComplete((resposta, erro) -> {
+                if (erro == null) {
+                    if (!resultado.complete(resposta)) {
+                        fechar(resposta); // Chegou depois da vencedora.
+                    }
+                } else if (falhas.incrementAndGet() == 2) {
+                    resultado.completeExceptionally(erro);
+                }
+            });
+        }
+        resultado.whenComplete((resposta, erro) -> {
+            a.cancel(true);
+            b.cancel(true);
+        });
+        return resultado;
+    }
+
+    private static boolean deveRepetir(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /**
+     * Espera exponencial com "full jitter": um valor aleatório entre zero e a espera base,
+     * o que evita que vários clientes repitam as chamadas todos ao mesmo tempo.
+     */
+    private long esperaComJitter(int tentativa) {
+        long base = esperaInicial.toNanos() << Math.min(tentativa - 1, 20);
+        long teto = Math.min(base, esperaMaxima.toNanos());
+        return ThreadLocalRandom.current().nextLong(teto + 1);
+    }
+
+    private synchronized void registrarLatencia(long nanos) {
+        latenciasNanos[proximaLatencia] = nanos;
+        proximaLatencia = (proximaLatencia + 1) % latenciasNanos.length;
+        totalLatencias++;
+    }
+
+    /**
+     * O hedge é disparado quando a requisição passa do p95 das latências recentes,
+     * ou seja, apenas nas ~5% mais lentas, o que limita o custo extra de requisições duplicadas.
+     */
+    private synchronized long atrasoDoHedge() {
+        if (totalLatencias < AMOSTRAS_MINIMAS) {
+            return hedgeAtrasoInicial.toNanos();
+        }
+        long[] amostras = Arrays.copyOf(latenciasNanos, Math.min(totalLatencias, latenciasNanos.length));
+        Arrays.sort(amostras);
+        long p95 = amostras[(int) Math.ceil(amostras.length * 0.95) - 1];
+        return Math.max(p95, hedgeAtrasoMinimo.toNanos());
+    }
+
+    private static void fechar(HttpResponse<?> resposta) {
+        // Respostas em fluxo descartadas precisam ser fechadas para liberar a conexão.
+        if (resposta != null && resposta.body() instanceof InputStream corpo) {
+            try {
+                corpo.close();
+            } catch (IOException e) {
+                // Nada a fazer: a resposta já foi descartada.
+            }
+        }
+    }
+
+    private static void dormir(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiIndisponivelException("A chamada à API foi interrompida.", e);
+        }
+    }
+
+    /**
+     * Contadores da política desde o início da aplicação.
+     */
+    public Estatisticas estatisticas() {
+        return new Estatisticas(tentativasRepetidas.get(), hedgesEnviados.get(), hedgesVencedores.get(),
+                disjuntor.aberturas(), disjuntor.estado());
+    }
+
+    /**
+     * @param tentativasRepetidas Novas tentativas feitas após uma falha.
+     * @param hedgesEnviados Requisições duplicadas enviadas por lentidão.
+     * @param hedgesVencedores Requisições duplicadas que responderam antes da original.
+     * @param aberturasDisjuntor Vezes que o disjuntor abriu.
+     * @param estadoDisjuntor Estado atual do disjuntor.
+     */
+    public record Estatisticas(long tentativasRepetidas, long hedgesEnviados, long hedgesVencedores,
+                               long aberturasDisjuntor, DisjuntorCircuito.Estado estadoDisjuntor) {}
+}
@@ -0,0 +1,231 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ranking em memória dos livros do catálogo local por número de downloads: geral, por idioma e por autor.
+ * <p>
+ * Cada ranking é uma skip list ordenada (mais downloads primeiro, empates pelo menor id): os N primeiros
+ * saem em O(log n + N) e mudar os downloads de um livro custa O(log n) em cada ranking em que ele está.
+ * O "top N" de vários autores (ex: os autores vivos em um ano) intercala os rankings de cada autor com
+ * uma fila de prioridade, sem percorrer os demais livros.
+ * <p>
+ * As leituras não bloqueiam; as alterações são feitas uma de cada vez. O ranking é carregado do banco
+ * no primeiro uso e atualizado a cada lote ingerido e a cada atualização do número de downloads.
+ * Livros sem número de downloads não entram no ranking.
+ */
+@Component
+public class RankingDownloads {
+    private static final Comparator<Posicao> ORDEM = Comparator.comparingInt(Posicao::downloads).reversed()
+            .thenComparingLong(Posicao::livroId);
+
+    private final JdbcTemplate jdbc;
+
+    private final NavigableSet<Posicao> geral = new ConcurrentSkipListSet<>(ORDEM);
+    private final Map<String, NavigableSet<Posicao>> porIdioma = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Posicao>> porAutor = new ConcurrentHashMap<>();
+    // Idiomas, autores e downloads atuais de cada livro, para tirá-lo das posições antigas quando os downloads mudam.
+    private final Map<Long, Livro> livros = new HashMap<>();
+    private volatile boolean carregado;
+
+    public RankingDownloads(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Os livros com mais downloads do catálogo.
+     * @param n Número máximo de livros.
+     * @return As posições, da primeira para a última.
+     */
+    public List<Posicao> top(int n) {
+        garantirCarregado();
+        return primeiros(geral, n);
+    }
+
+    /**
+     * Os livros com mais downloads em um idioma (entre os livros que têm esse idioma, mesmo que não seja o primeiro).
+     * @param codigo Código do idioma (ex: "pt"); maiúsculas são ignoradas.
+     * @param n Número máximo de livros.
+     */
+    public List<Posicao> topPorIdioma(String codigo, int n) {
+        garantirCarregado();
+        return primeiros(porIdioma.get(codigo.strip().toLowerCase(Locale.ROOT)), n);
+    }
+
+    /**
+     * Os livros com mais downloads de um autor (como autor, não como tradutor).
+     * @param autorId Id do autor.
+     * @param n Número máximo de livros.
+     */
+    public List<Posicao> topPorAutor(long autorId, int n) {
+        garantirCarregado();
+        return primeiros(porAutor.get(autorId), n);
+    }
+
+    /**
+     * Os livros com mais downloads de qualquer um dos autores indicados. Um livro com vários desses
+     * autores aparece uma única vez.
+     * @param autorIds Ids dos autores (ex: os autores vivos em um ano).
+     * @param n Número máximo de livros.
+     */
+    public List<Posicao> topPorAutores(Collection<Long> autorIds, int n) {
+        garantirCarregado();
+        // Cada entrada da fila é o ranking de um autor, representado pela sua próxima posição ainda não usada.
+        PriorityQueue<Cabeca> fila = new PriorityQueue<>(Comparator.comparing(Cabeca::posicao, ORDEM));
+        for (Long autorId : autorIds) {
+            NavigableSet<Posicao> ranking = porAutor.get(autorId);
+            if (ranking != null) {
+                Iterator<Posicao> posicoes = ranking.iterator();
+                if (posicoes.hasNext()) {
+                    fila.add(new Cabeca(posicoes.next(), posicoes));
+                }
+            }
+        }
+        List<Posicao> resultado = new ArrayList<>(n);
+        Set<Long> incluidos = new HashSet<>();
+        while (resultado.size() < n && !fila.isEmpty()) {
+            Cabeca cabeca = fila.poll();
+            if (incluidos.add(cabeca.posicao().livroId())) {
+                resultado.add(cabeca.posicao());
+            }
+            if (cabeca.restantes().hasNext()) {
+                fila.add(new Cabeca(cabeca.restantes().next(), cabeca.restantes()));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Número de livros no ranking geral.
+     */
+    public int tamanho() {
+        garantirCarregado();
+        return geral.size();
+    }
+
+    /**
+     * Adiciona ao ranking os livros de um lote recém-gravado.
+     * Só é executado depois do commit, para nunca incluir livros de uma transação desfeita.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoIngerirLivros(LivrosIngeridosEvent evento) {
+        if (!carregado) {
+            // O ranking ainda não foi usado; ele lerá tudo do banco no primeiro acesso.
+            return;
+        }
+        for (Book livro : evento.livros()) {
+            if (livro.getId() == null) {
+                continue;
+            }
+            List<Long> autores = livro.getAuthors().stream().map(Author::getId).filter(id -> id != null).toList();
+            incluir(livro.getId(), new Livro(livro.getDownloadCount(), livro.getLanguages(), autores));
+        }
+    }
+
+    /**
+     * Move os livros cujo número de downloads mudou para as novas posições.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAtualizarDownloads(DownloadsAtualizadosEvent evento) {
+        if (!carregado) {
+            return;
+        }
+        evento.downloadsPorLivro().forEach((id, downloads) -> {
+            Livro anterior = livros.get(id);
+            if (anterior != null) {
+                incluir(id, new Livro(downloads, anterior.idiomas(), anterior.autores()));
+            }
+        });
+    }
+
+    private static List<Posicao> primeiros(NavigableSet<Posicao> ranking, int n) {
+        if (ranking == null) {
+            return List.of();
+        }
+        return ranking.stream().limit(n).toList();
+    }
+
+    private void garantirCarregado() {
+        if (!carregado) {
+            carregar();
+        }
+    }
+
+    private synchronized void carregar() {
+        if (carregado) {
+            return;
+        }
+        Map<Long, List<String>> idiomas = new HashMap<>();
+        jdbc.query("SELECT li.livro_id, i.codigo FROM livro_idiomas li JOIN idiomas i ON i.id = li.idioma_id", rs -> {
+            idiomas.computeIfAbsent(rs.getLong("livro_id"), id -> new ArrayList<>()).add(rs.getString("codigo"));
+        });
+        Map<Long, List<Long>> autores = new HashMap<>();
+        jdbc.query("SELECT livro_id, autor_id FROM livro_autores WHERE papel = 'A'", rs -> {
+            autores.computeIfAbsent(rs.getLong("livro_id"), id -> new ArrayList<>()).add(rs.getLong("autor_id"));
+        });
+        jdbc.query("SELECT id, download_count FROM livros", rs -> {
+            long id = rs.getLong("id");
+            incluir(id, new Livro((Integer) rs.getObject("download_count"),
+                    idiomas.getOrDefault(id, List.of()), autores.getOrDefault(id, List.of())));
+        });
+        carregado = true;
+    }
+
+    /**
+     * Coloca o livro nas posições correspondentes ao novo estado, tirando-o das anteriores.
+     */
+    private void incluir(long id, Livro livro) {
+        Livro anterior = livros.put(id, livro);
+        if (anterior != null && anterior.downloads() != null) {
+            Posicao antiga = new Posicao(id, anterior.downloads());
+            geral.remove(antiga);
+            anterior.idiomas().forEach(codigo -> remover(porIdioma.get(codigo), antiga));
+            anterior.autores().forEach(autorId -> remover(porAutor.get(autorId), antiga));
+        }
+        if (livro.downloads() == null) {
+            return;
+        }
+        Posicao nova = new Posicao(id, livro.downloads());
+        geral.add(nova);
+        livro.idiomas().forEach(codigo ->
+                porIdioma.computeIfAbsent(codigo, c -> new ConcurrentSkipListSet<>(ORDEM)).add(nova));
+        livro.autores().forEach(autorId ->
+                porAutor.computeIfAbsent(autorId, a -> new ConcurrentSkipListSet<>(ORDEM)).add(nova));
+    }
+
+    private static void remover(NavigableSet<Posicao> ranking, Posicao posicao) {
+        if (ranking != null) {
+            ranking.remove(posicao);
+        }
+    }
+
+    /**
+     * Uma posição do ranking.
+     * @param livroId Id do livro.
+     * @param downloads Número de downloads.
+     */
+    public record Posicao(long livroId, int downloads) {}
+
+    private record Livro(Integer downloads, List<String> idiomas, List<Long> autores) {}
+
+    private record Cabeca(Posicao posicao, Iterator<Posicao> restantes) {}
+}
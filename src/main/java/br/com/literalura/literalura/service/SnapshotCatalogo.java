@@ -0,0 +1,400 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Exporta e importa o catálogo (tabelas livros e autores) em um arquivo binário compacto,
+ * para restaurar um banco sem repetir as chamadas à API.
+ * <p>
+ * Formato (números em big-endian):
+ * - cabeçalho: assinatura "LTSN" (int), versão (short), nº de autores (int), nº de livros (int), nº de colunas (int);
+ * - cada coluna: id (byte), tamanho original (int), tamanho comprimido (int) e os bytes comprimidos com Deflater.
+ * <p>
+ * Os dados são gravados por coluna (todos os títulos juntos, todos os anos juntos...), o que deixa valores
+ * parecidos lado a lado e melhora a compressão. Idiomas, autores e tradutores são codificados por dicionário:
+ * cada livro guarda, para cada um deles, a quantidade seguida da posição de cada item em listas sem repetição. Números usam varint (1 byte para
+ * valores pequenos) e os ids da Gutendex, ordenados, são gravados como diferença para o anterior.
+ * <p>
+ * A importação grava pelo {@link IngestaoLivros}, em lotes: livros já cadastrados são ignorados.
+ */
+@Service
+public class SnapshotCatalogo {
+    private static final int ASSINATURA = 0x4C54534E; // "LTSN"
+    private static final short VERSAO = 1;
+    // Livros por transação na importação.
+    private static final int LIVROS_POR_LOTE = 5_000;
+
+    private static final byte AUTOR_NOME = 1;
+    private static final byte AUTOR_NASCIMENTO = 2;
+    private static final byte AUTOR_FALECIMENTO = 3;
+    private static final byte IDIOMAS = 4;
+    private static final byte LIVRO_TITULO = 5;
+    // A quantidade de autores e de tradutores do livro e a posição de cada um.
+    private static final byte LIVRO_AUTORES = 6;
+    private static final byte LIVRO_TRADUTORES = 7;
+    // A quantidade de idiomas do livro e a posição de cada um.
+    private static final byte LIVRO_IDIOMAS = 8;
+    private static final byte LIVRO_DOWNLOADS = 9;
+    private static final byte LIVRO_GUTENDEX_ID = 10;
+
+    private final JdbcTemplate jdbc;
+    private final IngestaoLivros ingestao;
+
+    public SnapshotCatalogo(JdbcTemplate jdbc, IngestaoLivros ingestao) {
+        this.jdbc = jdbc;
+        this.ingestao = ingestao;
+    }
+
+    /**
+     * Grava todo o catálogo no arquivo indicado. O arquivo é escrito em um temporário e movido
+     * ao final, para que uma exportação interrompida não deixe um snapshot pela metade.
+     *
+     * @param arquivo Caminho do snapshot.
+     * @return Quantidades exportadas, tamanho do arquivo e duração.
+     */
+    public ResultadoSnapshot exportar(Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+
+        Map<Long, Integer> posicaoAutor = new HashMap<>();
+        Coluna nomes = new Coluna();
+        Coluna nascimentos = new Coluna();
+        Coluna falecimentos = new Coluna();
+        jdbc.query("SELECT id, name, birth_year, death_year FROM autores ORDER BY id", rs -> {
+            posicaoAutor.put(rs.getLong("id"), posicaoAutor.size());
+            nomes.texto(rs.getString("name"));
+            nascimentos.inteiroOpcional((Integer) rs.getObject("birth_year"));
+            falecimentos.inteiroOpcional((Integer) rs.getObject("death_year"));
+        });
+
+        Map<String, Integer> posicaoIdioma = new HashMap<>();
+        Coluna idiomas = new Coluna();
+        Coluna titulos = new Coluna();
+        Coluna autoresDoLivro = new Coluna();
+        Coluna tradutoresDoLivro = new Coluna();
+        Coluna idiomasDoLivro = new Coluna();
+        Coluna downloads = new Coluna();
+        Coluna gutendexIds = new Coluna();
+        int[] livros = {0};
+        int[] gutendexAnterior = {0};
+        // Ordenar pelo id da Gutendex deixa as diferenças entre ids consecutivos pequenas.
+        jdbc.query("SELECT l.title, l.download_count, l.gutendex_id, " +
+                "ARRAY(SELECT i.codigo FROM livro_idiomas li JOIN idiomas i ON i.id = li.idioma_id " +
+                "WHERE li.livro_id = l.id ORDER BY li.posicao) AS idiomas, " +
+                "ARRAY(SELECT la.autor_id FROM livro_autores la WHERE la.livro_id = l.id AND la.papel = 'A' " +
+                "ORDER BY la.posicao) AS autores, " +
+                "ARRAY(SELECT la.autor_id FROM livro_autores la WHERE la.livro_id = l.id AND la.papel = 'T' " +
+                "ORDER BY la.posicao) AS tradutores " +
+                "FROM livros l ORDER BY l.gutendex_id NULLS LAST, l.id", rs -> {
+            livros[0]++;
+            titulos.texto(rs.getString("title"));
+
+            for (String papel : List.of("autores", "tradutores")) {
+                Coluna coluna = papel.equals("autores") ? autoresDoLivro : tradutoresDoLivro;
+                Long[] ids = (Long[]) rs.getArray(papel).getArray();
+                coluna.varint(ids.length);
+                for (Long autorId : ids) {
+                    coluna.varint(posicaoAutor.get(autorId));
+                }
+            }
+
+            String[] codigos = (String[]) rs.getArray("idiomas").getArray();
+            idiomasDoLivro.varint(codigos.length);
+            for (String idioma : codigos) {
+                idiomasDoLivro.varint(posicaoIdioma.computeIfAbsent(idioma, novo -> {
+                    idiomas.texto(novo);
+                    return posicaoIdioma.size();
+                }));
+            }
+
+            downloads.inteiroOpcional((Integer) rs.getObject("download_count"));
+            Integer gutendexId = (Integer) rs.getObject("gutendex_id");
+            if (gutendexId == null) {
+                gutendexIds.inteiroOpcional(null);
+            } else {
+                gutendexIds.inteiroOpcional(gutendexId - gutendexAnterior[0]);
+                gutendexAnterior[0] = gutendexId;
+            }
+        });
+
+        List<ByteBuffer> partes = new ArrayList<>();
+        Coluna[] colunas = {nomes, nascimentos, falecimentos, idiomas, titulos, autoresDoLivro, tradutoresDoLivro,
+                idiomasDoLivro, downloads, gutendexIds};
+        byte[] ids = {AUTOR_NOME, AUTOR_NASCIMENTO, AUTOR_FALECIMENTO, IDIOMAS, LIVRO_TITULO, LIVRO_AUTORES,
+                LIVRO_TRADUTORES, LIVRO_IDIOMAS, LIVRO_DOWNLOADS, LIVRO_GUTENDEX_ID};
+        ByteBuffer cabecalho = ByteBuffer.allocate(4 + 2 + 4 + 4 + 4);
+        cabecalho.putInt(ASSINATURA).putShort(VERSAO).putInt(posicaoAutor.size()).putInt(livros[0]).putInt(colunas.length).flip();
+        partes.add(cabecalho);
+        for (int i = 0; i < colunas.length; i++) {
+            byte[] comprimida = comprimir(colunas[i].bytes, colunas[i].tamanho);
+            ByteBuffer descricao = ByteBuffer.allocate(1 + 4 + 4);
+            descricao.put(ids[i]).putInt(colunas[i].tamanho).putInt(comprimida.length).flip();
+            partes.add(descricao);
+            partes.add(ByteBuffer.wrap(comprimida));
+        }
+
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        Files.createDirectories(diretorio);
+        Path temporario = Files.createTempFile(diretorio, "snapshot", ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = partes.toArray(ByteBuffer[]::new);
+            // Escrita "gathering": todas as partes em uma chamada, sem juntá-las antes em um único array.
+            while (buffers[buffers.length - 1].hasRemaining()) {
+                canal.write(buffers);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new ResultadoSnapshot(posicaoAutor.size(), livros[0], Files.size(arquivo), 0,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Lê um snapshot e grava no banco os livros (e autores) que ainda não estão cadastrados.
+     *
+     * @param arquivo Caminho do snapshot.
+     * @return Quantidades lidas, livros inseridos, tamanho do arquivo e duração.
+     * @throws IOException se o arquivo não puder ser lido ou não for um snapshot válido.
+     */
+    public ResultadoSnapshot importar(Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+        Map<Byte, ByteBuffer> colunas = new HashMap<>();
+        int totalAutores;
+        int totalLivros;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (dados.remaining() < 18 || dados.getInt() != ASSINATURA) {
+                throw new IOException("O arquivo " + arquivo + " não é um snapshot do LiterAlura.");
+            }
+            short versao = dados.getShort();
+            if (versao != VERSAO) {
+                throw new IOException("Versão de snapshot não suportada: " + versao);
+            }
+            totalAutores = dados.getInt();
+            totalLivros = dados.getInt();
+            int quantidade = dados.getInt();
+            for (int i = 0; i < quantidade; i++) {
+                byte id = dados.get();
+                int original = dados.getInt();
+                byte[] comprimida = new byte[dados.getInt()];
+                dados.get(comprimida);
+                colunas.put(id, ByteBuffer.wrap(descomprimir(comprimida, original)));
+            }
+        }
+
+        Author[] autores = new Author[totalAutores];
+        for (int i = 0; i < totalAutores; i++) {
+            Author autor = new Author();
+            autor.setName(lerTexto(coluna(colunas, AUTOR_NOME)));
+            autor.setBirthYear(lerInteiroOpcional(coluna(colunas, AUTOR_NASCIMENTO)));
+            autor.setDeathYear(lerInteiroOpcional(coluna(colunas, AUTOR_FALECIMENTO)));
+            autores[i] = autor;
+        }
+        List<String> idiomas = new ArrayList<>();
+        ByteBuffer colunaIdiomas = coluna(colunas, IDIOMAS);
+        while (colunaIdiomas.hasRemaining()) {
+            idiomas.add(lerTexto(colunaIdiomas));
+        }
+
+        int inseridos = 0;
+        int gutendexAnterior = 0;
+        List<Book> lote = new ArrayList<>(Math.min(totalLivros, LIVROS_POR_LOTE));
+        for (int i = 0; i < totalLivros; i++) {
+            Book livro = new Book();
+            livro.setTitle(lerTexto(coluna(colunas, LIVRO_TITULO)));
+            // Livros do mesmo autor compartilham a instância; a ingestão a resolve pelo cache de autores.
+            livro.setAuthors(lerAutores(coluna(colunas, LIVRO_AUTORES), autores));
+            livro.setTranslators(lerAutores(coluna(colunas, LIVRO_TRADUTORES), autores));
+            ByteBuffer colunaIdiomasDoLivro = coluna(colunas, LIVRO_IDIOMAS);
+            List<String> doLivro = new ArrayList<>();
+            for (long n = lerVarint(colunaIdiomasDoLivro); n > 0; n--) {
+                doLivro.add(idiomas.get((int) lerVarint(colunaIdiomasDoLivro)));
+            }
+            livro.setLanguages(doLivro);
+            livro.setDownloadCount(lerInteiroOpcional(coluna(colunas, LIVRO_DOWNLOADS)));
+            Integer diferenca = lerInteiroOpcional(coluna(colunas, LIVRO_GUTENDEX_ID));
+            if (diferenca != null) {
+                gutendexAnterior += diferenca;
+                livro.setGutendexId(gutendexAnterior);
+            }
+
+            lote.add(livro);
+            if (lote.size() == LIVROS_POR_LOTE) {
+                inseridos += ingestao.ingerir(lote).size();
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            inseridos += ingestao.ingerir(lote).size();
+        }
+
+        return new ResultadoSnapshot(totalAutores, totalLivros, Files.size(arquivo), inseridos,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private static List<Author> lerAutores(ByteBuffer coluna, Author[] autores) {
+        List<Author> doLivro = new ArrayList<>();
+        for (long n = lerVarint(coluna); n > 0; n--) {
+            doLivro.add(autores[(int) lerVarint(coluna)]);
+        }
+        return doLivro;
+    }
+
+    private static ByteBuffer coluna(Map<Byte, ByteBuffer> colunas, byte id) throws IOException {
+        ByteBuffer coluna = colunas.get(id);
+        if (coluna == null) {
+            throw new IOException("Snapshot incompleto: falta a coluna " + id);
+        }
+        return coluna;
+    }
+
+    private static byte[] comprimir(byte[] dados, int tamanho) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(dados, 0, tamanho);
+            deflater.finish();
+            byte[] saida = new byte[Math.max(64, tamanho / 2)];
+            int total = 0;
+            while (!deflater.finished()) {
+                if (total == saida.length) {
+                    saida = Arrays.copyOf(saida, saida.length * 2);
+                }
+                total += deflater.deflate(saida, total, saida.length - total);
+            }
+            return Arrays.copyOf(saida, total);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] descomprimir(byte[] comprimida, int tamanhoOriginal) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(comprimida);
+            byte[] saida = new byte[tamanhoOriginal];
+            int total = 0;
+            while (total < tamanhoOriginal && !inflater.finished()) {
+                int lidos = inflater.inflate(saida, total, tamanhoOriginal - total);
+                if (lidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Coluna do snapshot truncada.");
+                }
+                total += lidos;
+            }
+            return saida;
+        } catch (DataFormatException e) {
+            throw new IOException("Coluna do snapshot corrompida.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // ---- Codificação: varint (7 bits por byte) e zigzag (negativos pequenos também ficam curtos) ----
+
+    /**
+     * Buffer de bytes que cresce conforme a coluna é escrita.
+     */
+    static final class Coluna {
+        byte[] bytes = new byte[1024];
+        int tamanho;
+
+        void varint(long valor) {
+            garantir(10);
+            while ((valor & ~0x7FL) != 0) {
+                bytes[tamanho++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            bytes[tamanho++] = (byte) valor;
+        }
+
+        /** Inteiro que pode ser nulo: 0 representa nulo e os demais valores são zigzag + 1. */
+        void inteiroOpcional(Integer valor) {
+            varint(valor == null ? 0 : Integer.toUnsignedLong((valor << 1) ^ (valor >> 31)) + 1);
+        }
+
+        /** Texto UTF-8 precedido pelo tamanho; nulo é gravado como tamanho 0 seguido de um marcador 0. */
+        void texto(String valor) {
+            if (valor == null) {
+                varint(0);
+                varint(0);
+                return;
+            }
+            byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            if (utf8.length == 0) {
+                varint(1);
+            }
+            garantir(utf8.length);
+            System.arraycopy(utf8, 0, bytes, tamanho, utf8.length);
+            tamanho += utf8.length;
+        }
+
+        private void garantir(int adicionais) {
+            if (tamanho + adicionais > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, tamanho + adicionais));
+            }
+        }
+    }
+
+    static long lerVarint(ByteBuffer dados) {
+        long valor = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = dados.get();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    static Integer lerInteiroOpcional(ByteBuffer dados) {
+        long valor = lerVarint(dados);
+        if (valor == 0) {
+            return null;
+        }
+        int zigzag = (int) (valor - 1);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    static String lerTexto(ByteBuffer dados) {
+        int tamanho = (int) lerVarint(dados);
+        if (tamanho == 0) {
+            return lerVarint(dados) == 0 ? null : "";
+        }
+        String texto = new String(dados.array(), dados.arrayOffset() + dados.position(), tamanho, StandardCharsets.UTF_8);
+        dados.position(dados.position() + tamanho);
+        return texto;
+    }
+
+    /**
+     * Resultado de uma exportação ou importação.
+     * @param autores Autores no snapshot.
+     * @param livros Livros no snapshot.
+     * @param bytes Tamanho do arquivo.
+     * @param livrosInseridos Livros novos gravados no banco (apenas na importação).
+     * @param duracao Tempo total da operação.
+     */
+    public record ResultadoSnapshot(int autores, int livros, long bytes, int livrosInseridos, Duration duracao) {}
+}
@@ -0,0 +1,88 @@
+package db.migration;
+
+import br.com.literalura.literalura.service.NormalizadorTexto;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preenche autores.normalized_name com {@link NormalizadorTexto#chave(String)} e o torna a chave única
+ * dos autores. Feita em Java para usar exatamente a mesma normalização da ingestão.
+ * <p>
+ * Autores que só diferiam em acentos, maiúsculas ou pontuação (ex: "Twain, Mark" e "Twain, Mark.")
+ * passam a ser um só: o de menor id é mantido e os livros dos demais são apontados para ele.
+ */
+public class V6__NormalizarNomesAutores extends BaseJavaMigration {
+    private static final int LINHAS_POR_LOTE = 1_000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexao = context.getConnection();
+
+        Map<String, Long> mantidoPorChave = new HashMap<>();
+        List<long[]> repetidos = new ArrayList<>();
+        try (PreparedStatement atualizar = conexao.prepareStatement("UPDATE autores SET normalized_name = ? WHERE id = ?");
+             Statement consulta = conexao.createStatement();
+             ResultSet autores = consulta.executeQuery("SELECT id, name FROM autores WHERE name IS NOT NULL ORDER BY id")) {
+            int pendentes = 0;
+            while (autores.next()) {
+                long id = autores.getLong("id");
+                String chave = NormalizadorTexto.chave(autores.getString("name"));
+                Long mantido = mantidoPorChave.putIfAbsent(chave, id);
+                if (mantido != null) {
+                    repetidos.add(new long[]{id, mantido});
+                    continue;
+                }
+                atualizar.setString(1, chave);
+                atualizar.setLong(2, id);
+                atualizar.addBatch();
+                if (++pendentes == LINHAS_POR_LOTE) {
+                    atualizar.executeBatch();
+                    pendentes = 0;
+                }
+            }
+            if (pendentes > 0) {
+                atualizar.executeBatch();
+            }
+        }
+
+        if (!repetidos.isEmpty()) {
+            try (PreparedStatement livros = conexao.prepareStatement("UPDATE livros SET author_id = ? WHERE author_id = ?");
+                 PreparedStatement copiar = conexao.prepareStatement(
+                         "INSERT INTO livro_autores (livro_id, autor_id, papel, posicao) " +
+                         "SELECT livro_id, ?, papel, posicao FROM livro_autores WHERE autor_id = ? ON CONFLICT DO NOTHING");
+                 PreparedStatement remover = conexao.prepareStatement("DELETE FROM livro_autores WHERE autor_id = ?");
+                 PreparedStatement removerAutor = conexao.prepareStatement("DELETE FROM autores WHERE id = ?")) {
+                for (long[] repetido : repetidos) {
+                    long id = repetido[0];
+                    long mantido = repetido[1];
+                    livros.setLong(1, mantido);
+                    livros.setLong(2, id);
+                    livros.executeUpdate();
+                    copiar.setLong(1, mantido);
+                    copiar.setLong(2, id);
+                    copiar.executeUpdate();
+                    remover.setLong(1, id);
+                    remover.executeUpdate();
+                    removerAutor.setLong(1, id);
+                    removerAutor.executeUpdate();
+                }
+            }
+        }
+
+        try (Statement ddl = conexao.createStatement()) {
+            // Autores sem nome (não criados pela aplicação) recebem uma chave própria para não ficarem nulos.
+            ddl.execute("UPDATE autores SET normalized_name = '#' || id WHERE normalized_name IS NULL");
+            ddl.execute("ALTER TABLE autores ALTER COLUMN normalized_name SET NOT NULL");
+            ddl.execute("ALTER TABLE autores ADD CONSTRAINT uk_autores_normalized_name UNIQUE (normalized_name)");
+        }
+    }
+}
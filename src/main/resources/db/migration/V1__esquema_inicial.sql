@@ -0,0 +1,21 @@
+-- Esquema inicial do LiterAlura, equivalente ao que o Hibernate criava com ddl-auto=update.
+-- O IF NOT EXISTS permite aplicar esta migração em bancos que já foram criados pelo Hibernate.
+
+CREATE TABLE IF NOT EXISTS autores (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    birth_year  INTEGER,
+    death_year  INTEGER,
+    name        VARCHAR(255),
+    CONSTRAINT uk_autores_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS livros (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    download_count  INTEGER,
+    gutendex_id     INTEGER,
+    language        VARCHAR(255),
+    title           VARCHAR(255),
+    author_id       BIGINT,
+    CONSTRAINT uk_livros_title UNIQUE (title),
+    CONSTRAINT fk_livros_autor FOREIGN KEY (author_id) REFERENCES autores (id)
+);
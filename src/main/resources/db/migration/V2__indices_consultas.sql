@@ -0,0 +1,15 @@
+-- Índices que atendem as consultas dos repositórios e da ingestão que vão ao banco.
+-- A busca por título ou autor, os autores vivos em um ano e os livros por idioma são respondidos
+-- pelos índices em memória (IndiceBusca, IndiceAutoresVivos, IndiceIdiomas), então não têm índice aqui:
+-- cada índice a mais só deixaria a gravação dos lotes mais lenta.
+
+-- Busca exata ignorando maiúsculas (findFirstByNameIgnoreCase, no "top 10" por autor).
+-- As consultas "IgnoreCase" do Spring Data JPA comparam upper(coluna) com upper(parâmetro),
+-- por isso o índice é criado sobre upper(name).
+CREATE INDEX IF NOT EXISTS idx_autores_nome_upper ON autores (upper(name));
+
+-- Livros pelo id da API (a verificação dos livros já cadastrados na ingestão em lote).
+CREATE INDEX IF NOT EXISTS idx_livros_gutendex_id ON livros (gutendex_id);
+
+-- Chave estrangeira do autor, usada nas junções entre livros e autores.
+CREATE INDEX IF NOT EXISTS idx_livros_autor ON livros (author_id);
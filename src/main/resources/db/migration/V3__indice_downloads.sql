@@ -0,0 +1,3 @@
+-- Livro com mais e com menos downloads nas estatísticas gerais: o índice permite ler
+-- apenas a primeira linha em cada extremidade, sem percorrer a tabela.
+CREATE INDEX IF NOT EXISTS idx_livros_downloads ON livros (download_count);
@@ -0,0 +1,31 @@
+-- Todos os idiomas de cada livro, codificados por dicionário.
+-- idiomas guarda cada código uma única vez; livro_idiomas liga o livro ao id (SMALLINT) de cada idioma,
+-- na ordem em que a API os informa. livros.language continua com o primeiro idioma, usado nas exibições
+-- e nas estatísticas.
+
+CREATE TABLE IF NOT EXISTS idiomas (
+    id      SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    codigo  VARCHAR(16) NOT NULL,
+    CONSTRAINT uk_idiomas_codigo UNIQUE (codigo)
+);
+
+CREATE TABLE IF NOT EXISTS livro_idiomas (
+    livro_id   BIGINT NOT NULL,
+    idioma_id  SMALLINT NOT NULL,
+    posicao    SMALLINT NOT NULL,
+    CONSTRAINT pk_livro_idiomas PRIMARY KEY (livro_id, idioma_id),
+    CONSTRAINT fk_livro_idiomas_livro FOREIGN KEY (livro_id) REFERENCES livros (id) ON DELETE CASCADE,
+    CONSTRAINT fk_livro_idiomas_idioma FOREIGN KEY (idioma_id) REFERENCES idiomas (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_livro_idiomas_idioma ON livro_idiomas (idioma_id);
+
+-- Livros já cadastrados guardavam apenas o primeiro idioma; ele passa a ser o idioma de posição 0.
+INSERT INTO idiomas (codigo)
+SELECT DISTINCT language FROM livros
+WHERE language IS NOT NULL AND language <> 'desconhecido'
+ON CONFLICT (codigo) DO NOTHING;
+
+INSERT INTO livro_idiomas (livro_id, idioma_id, posicao)
+SELECT l.id, i.id, 0 FROM livros l JOIN idiomas i ON i.codigo = l.language
+ON CONFLICT DO NOTHING;
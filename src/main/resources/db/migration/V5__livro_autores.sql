@@ -0,0 +1,25 @@
+-- Todos os autores e tradutores de cada livro.
+-- papel: 'A' para autor e 'T' para tradutor; posicao segue a ordem informada pela API.
+-- livros.author_id continua com o primeiro autor, usado nas exibições e estatísticas.
+
+CREATE TABLE IF NOT EXISTS livro_autores (
+    livro_id  BIGINT NOT NULL,
+    autor_id  BIGINT NOT NULL,
+    papel     CHAR(1) NOT NULL,
+    posicao   SMALLINT NOT NULL,
+    CONSTRAINT pk_livro_autores PRIMARY KEY (livro_id, papel, autor_id),
+    CONSTRAINT ck_livro_autores_papel CHECK (papel IN ('A', 'T')),
+    CONSTRAINT fk_livro_autores_livro FOREIGN KEY (livro_id) REFERENCES livros (id) ON DELETE CASCADE,
+    CONSTRAINT fk_livro_autores_autor FOREIGN KEY (autor_id) REFERENCES autores (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_livro_autores_autor ON livro_autores (autor_id);
+
+-- Livros já cadastrados guardavam apenas o primeiro autor.
+INSERT INTO livro_autores (livro_id, autor_id, papel, posicao)
+SELECT id, author_id, 'A', 0 FROM livros WHERE author_id IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+-- Nome normalizado (sem acentos, minúsculas, sem pontuação), usado como chave única dos autores.
+-- É preenchido pela migração Java V6, que usa a mesma normalização da aplicação.
+ALTER TABLE autores ADD COLUMN IF NOT EXISTS normalized_name VARCHAR(255);
@@ -0,0 +1,14 @@
+-- Progresso das tarefas de sincronização com a API (ex: a atualização do número de downloads).
+-- ultimo_livro_id é a marca d'água: a próxima execução continua a partir do livro seguinte e, ao chegar
+-- ao fim do catálogo, volta para 0 e soma uma volta completa. Os totais são acumulados desde a criação.
+
+CREATE TABLE IF NOT EXISTS sincronizacoes (
+    nome                VARCHAR(64) PRIMARY KEY,
+    ultimo_livro_id     BIGINT NOT NULL DEFAULT 0,
+    voltas_completas    INTEGER NOT NULL DEFAULT 0,
+    livros_verificados  BIGINT NOT NULL DEFAULT 0,
+    livros_alterados    BIGINT NOT NULL DEFAULT 0,
+    atualizada_em       TIMESTAMP WITH TIME ZONE
+);
+
+INSERT INTO sincronizacoes (nome) VALUES ('downloads') ON CONFLICT (nome) DO NOTHING;
@@ -0,0 +1,6 @@
+-- Arquivos de cada livro, escolhidos no campo "formats" da API (texto puro e EPUB), e as contagens
+-- calculadas sobre o texto baixado pelo ArmazemConteudo. As contagens ficam nulas até o texto ser baixado.
+ALTER TABLE livros ADD COLUMN IF NOT EXISTS text_url VARCHAR(512);
+ALTER TABLE livros ADD COLUMN IF NOT EXISTS epub_url VARCHAR(512);
+ALTER TABLE livros ADD COLUMN IF NOT EXISTS word_count BIGINT;
+ALTER TABLE livros ADD COLUMN IF NOT EXISTS character_count BIGINT;
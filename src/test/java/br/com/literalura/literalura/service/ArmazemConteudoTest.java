@@ -0,0 +1,140 @@
+package br.com.literalura.literalura.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa a contagem de palavras e caracteres em partes, com palavras e caracteres UTF-8 cortados na divisa
+ * entre duas partes, o relatório de um texto que está sendo baixado por outra execução e a retomada de
+ * um download interrompido.
+ */
+class ArmazemConteudoTest {
+
+	@TempDir
+	Path diretorio;
+
+	@Test
+	void palavraCortadaNaDivisaDasPartesContaUmaVez() throws IOException {
+		Path arquivo = texto("abcd efgh");
+
+		// Partes de 2 bytes: "ab" "cd" " e" "fg" "h".
+		assertEquals(new ArmazemConteudo.Contagem(2, 9), ArmazemConteudo.contar(arquivo, 2));
+		// A divisa cai logo depois do espaço: a segunda parte começa uma palavra nova.
+		assertEquals(new ArmazemConteudo.Contagem(2, 9), ArmazemConteudo.contar(arquivo, 5));
+	}
+
+	@Test
+	void qualquerTamanhoDeParteDaAMesmaContagem() throws IOException {
+		String conteudo = "Olá,  mundo!\r\n\tação fim\u000Bçé 源氏 🙂\n";
+		Path arquivo = texto(conteudo);
+		ArmazemConteudo.Contagem esperada = new ArmazemConteudo.Contagem(7, conteudo.codePointCount(0, conteudo.length()));
+
+		assertEquals(esperada, ArmazemConteudo.contar(arquivo));
+		// Cada tamanho coloca as divisas em outros pontos, inclusive no meio de caracteres de 2, 3 e 4 bytes.
+		for (int tamanhoParte = 1; tamanhoParte <= Files.size(arquivo); tamanhoParte++) {
+			assertEquals(esperada, ArmazemConteudo.contar(arquivo, tamanhoParte), "partes de " + tamanhoParte + " bytes");
+		}
+	}
+
+	@Test
+	void arquivoVazioNaoTemPalavras() throws IOException {
+		assertEquals(new ArmazemConteudo.Contagem(0, 0), ArmazemConteudo.contar(texto(""), 4));
+	}
+
+	@Test
+	void textoTravadoPorOutraExecucaoFicaForaDoSemTexto() throws IOException {
+		BancoSimulado banco = new BancoSimulado();
+		ArmazemConteudo armazem = new ArmazemConteudo(banco, mock(ConsumoApi.class), mock(CacheSegundoNivel.class),
+				"http://localhost/books/", diretorio, false);
+
+		ArmazemConteudo.RelatorioConteudo relatorio;
+		try (FileChannel canal = FileChannel.open(diretorio.resolve("7.txt.parcial"),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			 FileLock trava = canal.lock()) {
+			relatorio = armazem.baixar(List.of(7), 10, 1);
+		}
+		assertEquals(1, relatorio.arquivosEmUso());
+		assertEquals(0, relatorio.arquivosNoDisco());
+		assertEquals(0, relatorio.semTexto());
+		assertEquals(0, relatorio.falhas());
+		assertEquals(0, relatorio.livrosContados());
+
+		// Quando a outra execução termina, a próxima encontra o texto no disco e o conta.
+		Files.writeString(diretorio.resolve("7.txt"), "um dois três");
+		relatorio = armazem.baixar(List.of(7), 10, 1);
+		assertEquals(0, relatorio.arquivosEmUso());
+		assertEquals(1, relatorio.arquivosNoDisco());
+		assertEquals(1, relatorio.livrosContados());
+		assertEquals(3, relatorio.palavras());
+		assertEquals(List.of(List.of(3L, 12L, 1L)), banco.contagensGravadas);
+	}
+
+	@Test
+	void downloadRetomadoViraOArquivoFinalSemDeixarOParcial() throws IOException {
+		ConsumoApi consumo = mock(ConsumoApi.class);
+		// O .parcial já tem os 5 primeiros bytes; o servidor devolve o restante.
+		when(consumo.obterFluxoAPartirDe("http://localhost/files/7.txt", 5)).thenReturn(new ConsumoApi.FluxoParcial(206, 5,
+				new ByteArrayInputStream("is três".getBytes(StandardCharsets.UTF_8))));
+		Files.writeString(diretorio.resolve("7.txt.parcial"), "um do");
+		ArmazemConteudo armazem = new ArmazemConteudo(new BancoSimulado(), consumo, mock(CacheSegundoNivel.class),
+				"http://localhost/books/", diretorio, false);
+
+		ArmazemConteudo.RelatorioConteudo relatorio = armazem.baixar(List.of(7), 10, 1);
+
+		assertEquals(1, relatorio.arquivosBaixados());
+		assertEquals(8, relatorio.bytesBaixados());
+		assertEquals(3, relatorio.palavras());
+		assertEquals("um dois três", Files.readString(diretorio.resolve("7.txt")));
+		assertFalse(Files.exists(diretorio.resolve("7.txt.parcial")));
+	}
+
+	private Path texto(String conteudo) throws IOException {
+		return Files.writeString(diretorio.resolve("texto.txt"), conteudo, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Devolve um livro com texto puro e sem contagem e guarda as contagens gravadas.
+	 */
+	private static class BancoSimulado extends JdbcTemplate {
+		final List<List<Object>> contagensGravadas = new ArrayList<>();
+
+		@Override
+		public <T> List<T> query(String sql, RowMapper<T> mapeador, Object... parametros) {
+			try {
+				ResultSet linha = mock(ResultSet.class);
+				when(linha.getLong("id")).thenReturn(1L);
+				when(linha.getInt("gutendex_id")).thenReturn(7);
+				when(linha.getString("text_url")).thenReturn("http://localhost/files/7.txt");
+				return List.of(mapeador.mapRow(linha, 0));
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public int update(String sql, Object... parametros) {
+			contagensGravadas.add(List.of(parametros));
+			return 1;
+		}
+	}
+}
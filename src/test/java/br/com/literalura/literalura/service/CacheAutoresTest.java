@@ -0,0 +1,148 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa a internação de autores: nomes equivalentes viram uma única instância, autores gravados em uma
+ * transação só entram no cache depois do commit, e o cache é esvaziado ao passar do tamanho máximo
+ * ou quando pedido (como faz o benchmark de ingestão entre as medições).
+ */
+class CacheAutoresTest {
+
+	private final BancoSimulado banco = new BancoSimulado();
+	private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+
+	@AfterEach
+	void encerrarTransacao() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void nomesEquivalentesViramUmaInstanciaComId() {
+		CacheAutores cache = new CacheAutores(banco, metricas);
+
+		Map<String, Author> primeira = cache.resolver(List.of(autor("Assis, Machado de"), autor("ASSIS,  Machado  de."),
+				autor("Austen, Jane"), autor(null)));
+		assertEquals(List.of("assis machado de", "austen jane"), List.copyOf(primeira.keySet()));
+		assertNotNull(primeira.get("assis machado de").getId());
+		assertEquals(1, banco.instrucoes);
+
+		Map<String, Author> segunda = cache.resolver(List.of(autor("Austen, Jane")));
+		assertSame(primeira.get("austen jane"), segunda.get("austen jane"));
+		assertEquals(1, banco.instrucoes);
+		assertEquals(1, metricas.get("literalura.autores.cache").tag("resultado", "acerto").counter().count());
+		assertEquals(2, metricas.get("literalura.autores.cache").tag("resultado", "falta").counter().count());
+	}
+
+	@Test
+	void autoresDeUmaTransacaoSoEntramNoCacheDepoisDoCommit() {
+		CacheAutores cache = new CacheAutores(banco, metricas);
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.resolver(List.of(autor("Austen, Jane")));
+		assertEquals(0, cache.tamanho());
+		// Transação desfeita: nada é internado e o próximo lote volta ao banco.
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		TransactionSynchronizationManager.clearSynchronization();
+		assertEquals(0, cache.tamanho());
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.resolver(List.of(autor("Austen, Jane")));
+		assertEquals(2, banco.instrucoes);
+		assertEquals(0, cache.tamanho());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+		assertEquals(1, cache.tamanho());
+
+		cache.resolver(List.of(autor("Austen, Jane")));
+		assertEquals(2, banco.instrucoes);
+	}
+
+	@Test
+	void esvaziaOCacheAoPassarDoTamanhoMaximo() {
+		CacheAutores cache = new CacheAutores(banco, metricas, 3);
+
+		cache.resolver(List.of(autor("A"), autor("B")));
+		assertEquals(2, cache.tamanho());
+		cache.resolver(List.of(autor("C")));
+		assertEquals(3, cache.tamanho());
+		// 3 + 2 passa do limite: o cache é esvaziado e fica só com o lote novo.
+		cache.resolver(List.of(autor("D"), autor("E")));
+		assertEquals(2, cache.tamanho());
+
+		int instrucoes = banco.instrucoes;
+		cache.resolver(List.of(autor("E")));
+		assertEquals(instrucoes, banco.instrucoes);
+		cache.resolver(List.of(autor("A")));
+		assertEquals(instrucoes + 1, banco.instrucoes);
+	}
+
+	@Test
+	void esvaziarFazOsAutoresVoltaremAoBanco() {
+		CacheAutores cache = new CacheAutores(banco, metricas);
+		cache.resolver(List.of(autor("Austen, Jane")));
+		cache.esvaziar();
+
+		assertEquals(0, cache.tamanho());
+		cache.resolver(List.of(autor("Austen, Jane")));
+		assertEquals(2, banco.instrucoes);
+	}
+
+	private static Author autor(String nome) {
+		Author autor = new Author();
+		autor.setName(nome);
+		return autor;
+	}
+
+	/**
+	 * Simula o upsert de autores: dá um id novo a cada nome normalizado e devolve o mesmo id nas repetições.
+	 */
+	private static class BancoSimulado extends JdbcTemplate {
+		final Map<String, Long> ids = new HashMap<>();
+		int instrucoes;
+
+		@Override
+		public void query(String sql, RowCallbackHandler linhas, Object... parametros) {
+			instrucoes++;
+			List<String> chaves = new ArrayList<>();
+			// Cada autor ocupa 4 parâmetros: nome, nome normalizado, nascimento e falecimento.
+			for (int i = 1; i < parametros.length; i += 4) {
+				chaves.add((String) ((SqlParameterValue) parametros[i]).getValue());
+			}
+			try {
+				for (String chave : chaves) {
+					ResultSet linha = mock(ResultSet.class);
+					when(linha.getString("normalized_name")).thenReturn(chave);
+					when(linha.getLong("id")).thenReturn(ids.computeIfAbsent(chave, c -> ids.size() + 1L));
+					linhas.processRow(linha);
+				}
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
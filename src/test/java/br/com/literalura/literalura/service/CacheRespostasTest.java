@@ -0,0 +1,123 @@
+package br.com.literalura.literalura.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testa as duas camadas do cache de respostas: a expulsão LRU da memória, o tempo de vida, a leitura
+ * do disco por outra instância, a rejeição de colisões de hash e o limite de tamanho do diretório.
+ */
+class CacheRespostasTest {
+
+	@TempDir
+	Path diretorio;
+
+	private final AtomicLong agora = new AtomicLong(1_000_000);
+
+	@Test
+	void entradaExpulsaDaMemoriaVoltaDoDisco() {
+		CacheRespostas cache = cache(2, DataSize.ofMegabytes(1));
+		cache.guardar("a", "corpo a");
+		cache.guardar("b", "corpo b");
+		cache.obter("a");
+		// "b" é a menos usada e sai da memória quando "c" entra.
+		cache.guardar("c", "corpo c");
+
+		assertEquals(Optional.of("corpo b"), cache.obter("b"));
+		assertEquals(new CacheRespostas.Estatisticas(1, 1, 0, 2), cache.estatisticas());
+	}
+
+	@Test
+	void entradaExpiradaNaoEDevolvidaNemGuardadaEmDisco() throws IOException {
+		CacheRespostas cache = cache(10, DataSize.ofMegabytes(1));
+		cache.guardar("a", "corpo a");
+		agora.addAndGet(Duration.ofMinutes(59).toMillis());
+		assertEquals(Optional.of("corpo a"), cache.obter("a"));
+
+		agora.addAndGet(Duration.ofMinutes(2).toMillis());
+		assertEquals(Optional.empty(), cache.obter("a"));
+		assertEquals(Optional.empty(), cache(10, DataSize.ofMegabytes(1)).obter("a"));
+		assertEquals(List.of(), arquivos());
+	}
+
+	@Test
+	void outraInstanciaLeODisco() {
+		cache(10, DataSize.ofMegabytes(1)).guardar("https://gutendex.com/books/?ids=1", "{\"count\":1} ção");
+
+		CacheRespostas reiniciado = cache(10, DataSize.ofMegabytes(1));
+
+		assertEquals(Optional.of("{\"count\":1} ção"), reiniciado.obter("https://gutendex.com/books/?ids=1"));
+		assertEquals(1, reiniciado.estatisticas().acertosDisco());
+	}
+
+	@Test
+	void arquivoDeOutraUrlNaoEDevolvido() throws IOException {
+		CacheRespostas cache = cache(10, DataSize.ofMegabytes(1));
+		cache.guardar("a", "corpo a");
+		// Simula uma colisão: o arquivo de "b" passa a conter a entrada de "a".
+		Files.copy(cache.arquivoDe("a"), cache.arquivoDe("b"), StandardCopyOption.REPLACE_EXISTING);
+
+		assertEquals(Optional.empty(), cache(10, DataSize.ofMegabytes(1)).obter("b"));
+	}
+
+	@Test
+	void diretorioPassandoDoLimiteApagaOsMaisAntigos() throws IOException {
+		// Cada entrada ocupa pouco mais de 1 KB; o limite comporta 3.
+		CacheRespostas cache = cache(1, DataSize.ofBytes(3_500));
+		for (String endereco : List.of("a", "b", "c", "d", "e")) {
+			cache.guardar(endereco, "x".repeat(1_000));
+			agora.addAndGet(1_000);
+		}
+
+		CacheRespostas reiniciado = cache(1, DataSize.ofBytes(3_500));
+		assertEquals(Optional.empty(), reiniciado.obter("a"));
+		assertEquals(Optional.empty(), reiniciado.obter("b"));
+		assertTrue(reiniciado.obter("d").isPresent());
+		assertTrue(reiniciado.obter("e").isPresent());
+		long total = 0;
+		for (Path arquivo : arquivos()) {
+			total += Files.size(arquivo);
+		}
+		assertTrue(total <= 3_500, "ocupa " + total + " bytes");
+	}
+
+	@Test
+	void limpezaApagaExpiradosETemporariosAbandonados() throws IOException {
+		Files.createDirectories(diretorio);
+		Path abandonado = Files.createTempFile(diretorio, "entrada", ".tmp");
+		Files.setLastModifiedTime(abandonado, FileTime.fromMillis(agora.get()));
+		CacheRespostas cache = cache(10, DataSize.ofMegabytes(1));
+		cache.guardar("a", "corpo a");
+
+		agora.addAndGet(Duration.ofHours(2).toMillis());
+		// A primeira gravação de uma nova execução limpa o diretório.
+		cache(10, DataSize.ofMegabytes(1)).guardar("b", "corpo b");
+
+		assertEquals(List.of(cache.arquivoDe("b")), arquivos());
+	}
+
+	private CacheRespostas cache(int maxEntradas, DataSize maxDisco) {
+		return new CacheRespostas(true, maxEntradas, Duration.ofHours(1), diretorio, maxDisco, agora::get);
+	}
+
+	private List<Path> arquivos() throws IOException {
+		try (Stream<Path> conteudo = Files.list(diretorio)) {
+			return conteudo.toList();
+		}
+	}
+}
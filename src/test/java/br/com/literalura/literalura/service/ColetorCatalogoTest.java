@@ -0,0 +1,148 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testa a coleta paginada contra um servidor HTTP local que imita a paginação da Gutendex:
+ * lotes que atravessam páginas, o checkpoint depois de uma página com erro e uma página cujo
+ * leitor termina com um Error.
+ */
+class ColetorCatalogoTest {
+
+	private static final int PAGINAS = 4;
+	private static final int LIVROS_POR_PAGINA = 3;
+
+	@TempDir
+	Path checkpoints;
+
+	private HttpServer servidor;
+	private String endereco;
+	// Página que responde 404, como a API faz para uma página que não existe (0 = nenhuma).
+	private volatile int paginaComErro;
+
+	@BeforeEach
+	void iniciarServidor() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		servidor.setExecutor(Executors.newCachedThreadPool());
+		servidor.createContext("/books", this::responder);
+		servidor.start();
+		endereco = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/books/?search=teste";
+	}
+
+	@AfterEach
+	void pararServidor() {
+		servidor.stop(0);
+	}
+
+	private void responder(HttpExchange troca) throws IOException {
+		String consulta = troca.getRequestURI().getQuery();
+		int pagina = consulta.contains("page=") ? Integer.parseInt(consulta.replaceAll(".*page=(\\d+).*", "$1")) : 1;
+		int status = pagina == paginaComErro ? 404 : 200;
+		String corpo;
+		if (status == 404) {
+			corpo = "{\"detail\":\"Invalid page.\"}";
+		} else {
+			StringJoiner livros = new StringJoiner(",");
+			for (int i = 1; i <= LIVROS_POR_PAGINA; i++) {
+				int id = (pagina - 1) * LIVROS_POR_PAGINA + i;
+				livros.add("{\"id\":" + id + ",\"title\":\"Livro " + id + "\",\"authors\":[],\"languages\":[\"en\"]}");
+			}
+			String proxima = pagina < PAGINAS ? "\"" + endereco + "&page=" + (pagina + 1) + "\"" : "null";
+			corpo = "{\"count\":" + PAGINAS * LIVROS_POR_PAGINA + ",\"next\":" + proxima + ",\"results\":[" + livros + "]}";
+		}
+		byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+		troca.sendResponseHeaders(status, bytes.length);
+		try (OutputStream saida = troca.getResponseBody()) {
+			saida.write(bytes);
+		}
+	}
+
+	@Test
+	void lotesAtravessamPaginas() {
+		List<List<Integer>> lotes = new ArrayList<>();
+		ColetorCatalogo coletor = new ColetorCatalogo(new ConsumoApi(), new ConverteDados(), 2, 5, checkpoints);
+
+		ColetorCatalogo.ResultadoColeta resultado = coletor.coletar(endereco, guardarIds(lotes));
+
+		assertEquals(List.of(5, 5, 2), lotes.stream().map(List::size).toList());
+		assertEquals(12, lotes.stream().flatMap(List::stream).distinct().count());
+		assertTrue(resultado.completa());
+		assertEquals(PAGINAS, resultado.paginasProcessadas());
+		assertEquals(12, resultado.livrosRecebidos());
+		assertEquals(0, new CheckpointColeta(checkpoints, endereco).ultimaPaginaConfirmada());
+	}
+
+	@Test
+	void paginaComErroNaoEConfirmada() {
+		paginaComErro = 3;
+		List<List<Integer>> lotes = new ArrayList<>();
+		// Uma página por vez, para que a página 4 não seja pedida depois da falha.
+		ColetorCatalogo coletor = new ColetorCatalogo(new ConsumoApi(), new ConverteDados(), 1, 100, checkpoints);
+
+		ColetorCatalogo.ResultadoColeta resultado = coletor.coletar(endereco, guardarIds(lotes));
+
+		assertFalse(resultado.completa());
+		assertEquals(1, resultado.paginasComFalha());
+		assertEquals(List.of(List.of(1, 2, 3, 4, 5, 6)), lotes);
+		assertEquals(2, new CheckpointColeta(checkpoints, endereco).ultimaPaginaConfirmada());
+
+		// A retomada começa na página que falhou.
+		paginaComErro = 0;
+		lotes.clear();
+		resultado = coletor.coletar(endereco, guardarIds(lotes));
+		assertTrue(resultado.completa());
+		assertEquals(List.of(List.of(7, 8, 9, 10, 11, 12)), lotes);
+	}
+
+	@Test
+	void errorAoLerUmaPaginaNaoTravaAColeta() {
+		AtomicInteger leituras = new AtomicInteger();
+		ConverteDados conversor = new ConverteDados() {
+			@Override
+			public <E, T> E obterDadosEmFluxo(InputStream json, Class<E> classeEnvelope, String campoLista,
+											  Class<T> classeItem, Consumer<T> consumidor) {
+				if (leituras.incrementAndGet() == 2) {
+					throw new StackOverflowError();
+				}
+				return super.obterDadosEmFluxo(json, classeEnvelope, campoLista, classeItem, consumidor);
+			}
+		};
+		ColetorCatalogo coletor = new ColetorCatalogo(new ConsumoApi(), conversor, 1, 100, checkpoints);
+
+		ColetorCatalogo.ResultadoColeta resultado = assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> coletor.coletar(endereco, livros -> {}));
+
+		assertFalse(resultado.completa());
+		assertEquals(1, resultado.paginasComFalha());
+		assertEquals(1, new CheckpointColeta(checkpoints, endereco).ultimaPaginaConfirmada());
+	}
+
+	private static Consumer<List<Book>> guardarIds(List<List<Integer>> lotes) {
+		return livros -> lotes.add(livros.stream().map(Book::getGutendexId).toList());
+	}
+}
@@ -0,0 +1,279 @@
+package br.com.literalura.literalura.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa a política de resiliência e o agrupamento de pedidos iguais do ConsumoApi contra um servidor
+ * HTTP local que simula falhas e lentidão da API.
+ */
+class ConsumoApiTest {
+
+	private HttpServer servidor;
+	private String endereco;
+	private final AtomicInteger chamadas = new AtomicInteger();
+	private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+
+	// Comportamento da n-ésima chamada (começando em 1): status e atraso da resposta.
+	private volatile RespostaSimulada comportamento = n -> new int[]{200, 0};
+
+	interface RespostaSimulada {
+		int[] para(int chamada);
+	}
+
+	@BeforeEach
+	void iniciarServidor() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		servidor.setExecutor(Executors.newCachedThreadPool());
+		servidor.createContext("/books", this::responder);
+		servidor.start();
+		endereco = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/books";
+	}
+
+	@AfterEach
+	void pararServidor() {
+		servidor.stop(0);
+	}
+
+	private void responder(HttpExchange troca) throws IOException {
+		int[] resposta = comportamento.para(chamadas.incrementAndGet());
+		try {
+			Thread.sleep(resposta[1]);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		byte[] corpo = ("{\"status\":" + resposta[0] + "}").getBytes(StandardCharsets.UTF_8);
+		troca.sendResponseHeaders(resposta[0], corpo.length);
+		try (OutputStream saida = troca.getResponseBody()) {
+			saida.write(corpo);
+		} catch (IOException e) {
+			// O cliente desistiu da requisição (ex: hedge perdedor cancelado).
+		}
+	}
+
+	private ConsumoApi consumo(int tentativas, Duration prazo, boolean hedge, Duration atrasoHedge, int limiteFalhas) {
+		PoliticaResiliencia politica = new PoliticaResiliencia(tentativas, Duration.ofMillis(10), Duration.ofMillis(50),
+				prazo, hedge, atrasoHedge, Duration.ofMillis(10), limiteFalhas, Duration.ofMinutes(1));
+		return new ConsumoApi(Duration.ofSeconds(2), Duration.ofSeconds(5), CacheRespostas.desabilitado(), politica, metricas);
+	}
+
+	@Test
+	void repeteAposErroDoServidor() {
+		comportamento = n -> new int[]{n < 3 ? 503 : 200, 0};
+		ConsumoApi consumo = consumo(3, Duration.ofSeconds(10), false, Duration.ofSeconds(1), 5);
+
+		assertEquals("{\"status\":200}", consumo.obterDados(endereco));
+		assertEquals(3, chamadas.get());
+		assertEquals(2, consumo.estatisticasResiliencia().tentativasRepetidas());
+	}
+
+	@Test
+	void naoRepeteErroDoCliente() {
+		comportamento = n -> new int[]{404, 0};
+		ConsumoApi consumo = consumo(3, Duration.ofSeconds(10), false, Duration.ofSeconds(1), 5);
+
+		assertEquals("{\"status\":404}", consumo.obterDados(endereco));
+		assertEquals(1, chamadas.get());
+	}
+
+	@Test
+	void disjuntorAbreEFalhaSemIrARede() {
+		comportamento = n -> new int[]{500, 0};
+		ConsumoApi consumo = consumo(2, Duration.ofSeconds(10), false, Duration.ofSeconds(1), 2);
+
+		assertThrows(ApiIndisponivelException.class, () -> consumo.obterDados(endereco));
+		assertEquals(2, chamadas.get());
+		assertEquals(DisjuntorCircuito.Estado.ABERTO, consumo.estatisticasResiliencia().estadoDisjuntor());
+
+		assertThrows(ApiIndisponivelException.class, () -> consumo.obterDados(endereco));
+		assertEquals(2, chamadas.get());
+	}
+
+	@Test
+	void chamadaDeTesteInterrompidaNaoPrendeODisjuntorAberto() throws InterruptedException {
+		PoliticaResiliencia politica = new PoliticaResiliencia(1, Duration.ofMillis(10), Duration.ofMillis(50),
+				Duration.ofSeconds(10), false, Duration.ofSeconds(1), Duration.ofMillis(10), 1, Duration.ofMillis(50));
+		assertThrows(ApiIndisponivelException.class,
+				() -> politica.executar(() -> CompletableFuture.failedFuture(new IOException("recusada")), false));
+		assertEquals(DisjuntorCircuito.Estado.ABERTO, politica.estatisticas().estadoDisjuntor());
+		Thread.sleep(100);
+
+		// A chamada de teste do estado meio aberto é interrompida enquanto espera a resposta.
+		Thread.currentThread().interrupt();
+		assertThrows(ApiIndisponivelException.class, () -> politica.executar(CompletableFuture::new, false));
+		assertTrue(Thread.interrupted());
+		// A próxima também não chega a ter resposta: o envio falha antes de ir à rede.
+		assertThrows(IllegalStateException.class, () -> politica.executar(() -> {
+			throw new IllegalStateException("requisição inválida");
+		}, false));
+		assertEquals(DisjuntorCircuito.Estado.MEIO_ABERTO, politica.estatisticas().estadoDisjuntor());
+
+		// A vaga de teste foi liberada nas duas vezes: a chamada seguinte vai à API e fecha o disjuntor.
+		@SuppressWarnings("unchecked")
+		HttpResponse<String> resposta = mock(HttpResponse.class);
+		when(resposta.statusCode()).thenReturn(200);
+		assertEquals(resposta, politica.executar(() -> CompletableFuture.completedFuture(resposta), false));
+		assertEquals(DisjuntorCircuito.Estado.FECHADO, politica.estatisticas().estadoDisjuntor());
+	}
+
+	@Test
+	void hedgeRespondeAntesDaRequisicaoLenta() {
+		// A primeira requisição demora 3s; a duplicada, enviada após 100ms, responde na hora.
+		comportamento = n -> new int[]{200, n == 1 ? 3000 : 0};
+		ConsumoApi consumo = consumo(1, Duration.ofSeconds(10), true, Duration.ofMillis(100), 5);
+
+		long inicio = System.nanoTime();
+		assertEquals("{\"status\":200}", consumo.obterDados(endereco));
+		long decorrido = Duration.ofNanos(System.nanoTime() - inicio).toMillis();
+
+		assertTrue(decorrido < 2000, "a resposta deveria vir do hedge, mas levou " + decorrido + "ms");
+		assertEquals(1, consumo.estatisticasResiliencia().hedgesEnviados());
+		assertEquals(1, consumo.estatisticasResiliencia().hedgesVencedores());
+	}
+
+	@Test
+	void prazoTotalInterrompeRequisicaoLenta() {
+		comportamento = n -> new int[]{200, 3000};
+		ConsumoApi consumo = consumo(3, Duration.ofMillis(300), false, Duration.ofSeconds(1), 5);
+
+		long inicio = System.nanoTime();
+		assertThrows(ApiIndisponivelException.class, () -> consumo.obterDados(endereco));
+		long decorrido = Duration.ofNanos(System.nanoTime() - inicio).toMillis();
+
+		assertTrue(decorrido < 1500, "o prazo de 300ms deveria ter interrompido a chamada, mas levou " + decorrido + "ms");
+	}
+
+	@Test
+	void prazoEsgotadoCancelaARequisicaoEOHedge() {
+		PoliticaResiliencia politica = new PoliticaResiliencia(3, Duration.ofMillis(10), Duration.ofMillis(50),
+				Duration.ofMillis(200), true, Duration.ofMillis(20), Duration.ofMillis(10), 5, Duration.ofMinutes(1));
+		// Requisições que nunca respondem: a original e a duplicada do hedge.
+		List<CompletableFuture<HttpResponse<String>>> enviadas = new CopyOnWriteArrayList<>();
+		Supplier<CompletableFuture<HttpResponse<String>>> envio = () -> {
+			CompletableFuture<HttpResponse<String>> requisicao = new CompletableFuture<>();
+			enviadas.add(requisicao);
+			return requisicao;
+		};
+
+		assertThrows(ApiIndisponivelException.class, () -> politica.executar(envio, true));
+
+		assertEquals(2, enviadas.size());
+		assertTrue(enviadas.stream().allMatch(CompletableFuture::isCancelled), "as requisições pendentes deveriam ter sido canceladas");
+	}
+
+	@Test
+	void fluxoTambemRepeteAposErro() throws IOException {
+		comportamento = n -> new int[]{n == 1 ? 502 : 200, 0};
+		ConsumoApi consumo = consumo(3, Duration.ofSeconds(10), true, Duration.ofSeconds(1), 5);
+
+		try (var corpo = consumo.obterFluxo(endereco)) {
+			assertEquals("{\"status\":200}", new String(corpo.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertEquals(2, chamadas.get());
+		assertEquals(0, consumo.estatisticasResiliencia().hedgesEnviados());
+		assertEquals(14, metricas.get("literalura.http.bytes").summary().totalAmount());
+		assertEquals(1, metricas.get("literalura.http.requisicao").tag("tipo", "fluxo").timer().count());
+	}
+
+	@Test
+	void fluxoComRespostaDeErroLancaExcecao() {
+		comportamento = n -> new int[]{404, 0};
+		ConsumoApi consumo = consumo(3, Duration.ofSeconds(10), false, Duration.ofSeconds(1), 5);
+
+		assertThrows(ApiIndisponivelException.class, () -> consumo.obterFluxo(endereco));
+		assertEquals(1, chamadas.get());
+		assertEquals(1, metricas.get("literalura.http.requisicao").tag("tipo", "fluxo").tag("resultado", "falha").timer().count());
+	}
+
+	@Test
+	void pedidosIguaisSimultaneosCompartilhamUmaChamada() {
+		comportamento = n -> new int[]{200, 300};
+		ConsumoApi consumo = consumo(1, Duration.ofSeconds(10), false, Duration.ofSeconds(1), 5);
+		ExecutorService clientes = Executors.newFixedThreadPool(8);
+		try {
+			// Mesmo endereço, escrito de formas equivalentes (esquema em maiúsculas, parâmetros em outra ordem).
+			List<String> enderecos = List.of(endereco + "?search=a&page=1", endereco + "?page=1&search=a",
+					endereco.replace("http://", "HTTP://") + "?search=a&page=1");
+			List<CompletableFuture<String>> respostas = IntStream.range(0, 8)
+					.mapToObj(i -> CompletableFuture.supplyAsync(
+							() -> consumo.obterDados(enderecos.get(i % enderecos.size())), clientes))
+					.toList();
+			respostas.forEach(resposta -> assertEquals("{\"status\":200}", resposta.join()));
+		} finally {
+			clientes.shutdownNow();
+		}
+
+		assertEquals(1, chamadas.get());
+		assertEquals(7, metricas.get("literalura.http.agrupadas").tag("tipo", "chamada").counter().count());
+	}
+
+	@Test
+	void erroNaChamadaAgrupadaLiberaQuemEstaEsperando() {
+		ConsumoApi consumo = consumo(1, Duration.ofSeconds(10), false, Duration.ofSeconds(1), 5);
+		AtomicInteger conversoes = new AtomicInteger();
+		// A primeira conversão espera outro pedido igual se agrupar a ela e então falha com um Error.
+		IConverteDados conversor = new ConverteDados() {
+			@Override
+			public <T> T obterDados(String json, Class<T> classe) {
+				if (conversoes.incrementAndGet() == 1) {
+					while (metricas.get("literalura.http.agrupadas").tag("tipo", "conversao").counter().count() < 1) {
+						Thread.onSpinWait();
+					}
+					throw new StackOverflowError();
+				}
+				return super.obterDados(json, classe);
+			}
+		};
+
+		CompletableFuture<Object> primeiro = CompletableFuture.supplyAsync(
+				() -> consumo.obterConvertido(endereco, Map.class, conversor));
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			while (conversoes.get() == 0) {
+				Thread.onSpinWait();
+			}
+			assertThrows(StackOverflowError.class, () -> consumo.obterConvertido(endereco, Map.class, conversor));
+			CompletionException falha = assertThrows(CompletionException.class, primeiro::join);
+			assertInstanceOf(StackOverflowError.class, falha.getCause());
+		});
+
+		// A chave foi liberada: o próximo pedido converte de novo.
+		assertEquals(200, consumo.obterConvertido(endereco, Map.class, conversor).get("status"));
+	}
+
+	@Test
+	void normalizaEnderecosEquivalentes() {
+		assertEquals("https://gutendex.com/books/?ids=1,2&page=2",
+				ConsumoApi.normalizarEndereco("HTTPS://Gutendex.com:443/books/?page=2&ids=1,2"));
+		assertEquals("http://localhost:8089/",
+				ConsumoApi.normalizarEndereco("http://localhost:8089"));
+	}
+}
@@ -0,0 +1,107 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.AuthorLifespan;
+import br.com.literalura.literalura.repository.AuthorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa as contagens (árvores de Fenwick) e as listagens (árvore de intervalos) do índice de autores vivos
+ * nos anos de fronteira: o ano de nascimento e o de falecimento contam como vivos, e autores sem ano de
+ * nascimento ou com datas inconsistentes ficam de fora.
+ */
+class IndiceAutoresVivosTest {
+
+	private final List<AuthorLifespan> periodos = new ArrayList<>(List.of(
+			new AuthorLifespan(1L, 1800, 1850),
+			new AuthorLifespan(2L, 1850, 1900),  // nasce no ano em que o autor 1 morre
+			new AuthorLifespan(3L, 1880, null),  // sem falecimento: vivo desde 1880
+			new AuthorLifespan(4L, null, 1870),  // sem nascimento: ignorado
+			new AuthorLifespan(5L, 1900, 1890),  // falecimento antes do nascimento: ignorado
+			new AuthorLifespan(6L, 1820, 1820))); // viveu um único ano
+
+	private IndiceAutoresVivos indice;
+
+	@BeforeEach
+	void criarIndice() {
+		AuthorRepository repositorio = mock(AuthorRepository.class);
+		when(repositorio.findPeriodosDeVida()).thenReturn(periodos);
+		indice = new IndiceAutoresVivos(repositorio);
+	}
+
+	@Test
+	void contaOsAnosDeNascimentoEFalecimentoComoVivos() {
+		assertEquals(0, indice.contarVivosEm(1799));
+		assertEquals(1, indice.contarVivosEm(1800));
+		assertEquals(1, indice.contarVivosEm(1819));
+		assertEquals(2, indice.contarVivosEm(1820));
+		assertEquals(1, indice.contarVivosEm(1821));
+		assertEquals(2, indice.contarVivosEm(1850));
+		assertEquals(1, indice.contarVivosEm(1851));
+		assertEquals(2, indice.contarVivosEm(1880));
+		assertEquals(2, indice.contarVivosEm(1900));
+		assertEquals(1, indice.contarVivosEm(1901));
+		assertEquals(1, indice.contarVivosEm(2100));
+	}
+
+	@Test
+	void contaQuemViveuEmAlgumMomentoDoPeriodo() {
+		assertEquals(0, indice.contarVivosEntre(1700, 1799));
+		assertEquals(1, indice.contarVivosEntre(1700, 1800));
+		assertEquals(3, indice.contarVivosEntre(1810, 1860));
+		assertEquals(1, indice.contarVivosEntre(1901, 2000));
+	}
+
+	@Test
+	void listagemConcordaComAContagemEmCadaAno() {
+		int[] porAno = indice.contarPorAno(1790, 1910);
+		for (int ano = 1790; ano <= 1910; ano++) {
+			List<Long> esperados = vivosPorForcaBruta(ano, ano);
+			assertEquals(esperados.size(), porAno[ano - 1790], "contagem em " + ano);
+			assertEquals(esperados, ordenados(indice.listarVivosEntre(ano, ano)), "listagem em " + ano);
+		}
+		assertEquals(vivosPorForcaBruta(1815, 1855), ordenados(indice.listarVivosEntre(1815, 1855)));
+		assertEquals(List.of(), indice.listarVivosEntre(1900, 1800));
+	}
+
+	@Test
+	void incluiAutoresDeLotesIngeridosDepoisDaCarga() {
+		assertEquals(1, indice.contarVivosEm(1950));
+
+		Author novo = new Author();
+		novo.setId(7L);
+		novo.setBirthYear(1940);
+		novo.setDeathYear(1950);
+		Author repetido = new Author();
+		repetido.setId(3L);
+		repetido.setBirthYear(1880);
+		indice.aoIngerirLivros(new LivrosIngeridosEvent(List.of(), List.of(novo, repetido)));
+
+		assertEquals(2, indice.contarVivosEm(1950));
+		assertEquals(1, indice.contarVivosEm(1951));
+		assertEquals(List.of(3L, 7L), ordenados(indice.listarVivosEntre(1950, 1950)));
+		assertArrayEquals(new int[]{2, 1}, indice.contarPorAno(1950, 1951));
+	}
+
+	private List<Long> vivosPorForcaBruta(int anoInicial, int anoFinal) {
+		return periodos.stream()
+				.filter(p -> p.birthYear() != null && p.birthYear() <= anoFinal)
+				.filter(p -> p.deathYear() == null || (p.deathYear() >= anoInicial && p.deathYear() >= p.birthYear()))
+				.map(AuthorLifespan::id)
+				.sorted()
+				.toList();
+	}
+
+	private static List<Long> ordenados(List<Long> ids) {
+		return ids.stream().sorted().toList();
+	}
+}
@@ -0,0 +1,124 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import br.com.literalura.literalura.model.BookSummary;
+import br.com.literalura.literalura.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa a busca por prefixo, a ordenação por relevância e downloads, a busca por qualquer um dos autores
+ * e as atualizações incrementais do índice invertido, inclusive um lote que chega enquanto o índice
+ * ainda está sendo carregado do banco.
+ */
+class IndiceBuscaTest {
+
+	private final BookRepository repositorio = mock(BookRepository.class);
+	private IndiceBusca indice;
+
+	@BeforeEach
+	void criarIndice() {
+		when(repositorio.findResumos()).thenReturn(List.of(
+				new BookSummary(1L, "Pride and Prejudice", "Austen, Jane", "en", 50_000),
+				new BookSummary(2L, "Dom Casmurro", "Assis, Machado de", "pt", 3_000),
+				new BookSummary(3L, "Memórias Póstumas de Brás Cubas", "Assis, Machado de", "pt", 2_000),
+				new BookSummary(4L, "The Prideful Heart", "Doe, John", "en", 100),
+				new BookSummary(5L, "Machado's Letters", "Roe, Richard", "en", 10)));
+		indice = new IndiceBusca(repositorio);
+	}
+
+	@Test
+	void encontraTermosPorPrefixoIgnorandoAcentosEMaiusculas() {
+		assertEquals(List.of(1L, 4L), ids(indice.buscar("PRID", 10)));
+		assertEquals(List.of(3L), ids(indice.buscar("bras cub", 10)));
+		assertEquals(List.of(), ids(indice.buscar("xyz", 10)));
+		assertEquals(List.of(), ids(indice.buscar("  ", 10)));
+	}
+
+	@Test
+	void exigeTodosOsTermosDaBusca() {
+		assertEquals(List.of(3L), ids(indice.buscar("machado memorias", 10)));
+		assertEquals(List.of(), ids(indice.buscar("austen casmurro", 10)));
+	}
+
+	@Test
+	void ordenaPorRelevanciaEDepoisPorDownloads() {
+		// "pride" exato no título vale mais que o prefixo de "prideful", mesmo com menos downloads.
+		assertEquals(List.of(1L, 4L), ids(indice.buscar("pride", 10)));
+		// "machado" no título (5) vale mais que no autor (2 e 3); entre os autores, desempata pelos downloads.
+		assertEquals(List.of(5L, 2L, 3L), ids(indice.buscar("machado", 10)));
+		assertEquals(List.of(5L, 2L), ids(indice.buscar("machado", 2)));
+	}
+
+	@Test
+	void aplicaLotesIngeridosEDownloadsAtualizados() {
+		indice.buscar("pride", 10);
+
+		Author autor = new Author();
+		autor.setName("Brontë, Charlotte");
+		Book livro = new Book();
+		livro.setId(6L);
+		livro.setTitle("Jane Eyre");
+		livro.setAuthor(autor);
+		livro.setDownloadCount(40_000);
+		indice.aoIngerirLivros(new LivrosIngeridosEvent(List.of(livro), List.of(autor)));
+		// "jane" no título do livro novo vale mais que no nome da autora do livro 1.
+		assertEquals(List.of(6L, 1L), ids(indice.buscar("jane", 10)));
+
+		indice.aoAtualizarDownloads(new DownloadsAtualizadosEvent(Map.of(3L, 9_000)));
+		assertEquals(List.of(5L, 3L, 2L), ids(indice.buscar("machado", 10)));
+	}
+
+	@Test
+	void encontraLivrosPorQualquerUmDosAutores() {
+		when(repositorio.findResumos()).thenReturn(List.of(
+				new BookSummary(1L, "Good Omens", "Pratchett, Terry; Gaiman, Neil", "en", 8_000)));
+		indice = new IndiceBusca(repositorio);
+		assertEquals(List.of(1L), ids(indice.buscar("gaiman", 10)));
+
+		Author primeiro = new Author();
+		primeiro.setName("Engels, Friedrich");
+		Author segundo = new Author();
+		segundo.setName("Marx, Karl");
+		Book livro = new Book();
+		livro.setId(2L);
+		livro.setTitle("The Communist Manifesto");
+		livro.setAuthors(List.of(primeiro, segundo));
+		indice.aoIngerirLivros(new LivrosIngeridosEvent(List.of(livro), List.of(primeiro, segundo)));
+		assertEquals(List.of(2L), ids(indice.buscar("marx", 10)));
+		assertEquals("Engels, Friedrich; Marx, Karl", indice.buscar("engels", 10).get(0).authorName());
+	}
+
+	@Test
+	void naoPerdeLoteGravadoDuranteACarga() throws InterruptedException {
+		Book livro = new Book();
+		livro.setId(7L);
+		livro.setTitle("Wuthering Heights");
+		Thread[] evento = new Thread[1];
+		// O lote é publicado depois que a consulta da carga já leu o banco, mas antes de a carga terminar.
+		when(repositorio.findResumos()).thenAnswer(chamada -> {
+			evento[0] = new Thread(() -> indice.aoIngerirLivros(new LivrosIngeridosEvent(List.of(livro), List.of())));
+			evento[0].start();
+			while (evento[0].getState() != Thread.State.WAITING && evento[0].isAlive()) {
+				Thread.onSpinWait();
+			}
+			return List.of(new BookSummary(1L, "Pride and Prejudice", "Austen, Jane", "en", 50_000));
+		});
+
+		assertEquals(List.of(1L), ids(indice.buscar("pride", 10)));
+		evento[0].join();
+		assertEquals(List.of(7L), ids(indice.buscar("wuthering", 10)));
+	}
+
+	private static List<Long> ids(List<BookSummary> livros) {
+		return livros.stream().map(BookSummary::id).toList();
+	}
+}
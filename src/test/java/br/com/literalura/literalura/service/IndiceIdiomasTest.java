@@ -0,0 +1,135 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa os filtros E / OU e as contagens do índice de bitmaps de idiomas, carregado de um banco simulado,
+ * e as atualizações feitas pelos lotes ingeridos.
+ */
+class IndiceIdiomasTest {
+
+	// Dicionário de idiomas e associações livro → idioma, como nas tabelas idiomas e livro_idiomas.
+	private static final Map<Short, String> IDIOMAS = Map.of((short) 1, "en", (short) 2, "fr", (short) 3, "pt");
+	private static final long[][] LIVRO_IDIOMAS = {{1, 1}, {2, 1}, {2, 2}, {3, 2}, {4, 3}};
+
+	private Runnable duranteACarga = () -> {};
+	private final IndiceIdiomas indice = new IndiceIdiomas(new BancoSimulado());
+
+	@Test
+	void filtraLivrosEmTodosOuEmAlgumDosIdiomas() {
+		assertEquals(bits(2), indice.livrosEmTodos(List.of("en", "fr")));
+		assertEquals(bits(1, 2, 3), indice.livrosEmAlgum(List.of("en", "fr")));
+		assertEquals(bits(1, 2), indice.livrosEmTodos(List.of(" EN ")));
+		assertEquals(bits(1, 2, 3, 4), indice.livrosEmAlgum(List.of("en", "fr", "pt")));
+		assertEquals(bits(), indice.livrosEmTodos(List.of("en", "pt")));
+	}
+
+	@Test
+	void idiomaDesconhecidoOuListaVaziaNaoEncontraLivros() {
+		assertEquals(bits(), indice.livrosEmTodos(List.of("de")));
+		assertEquals(bits(), indice.livrosEmTodos(List.of("en", "de")));
+		assertEquals(bits(4), indice.livrosEmAlgum(List.of("pt", "de")));
+		assertEquals(bits(), indice.livrosEmAlgum(List.of()));
+	}
+
+	@Test
+	void alterarOResultadoNaoAfetaOIndice() {
+		indice.livrosEmAlgum(List.of("en")).clear();
+		indice.livrosEmTodos(List.of("fr")).set(99);
+		assertEquals(bits(1, 2), indice.livrosEmAlgum(List.of("en")));
+		assertEquals(bits(2, 3), indice.livrosEmTodos(List.of("fr")));
+	}
+
+	@Test
+	void contaOsLivrosDeCadaIdioma() {
+		assertEquals(2, indice.contar("FR"));
+		assertEquals(0, indice.contar("de"));
+		// Empates ficam em ordem alfabética.
+		assertEquals(List.of(Map.entry("en", 2), Map.entry("fr", 2), Map.entry("pt", 1)),
+				List.copyOf(indice.contarPorIdioma().entrySet()));
+	}
+
+	@Test
+	void incluiLivrosDeLotesIngeridosDepoisDaCarga() {
+		indice.contar("en");
+		indice.aoIngerirLivros(new LivrosIngeridosEvent(List.of(livro(5L, "de", "en")), List.of()));
+
+		assertEquals(bits(5), indice.livrosEmTodos(List.of("de", "en")));
+		assertEquals(3, indice.contar("en"));
+		assertEquals(List.of("en", "fr", "de", "pt"), List.copyOf(indice.contarPorIdioma().keySet()));
+	}
+
+	@Test
+	void naoPerdeLoteGravadoDuranteACarga() throws InterruptedException {
+		Thread[] evento = new Thread[1];
+		// O lote é publicado depois que a carga já leu livro_idiomas, mas antes de ela terminar.
+		duranteACarga = () -> {
+			evento[0] = new Thread(() -> indice.aoIngerirLivros(new LivrosIngeridosEvent(List.of(livro(6L, "pt")), List.of())));
+			evento[0].start();
+			while (evento[0].getState() != Thread.State.WAITING && evento[0].isAlive()) {
+				Thread.onSpinWait();
+			}
+		};
+
+		indice.contar("pt");
+		evento[0].join();
+		assertEquals(bits(4, 6), indice.livrosEmTodos(List.of("pt")));
+	}
+
+	private static Book livro(long id, String... idiomas) {
+		Book livro = new Book();
+		livro.setId(id);
+		livro.setLanguages(List.of(idiomas));
+		return livro;
+	}
+
+	private static BitSet bits(int... ids) {
+		BitSet bits = new BitSet();
+		for (int id : ids) {
+			bits.set(id);
+		}
+		return bits;
+	}
+
+	/**
+	 * Responde às duas consultas da carga do índice com as linhas das constantes acima.
+	 */
+	private class BancoSimulado extends JdbcTemplate {
+		@Override
+		public void query(String sql, RowCallbackHandler linhas) {
+			try {
+				if (sql.contains("FROM idiomas")) {
+					for (Map.Entry<Short, String> idioma : IDIOMAS.entrySet()) {
+						ResultSet linha = mock(ResultSet.class);
+						when(linha.getShort("id")).thenReturn(idioma.getKey());
+						when(linha.getString("codigo")).thenReturn(idioma.getValue());
+						linhas.processRow(linha);
+					}
+				} else {
+					for (long[] associacao : LIVRO_IDIOMAS) {
+						ResultSet linha = mock(ResultSet.class);
+						when(linha.getLong("livro_id")).thenReturn(associacao[0]);
+						when(linha.getShort("idioma_id")).thenReturn((short) associacao[1]);
+						linhas.processRow(linha);
+					}
+					duranteACarga.run();
+				}
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa que títulos e nomes maiores que as colunas VARCHAR(255) são cortados antes de entrarem no
+ * INSERT de várias linhas, em vez de fazerem o lote inteiro falhar no banco.
+ */
+class IngestaoLivrosTest {
+
+	private final BancoSimulado banco = new BancoSimulado();
+	private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+	private final IngestaoLivros ingestao = new IngestaoLivros(banco, new CacheAutores(banco, metricas),
+			mock(ApplicationEventPublisher.class), metricas);
+
+	@Test
+	void tituloENomeMaioresQueAColunaSaoCortados() {
+		// 254 letras + um emoji (2 chars) + mais texto: o corte não pode separar o emoji.
+		String tituloLongo = "a".repeat(254) + "🙂" + "b".repeat(100);
+		Book longo = livro(1, tituloLongo, "Autor " + "x".repeat(400));
+		Book curto = livro(2, "Dom Casmurro", "Assis, Machado de");
+
+		List<Book> inseridos = ingestao.ingerir(List.of(longo, curto));
+
+		assertEquals(2, inseridos.size());
+		assertEquals(List.of("a".repeat(254) + "🙂", "Dom Casmurro"), banco.titulos);
+		assertEquals(255, banco.titulos.get(0).codePointCount(0, banco.titulos.get(0).length()));
+		assertEquals(255, banco.nomes.get(0).length());
+		assertEquals("Assis, Machado de", banco.nomes.get(1));
+		assertEquals(banco.nomes.get(0), longo.getAuthor().getName());
+	}
+
+	@Test
+	void titulosIguaisDepoisDoCorteEntramUmaVez() {
+		String comeco = "c".repeat(255);
+		List<Book> inseridos = ingestao.ingerir(List.of(livro(1, comeco + " volume 1", "A"), livro(2, comeco + " volume 2", "A")));
+
+		assertEquals(1, inseridos.size());
+		assertEquals(List.of(comeco), banco.titulos);
+	}
+
+	private static Book livro(int gutendexId, String titulo, String autor) {
+		Author pessoa = new Author();
+		pessoa.setName(autor);
+		Book livro = new Book();
+		livro.setGutendexId(gutendexId);
+		livro.setTitle(titulo);
+		livro.setAuthors(List.of(pessoa));
+		return livro;
+	}
+
+	/**
+	 * Guarda os títulos e nomes enviados nos INSERTs e devolve ids novos, como o RETURNING do banco.
+	 * Títulos repetidos são ignorados, como o ON CONFLICT DO NOTHING na restrição única de title.
+	 */
+	private static class BancoSimulado extends JdbcTemplate {
+		final List<String> titulos = new ArrayList<>();
+		final List<String> nomes = new ArrayList<>();
+		private final Set<String> titulosGravados = new HashSet<>();
+		private long proximoId = 1;
+
+		@Override
+		public <T> List<T> queryForList(String sql, Class<T> tipo, Object... parametros) {
+			// Nenhum gutendexId do lote está cadastrado.
+			return List.of();
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler linhas, Object... parametros) {
+			try {
+				if (sql.startsWith("INSERT INTO autores")) {
+					// Cada autor ocupa 4 parâmetros: nome, nome normalizado, nascimento e falecimento.
+					for (int i = 0; i < parametros.length; i += 4) {
+						nomes.add((String) valor(parametros[i]));
+						linhas.processRow(linha("normalized_name", valor(parametros[i + 1]), proximoId++));
+					}
+				} else if (sql.startsWith("INSERT INTO livros")) {
+					// Cada livro ocupa 7 parâmetros: o título é o primeiro e o gutendexId, o quinto.
+					for (int i = 0; i < parametros.length; i += 7) {
+						String titulo = (String) valor(parametros[i]);
+						if (titulosGravados.add(titulo)) {
+							titulos.add(titulo);
+							linhas.processRow(linha("gutendex_id", valor(parametros[i + 4]), proximoId++));
+						}
+					}
+				}
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public int update(String sql, Object... parametros) {
+			return 0;
+		}
+
+		private static Object valor(Object parametro) {
+			return ((SqlParameterValue) parametro).getValue();
+		}
+
+		private static ResultSet linha(String coluna, Object valor, long id) throws SQLException {
+			ResultSet linha = mock(ResultSet.class);
+			when(linha.getLong("id")).thenReturn(id);
+			if (valor instanceof Integer inteiro) {
+				when(linha.getInt(coluna)).thenReturn(inteiro);
+			} else {
+				when(linha.getString(coluna)).thenReturn((String) valor);
+			}
+			return linha;
+		}
+	}
+}
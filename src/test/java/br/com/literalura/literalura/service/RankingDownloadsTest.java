@@ -0,0 +1,134 @@
+package br.com.literalura.literalura.service;
+
+import br.com.literalura.literalura.model.Author;
+import br.com.literalura.literalura.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa os rankings de downloads carregados de um banco simulado: a ordem com empates, o "top" de vários
+ * autores intercalado pela fila de prioridade (sem repetir livros com mais de um desses autores) e a
+ * nova ordem depois de uma atualização de downloads ou de um lote ingerido.
+ */
+class RankingDownloadsTest {
+
+	// Livro → downloads, idiomas e autores, como nas tabelas livros, livro_idiomas e livro_autores.
+	private static final Object[][] LIVROS = {
+			{1L, 500, List.of("en"), List.of(10L)},
+			{2L, 300, List.of("en", "fr"), List.of(10L, 20L)},
+			{3L, 400, List.of("fr"), List.of(20L)},
+			{4L, 300, List.of("pt"), List.of(30L)},
+			{5L, null, List.of("pt"), List.of(20L)},
+			{6L, 100, List.of("en"), List.of(40L)}};
+
+	private final RankingDownloads ranking = new RankingDownloads(new BancoSimulado());
+
+	@Test
+	void ordenaPorDownloadsComEmpatePeloMenorId() {
+		assertEquals(List.of(1L, 3L, 2L, 4L, 6L), ids(ranking.top(10)));
+		assertEquals(List.of(1L, 3L), ids(ranking.top(2)));
+		assertEquals(5, ranking.tamanho());
+		assertEquals(List.of(1L, 2L, 6L), ids(ranking.topPorIdioma(" EN", 10)));
+		assertEquals(List.of(3L, 2L), ids(ranking.topPorIdioma("fr", 10)));
+		assertEquals(List.of(), ids(ranking.topPorIdioma("de", 10)));
+		assertEquals(List.of(3L, 2L), ids(ranking.topPorAutor(20, 10)));
+	}
+
+	@Test
+	void intercalaOsRankingsDeVariosAutoresSemRepetirLivros() {
+		// O livro 2 é dos autores 10 e 20, mas aparece uma vez só; o autor 99 não tem livros.
+		assertEquals(List.of(1L, 3L, 2L), ids(ranking.topPorAutores(List.of(10L, 20L, 99L), 10)));
+		assertEquals(List.of(1L, 3L, 2L, 4L), ids(ranking.topPorAutores(List.of(30L, 20L, 10L), 10)));
+		assertEquals(List.of(1L, 3L), ids(ranking.topPorAutores(List.of(10L, 20L), 2)));
+		assertEquals(List.of(), ids(ranking.topPorAutores(List.of(), 10)));
+	}
+
+	@Test
+	void reordenaDepoisDeAtualizarOsDownloads() {
+		ranking.top(1);
+		// O livro 2 passa à frente, o 1 cai para o fim e o 5, que não tinha downloads, entra no ranking.
+		ranking.aoAtualizarDownloads(new DownloadsAtualizadosEvent(Map.of(2L, 600, 1L, 10, 5L, 50)));
+
+		assertEquals(List.of(2L, 3L, 4L, 6L, 5L, 1L), ids(ranking.top(10)));
+		assertEquals(List.of(2L, 6L, 1L), ids(ranking.topPorIdioma("en", 10)));
+		assertEquals(List.of(2L, 3L, 5L, 1L), ids(ranking.topPorAutores(List.of(10L, 20L), 10)));
+		assertEquals(List.of(2L, 1L), ids(ranking.topPorAutor(10, 10)));
+		assertEquals(600, ranking.top(1).get(0).downloads());
+	}
+
+	@Test
+	void incluiLivrosDeLotesIngeridos() {
+		ranking.top(1);
+		Author autor = new Author();
+		autor.setId(30L);
+		Book livro = new Book();
+		livro.setId(7L);
+		livro.setDownloadCount(1_000);
+		livro.setLanguages(List.of("pt"));
+		livro.setAuthors(List.of(autor));
+		ranking.aoIngerirLivros(new LivrosIngeridosEvent(List.of(livro), List.of(autor)));
+
+		assertEquals(7L, ranking.top(1).get(0).livroId());
+		assertEquals(List.of(7L, 4L), ids(ranking.topPorIdioma("pt", 10)));
+		assertEquals(List.of(7L, 1L, 3L), ids(ranking.topPorAutores(List.of(10L, 20L, 30L), 3)));
+	}
+
+	private static List<Long> ids(List<RankingDownloads.Posicao> posicoes) {
+		return posicoes.stream().map(RankingDownloads.Posicao::livroId).toList();
+	}
+
+	/**
+	 * Responde às três consultas da carga do ranking com as linhas de {@link #LIVROS}.
+	 */
+	private static class BancoSimulado extends JdbcTemplate {
+		@Override
+		@SuppressWarnings("unchecked")
+		public void query(String sql, RowCallbackHandler linhas) {
+			try {
+				for (Object[] livro : LIVROS) {
+					long id = (Long) livro[0];
+					if (sql.contains("FROM livro_idiomas")) {
+						for (String codigo : (List<String>) livro[2]) {
+							linhas.processRow(linha(Map.of("livro_id", id, "codigo", codigo)));
+						}
+					} else if (sql.contains("FROM livro_autores")) {
+						for (Long autorId : (List<Long>) livro[3]) {
+							linhas.processRow(linha(Map.of("livro_id", id, "autor_id", autorId)));
+						}
+					} else {
+						Map<String, Object> colunas = new HashMap<>();
+						colunas.put("id", id);
+						colunas.put("download_count", livro[1]);
+						linhas.processRow(linha(colunas));
+					}
+				}
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private static ResultSet linha(Map<String, Object> colunas) throws SQLException {
+			ResultSet linha = mock(ResultSet.class);
+			for (Map.Entry<String, Object> coluna : colunas.entrySet()) {
+				when(linha.getObject(coluna.getKey())).thenReturn(coluna.getValue());
+				if (coluna.getValue() instanceof Long valor) {
+					when(linha.getLong(coluna.getKey())).thenReturn(valor);
+				} else if (coluna.getValue() instanceof String valor) {
+					when(linha.getString(coluna.getKey())).thenReturn(valor);
+				}
+			}
+			return linha;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package br.com.literalura.literalura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Testa a codificação das colunas do snapshot (varint, zigzag e texto), gravando valores com
+ * {@link SnapshotCatalogo.Coluna} e lendo de volta com os leitores usados na importação.
+ */
+class SnapshotCatalogoTest {
+
+	@Test
+	void varintVoltaIgual() {
+		long[] valores = {0, 1, 127, 128, 300, 16_383, 16_384, Integer.MAX_VALUE, 1L << 40, Long.MAX_VALUE, -1L};
+		SnapshotCatalogo.Coluna coluna = new SnapshotCatalogo.Coluna();
+		for (long valor : valores) {
+			coluna.varint(valor);
+		}
+
+		ByteBuffer dados = lida(coluna);
+		for (long valor : valores) {
+			assertEquals(valor, SnapshotCatalogo.lerVarint(dados));
+		}
+		assertFalse(dados.hasRemaining());
+	}
+
+	@Test
+	void inteirosOpcionaisVoltamIguaisComNegativosENulos() {
+		List<Integer> valores = Arrays.asList(null, 0, 1, -1, 63, -64, 64, -65, -1_200, 1_850,
+				Integer.MAX_VALUE, Integer.MIN_VALUE, null);
+		SnapshotCatalogo.Coluna coluna = new SnapshotCatalogo.Coluna();
+		for (Integer valor : valores) {
+			coluna.inteiroOpcional(valor);
+		}
+
+		ByteBuffer dados = lida(coluna);
+		for (Integer valor : valores) {
+			assertEquals(valor, SnapshotCatalogo.lerInteiroOpcional(dados));
+		}
+		assertFalse(dados.hasRemaining());
+	}
+
+	@Test
+	void negativosPequenosOcupamUmByte() {
+		SnapshotCatalogo.Coluna coluna = new SnapshotCatalogo.Coluna();
+		coluna.inteiroOpcional(-1);
+		coluna.inteiroOpcional(-63);
+		assertEquals(2, coluna.tamanho);
+	}
+
+	@Test
+	void textosVoltamIguaisDistinguindoNuloDeVazio() {
+		List<String> valores = Arrays.asList(null, "", "a", null, "Memórias Póstumas de Brás Cubas", "",
+				"源氏物語 🙂", "x".repeat(300));
+		SnapshotCatalogo.Coluna coluna = new SnapshotCatalogo.Coluna();
+		for (String valor : valores) {
+			coluna.texto(valor);
+		}
+
+		ByteBuffer dados = lida(coluna);
+		for (String valor : valores) {
+			assertEquals(valor, SnapshotCatalogo.lerTexto(dados));
+		}
+		assertFalse(dados.hasRemaining());
+	}
+
+	private static ByteBuffer lida(SnapshotCatalogo.Coluna coluna) {
+		// Começa em uma posição diferente de zero, como as colunas lidas de dentro do arquivo.
+		byte[] comDeslocamento = new byte[coluna.tamanho + 3];
+		System.arraycopy(coluna.bytes, 0, comDeslocamento, 3, coluna.tamanho);
+		return ByteBuffer.wrap(comDeslocamento, 3, coluna.tamanho).slice();
+	}
+}